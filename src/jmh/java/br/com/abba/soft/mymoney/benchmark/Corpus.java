@@ -0,0 +1,29 @@
+package br.com.abba.soft.mymoney.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/** Checked-in benchmark inputs under {@code src/jmh/resources/corpus}. */
+public final class Corpus {
+
+    private Corpus() {}
+
+    /** Non-blank lines of the file, skipping '#' comments. */
+    public static List<String> lines(String name) {
+        return text(name).lines()
+                .filter(l -> !l.isBlank() && !l.startsWith("#"))
+                .toList();
+    }
+
+    public static String text(String name) {
+        try (InputStream in = Corpus.class.getResourceAsStream("/corpus/" + name)) {
+            if (in == null) throw new IllegalStateException("Corpus nao encontrado: " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.abba.soft.mymoney.infrastructure.ai;
+
+import br.com.abba.soft.mymoney.benchmark.Corpus;
+import br.com.abba.soft.mymoney.infrastructure.categoria.CategoriaClassifier;
+import br.com.abba.soft.mymoney.infrastructure.config.CategoriaProperties;
+import br.com.abba.soft.mymoney.infrastructure.config.OpenAIProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/** Turning OpenAI's JSON answers into Despesa (Jackson, dates, amounts, categories); one operation is the whole corpus. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OpenAIResponseBenchmark {
+
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+
+    private List<String> respostas;
+    private OpenAIExpenseExtractor extractor;
+
+    @Setup
+    public void setup() {
+        respostas = Corpus.lines("openai-respostas.jsonl");
+        CategoriaClassifier classifier = new CategoriaClassifier(new CategoriaProperties(), new DefaultResourceLoader());
+        extractor = new OpenAIExpenseExtractor(new OpenAIProperties(), new RestTemplate(), classifier, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public void parseDespesaJson(Blackhole bh) throws JsonProcessingException {
+        for (String r : respostas) bh.consume(extractor.parseDespesaJson(r, "user-1", PT_BR));
+    }
+}
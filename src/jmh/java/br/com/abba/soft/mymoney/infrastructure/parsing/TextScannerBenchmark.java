@@ -0,0 +1,171 @@
+package br.com.abba.soft.mymoney.infrastructure.parsing;
+
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TextScanner} against the parsing it replaced (regex/replace chains, NumberFormat fallback and nine
+ * DateTimeFormatters built per call), over the values found in real messages and OpenAI answers.
+ * Scores are whole corpus passes per millisecond.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TextScannerBenchmark {
+
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+    private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+
+    private final String[] amounts = {
+            "35", "12,90", "120.50", "1.234,56", "R$ 89,90", "2500", "1,234.56", "7,5", "1.299,00", "45.00",
+            "0,99", "R$1200", "18,00", "350", "64.9"
+    };
+    private final String[] payments = {
+            "pix", "PIX", "cartao", "cartão de crédito", "credito", "debito", "Cartão Débito", "dinheiro",
+            "CARTAO_CREDITO", "cash", "vale refeicao", "Pix "
+    };
+    private final String[] dates = {
+            "2025-08-10T12:30:00-03:00", "10/08/2025", "10/08/2025 14:30", "10/08/2025, 14:30:15",
+            "2025-08-09T19:05:00Z", "09-08-2025 08:15", "01.08.2025 22:00", "2025-08-10T12:30:00.000-03:00",
+            "31/07/2025", "ontem"
+    };
+
+    @Benchmark
+    public void amountsScanner(Blackhole bh) {
+        for (String s : amounts) bh.consume(TextScanner.amount(s));
+    }
+
+    @Benchmark
+    public void amountsLegacy(Blackhole bh) {
+        for (String s : amounts) bh.consume(Legacy.parseNumber(s, PT_BR));
+    }
+
+    @Benchmark
+    public void paymentsScanner(Blackhole bh) {
+        for (String s : payments) bh.consume(TextScanner.payment(s));
+    }
+
+    @Benchmark
+    public void paymentsLegacy(Blackhole bh) {
+        for (String s : payments) bh.consume(Legacy.parsePagamento(s));
+    }
+
+    @Benchmark
+    public void datesScanner(Blackhole bh) {
+        for (String s : dates) bh.consume(TextScanner.dateTime(s, ZONE));
+    }
+
+    @Benchmark
+    public void datesLegacy(Blackhole bh) {
+        for (String s : dates) bh.consume(Legacy.parseFlexibleDateTime(s, PT_BR, ZONE));
+    }
+
+    /** The previous WhatsAppMessageParser / OpenAIExpenseExtractor code, kept verbatim as the baseline. */
+    static final class Legacy {
+
+        private static final Map<String, TipoPagamento> PAYMENT_ALIASES = new HashMap<>();
+        static {
+            PAYMENT_ALIASES.put("DINHEIRO", TipoPagamento.DINHEIRO);
+            PAYMENT_ALIASES.put("CASH", TipoPagamento.DINHEIRO);
+            PAYMENT_ALIASES.put("PIX", TipoPagamento.PIX);
+            PAYMENT_ALIASES.put("CARTAO", TipoPagamento.CARTAO_CREDITO);
+            PAYMENT_ALIASES.put("CARTAO CREDITO", TipoPagamento.CARTAO_CREDITO);
+            PAYMENT_ALIASES.put("CREDITO", TipoPagamento.CARTAO_CREDITO);
+            PAYMENT_ALIASES.put("CARTAO DEBITO", TipoPagamento.CARTAO_DEBITO);
+            PAYMENT_ALIASES.put("DEBITO", TipoPagamento.CARTAO_DEBITO);
+        }
+
+        static BigDecimal parseNumber(String raw, Locale locale) {
+            if (raw == null) return null;
+            String s = raw.trim();
+            if (s.contains(",") && s.contains(".")) {
+                if (s.lastIndexOf(',') > s.lastIndexOf('.')) {
+                    s = s.replace(".", "");
+                    s = s.replace(',', '.');
+                } else {
+                    s = s.replace(",", "");
+                }
+            } else if (s.contains(",")) {
+                s = s.replace('.', ' ').replace(" ", "");
+                s = s.replace(',', '.');
+            }
+            try {
+                return new BigDecimal(s);
+            } catch (NumberFormatException e) {
+                try {
+                    Number n = NumberFormat.getNumberInstance(locale == null ? Locale.forLanguageTag("pt-BR") : locale).parse(raw);
+                    return new BigDecimal(n.toString());
+                } catch (ParseException ex) {
+                    return null;
+                }
+            }
+        }
+
+        static TipoPagamento parsePagamento(String raw) {
+            if (raw == null) return null;
+            String key = raw.trim().toUpperCase(Locale.ROOT).replaceAll("\\\\s+", " ");
+            if (PAYMENT_ALIASES.containsKey(key)) return PAYMENT_ALIASES.get(key);
+            try {
+                return TipoPagamento.valueOf(key);
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+        }
+
+        static ZonedDateTime parseFlexibleDateTime(String dt, Locale locale, ZoneId zone) {
+            if (dt == null) return null;
+            String s = dt.trim();
+            if (s.isEmpty()) return null;
+            try {
+                return ZonedDateTime.parse(s);
+            } catch (DateTimeParseException ignored) {}
+            Locale loc = (locale == null ? Locale.forLanguageTag("pt-BR") : locale);
+            String[] patterns = new String[] {
+                    "dd/MM/uuuu, HH:mm:ss",
+                    "dd/MM/uuuu, HH:mm",
+                    "dd/MM/uuuu HH:mm:ss",
+                    "dd/MM/uuuu HH:mm",
+                    "dd-MM-uuuu HH:mm:ss",
+                    "dd-MM-uuuu HH:mm",
+                    "dd.MM.uuuu HH:mm:ss",
+                    "dd.MM.uuuu HH:mm",
+                    "dd/MM/uuuu"
+            };
+            for (String p : patterns) {
+                DateTimeFormatter f = DateTimeFormatter.ofPattern(p, loc);
+                if (p.equals("dd/MM/uuuu")) {
+                    try {
+                        LocalDate ld = LocalDate.parse(s, f);
+                        return ld.atStartOfDay(zone);
+                    } catch (DateTimeParseException ignored) {}
+                } else {
+                    try {
+                        LocalDateTime ldt = LocalDateTime.parse(s, f);
+                        return ldt.atZone(zone);
+                    } catch (DateTimeParseException ignored) {}
+                }
+            }
+            return null;
+        }
+    }
+}
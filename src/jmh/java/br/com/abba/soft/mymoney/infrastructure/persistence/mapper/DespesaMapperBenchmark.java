@@ -0,0 +1,99 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.mapper;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.infrastructure.config.MongoConfig;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.DespesaDocument;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversions of a page of expenses (50) between domain, DespesaDocument and BSON, with the same custom
+ * conversions the application registers; one operation converts the whole page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DespesaMapperBenchmark {
+
+    private static final int PAGINA = 50;
+
+    private List<Despesa> despesas;
+    private List<DespesaDocument> documentos;
+    private List<Document> bsons;
+    private MappingMongoConverter converter;
+
+    @Setup
+    public void setup() {
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        ZonedDateTime base = ZonedDateTime.of(2025, 8, 1, 12, 0, 0, 0, ZoneId.of("America/Sao_Paulo"));
+        Categoria[] categorias = Categoria.values();
+        TipoPagamento[] tipos = TipoPagamento.values();
+        despesas = new ArrayList<>(PAGINA);
+        documentos = new ArrayList<>(PAGINA);
+        bsons = new ArrayList<>(PAGINA);
+        for (int i = 0; i < PAGINA; i++) {
+            Despesa d = new Despesa(String.format("66b7%020x", i), "Despesa " + i, new BigDecimal(i * 7 + ".90"),
+                    base.plusHours(i * 5L), tipos[i % tipos.length]);
+            d.setCategoria(categorias[i % categorias.length]);
+            d.setUserId("user-1");
+            despesas.add(d);
+            DespesaDocument doc = DespesaMapper.toDocument(d);
+            documentos.add(doc);
+            Document bson = new Document();
+            converter.write(doc, bson);
+            bsons.add(bson);
+        }
+    }
+
+    @Benchmark
+    public void toDocument(Blackhole bh) {
+        for (Despesa d : despesas) bh.consume(DespesaMapper.toDocument(d));
+    }
+
+    @Benchmark
+    public void toDomain(Blackhole bh) {
+        for (DespesaDocument doc : documentos) bh.consume(DespesaMapper.toDomain(doc));
+    }
+
+    @Benchmark
+    public void writeBson(Blackhole bh) {
+        for (DespesaDocument doc : documentos) {
+            Document bson = new Document();
+            converter.write(doc, bson);
+            bh.consume(bson);
+        }
+    }
+
+    /** What a page read costs after the driver: BSON to document to domain. */
+    @Benchmark
+    public void readPage(Blackhole bh) {
+        for (Document bson : bsons) bh.consume(DespesaMapper.toDomain(converter.read(DespesaDocument.class, bson)));
+    }
+}
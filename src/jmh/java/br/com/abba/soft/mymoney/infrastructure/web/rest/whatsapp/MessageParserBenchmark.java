@@ -0,0 +1,51 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp;
+
+import br.com.abba.soft.mymoney.benchmark.Corpus;
+import br.com.abba.soft.mymoney.infrastructure.categoria.CategoriaClassifier;
+import br.com.abba.soft.mymoney.infrastructure.config.CategoriaProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/** Local parsing of the pt-BR message corpus; one operation is a pass over every message. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageParserBenchmark {
+
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+
+    private List<String> mensagens;
+    private CategoriaClassifier classifier;
+
+    @Setup
+    public void setup() {
+        mensagens = Corpus.lines("mensagens-pt-BR.txt");
+        classifier = new CategoriaClassifier(new CategoriaProperties(), new DefaultResourceLoader());
+    }
+
+    @Benchmark
+    public void tryParse(Blackhole bh) {
+        for (String m : mensagens) bh.consume(WhatsAppMessageParser.tryParse(m, "user-1", PT_BR, classifier));
+    }
+
+    @Benchmark
+    public void tryParseFreeText(Blackhole bh) {
+        for (String m : mensagens) bh.consume(WhatsAppMessageParser.tryParseFreeText(m));
+    }
+
+    @Benchmark
+    public void classificar(Blackhole bh) {
+        for (String m : mensagens) bh.consume(classifier.classificar(m, PT_BR));
+    }
+}
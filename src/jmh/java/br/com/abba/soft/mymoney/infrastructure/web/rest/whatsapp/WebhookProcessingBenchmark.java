@@ -0,0 +1,75 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp;
+
+import br.com.abba.soft.mymoney.benchmark.Corpus;
+import br.com.abba.soft.mymoney.infrastructure.categoria.CategoriaClassifier;
+import br.com.abba.soft.mymoney.infrastructure.config.CategoriaProperties;
+import br.com.abba.soft.mymoney.infrastructure.config.WhatsAppProperties;
+import br.com.abba.soft.mymoney.infrastructure.persistence.repository.WhatsAppIncomingMessageRepository;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppWebhookController.WhatsMetaRoot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.lang.reflect.Proxy;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Webhook request handling without I/O: decoding the Meta payload and walking it in
+ * {@link WhatsAppWebhookService#process}, with a queue that accepts every message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WebhookProcessingBenchmark {
+
+    @Param({"texto.json", "lote-texto.json", "misto-status-audio.json"})
+    public String payload;
+
+    private String body;
+    private WhatsMetaRoot root;
+    private WhatsAppWebhookService service;
+
+    @Setup
+    public void setup() {
+        body = Corpus.text("webhooks/" + payload);
+        root = WhatsAppWebhookPayloadReader.read(body);
+        CategoriaClassifier classifier = new CategoriaClassifier(new CategoriaProperties(), new DefaultResourceLoader());
+        service = new WhatsAppWebhookService(new WhatsAppProperties(), acceptingQueue(), null,
+                Locale.forLanguageTag("pt-BR"), classifier);
+    }
+
+    @Benchmark
+    public WhatsMetaRoot read() {
+        return WhatsAppWebhookPayloadReader.read(body);
+    }
+
+    @Benchmark
+    public WhatsAppWebhookController.WebhookProcessResult process() {
+        return service.process(root);
+    }
+
+    @Benchmark
+    public WhatsAppWebhookController.WebhookProcessResult readAndProcess() {
+        return service.process(WhatsAppWebhookPayloadReader.read(body));
+    }
+
+    private static WhatsAppIncomingMessageRepository acceptingQueue() {
+        return (WhatsAppIncomingMessageRepository) Proxy.newProxyInstance(
+                WhatsAppIncomingMessageRepository.class.getClassLoader(),
+                new Class<?>[]{WhatsAppIncomingMessageRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "enqueueIfAbsent" -> true;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "AcceptingQueue";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
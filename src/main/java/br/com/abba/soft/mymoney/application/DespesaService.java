@@ -1,24 +1,132 @@
 package br.com.abba.soft.mymoney.application;
 
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.CursorDespesa;
 import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.LinhaImportada;
+import br.com.abba.soft.mymoney.domain.model.PaginaDespesas;
+import br.com.abba.soft.mymoney.domain.model.ResumoDespesas;
+import br.com.abba.soft.mymoney.domain.model.ResumoMensal;
+import br.com.abba.soft.mymoney.domain.model.ResultadoImportacao;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.domain.port.CategorizacaoAprendidaPort;
 import br.com.abba.soft.mymoney.domain.port.DespesaRepositoryPort;
+import br.com.abba.soft.mymoney.domain.port.ResumoMensalRepositoryPort;
 import br.com.abba.soft.mymoney.infrastructure.security.SecurityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public class DespesaService {
 
+    private static final Logger log = LoggerFactory.getLogger(DespesaService.class);
+
+    private record ChaveResumo(String userId, YearMonth mes, Categoria categoria, TipoPagamento tipoPagamento) {}
+
     private final DespesaRepositoryPort repository;
+    private final ResumoMensalRepositoryPort resumoMensal;
+    private final CategorizacaoAprendidaPort categorizacao;
 
-    public DespesaService(DespesaRepositoryPort repository) {
+    public DespesaService(DespesaRepositoryPort repository, ResumoMensalRepositoryPort resumoMensal,
+                          CategorizacaoAprendidaPort categorizacao) {
         this.repository = repository;
+        this.resumoMensal = resumoMensal;
+        this.categorizacao = categorizacao;
     }
 
+    /**
+     * Stores a new expense and counts it in the monthly rollup. An expense with an origem is created at most
+     * once: replaying the same origem returns the stored expense untouched. Once the expense is stored this
+     * never fails, so callers that retry on failure cannot create it twice.
+     */
     public Despesa criar(Despesa despesa) {
         despesa.validate();
-        return repository.save(despesa);
+        if (despesa.getOrigem() != null) {
+            Optional<Despesa> existente = repository.findByOrigem(despesa.getOrigem());
+            if (existente.isPresent()) return existente.get();
+        }
+        Despesa criada;
+        try {
+            criada = repository.save(despesa);
+        } catch (DuplicateKeyException e) {
+            // Another worker stored the same origem between the lookup and the insert (e.g. a reclaimed lease)
+            if (despesa.getOrigem() == null) throw e;
+            return repository.findByOrigem(despesa.getOrigem()).orElseThrow(() -> e);
+        }
+        aplicarNoResumo(criada, 1);
+        categorizacao.aprender(criada, 1);
+        return criada;
+    }
+
+    /**
+     * Stores the valid rows in chunks of {@code tamanhoLote} and reports the invalid ones instead of aborting.
+     * Chunks already inserted stay stored if a later one fails.
+     */
+    public ResultadoImportacao importar(Iterator<LinhaImportada> linhas, int tamanhoLote, int maxErros) {
+        String userId = requireUserId();
+        int lote = Math.max(1, tamanhoLote);
+        List<Despesa> pendentes = new ArrayList<>(lote);
+        List<ResultadoImportacao.ErroLinha> erros = new ArrayList<>();
+        long lidas = 0;
+        long importadas = 0;
+        long rejeitadas = 0;
+        while (linhas.hasNext()) {
+            LinhaImportada linha = linhas.next();
+            lidas++;
+            String erro = linha.erro();
+            if (erro == null) {
+                Despesa despesa = linha.despesa();
+                despesa.setId(null);
+                despesa.setUserId(userId);
+                try {
+                    despesa.validate();
+                    pendentes.add(despesa);
+                } catch (IllegalArgumentException e) {
+                    erro = e.getMessage();
+                }
+            }
+            if (erro != null) {
+                rejeitadas++;
+                if (erros.size() < maxErros) erros.add(new ResultadoImportacao.ErroLinha(linha.numero(), erro));
+            }
+            if (pendentes.size() >= lote) {
+                importadas += gravarLote(pendentes);
+            }
+        }
+        importadas += gravarLote(pendentes);
+        return new ResultadoImportacao(lidas, importadas, rejeitadas, erros);
+    }
+
+    private int gravarLote(List<Despesa> pendentes) {
+        if (pendentes.isEmpty()) return 0;
+        List<Despesa> gravadas = repository.insertAll(pendentes);
+        pendentes.clear();
+        // One $inc per (mes, categoria, tipoPagamento) touched by the chunk, not one per expense
+        Map<ChaveResumo, BigDecimal> totais = new HashMap<>();
+        Map<ChaveResumo, Long> quantidades = new HashMap<>();
+        for (Despesa despesa : gravadas) {
+            Categoria categoria = despesa.getCategoria() == null ? Categoria.OUTRAS : despesa.getCategoria();
+            ChaveResumo chave = new ChaveResumo(despesa.getUserId(), mesDoResumo(despesa), categoria, despesa.getTipoPagamento());
+            totais.merge(chave, despesa.getValor(), BigDecimal::add);
+            quantidades.merge(chave, 1L, Long::sum);
+        }
+        totais.forEach((chave, total) -> incrementarResumo(chave.userId(), chave.mes(), chave.categoria(),
+                chave.tipoPagamento(), total, quantidades.get(chave)));
+        return gravadas.size();
     }
 
     public Despesa atualizar(String id, Despesa despesa) {
@@ -31,7 +139,16 @@ public class DespesaService {
             throw new IllegalArgumentException("Despesa nao encontrada");
         }
         despesa.setUserId(userId);
-        return repository.save(despesa);
+        despesa.setOrigem(existente.getOrigem());
+        Despesa atualizada = repository.save(despesa);
+        aplicarNoResumo(existente, -1);
+        aplicarNoResumo(atualizada, 1);
+        if (mudouCategorizacao(existente, atualizada)) {
+            // A correction moves the old choice's votes to the new one
+            categorizacao.aprender(existente, -1);
+            categorizacao.aprender(atualizada, 1);
+        }
+        return atualizada;
     }
 
     public void excluir(String id) {
@@ -42,6 +159,8 @@ public class DespesaService {
             throw new IllegalArgumentException("Despesa nao encontrada");
         }
         repository.deleteById(id);
+        aplicarNoResumo(existente, -1);
+        categorizacao.aprender(existente, -1);
     }
 
     public Despesa buscar(String id) {
@@ -53,28 +172,133 @@ public class DespesaService {
         return despesa;
     }
 
-    public List<Despesa> listar() {
+    public PaginaDespesas listar(int page, int size) {
+        String userId = requireUserId();
+        return pagina(repository.findByUserId(userId, page, size), size);
+    }
+
+    public PaginaDespesas listar(String cursor, int size) {
+        String userId = requireUserId();
+        return pagina(repository.findByUserIdAfter(userId, CursorDespesa.decode(cursor), size), size);
+    }
+
+    private PaginaDespesas pagina(List<Despesa> itens, int size) {
+        // A short page means we reached the end; otherwise the last item seeds the next seek
+        String proximo = itens.isEmpty() || itens.size() < size ? null : CursorDespesa.of(itens.get(itens.size() - 1)).encode();
+        return new PaginaDespesas(itens, proximo);
+    }
+
+    private String requireUserId() {
         String userId = SecurityUtils.currentUserIdOrNull();
-        return repository.findAll().stream().filter(d -> userId != null && userId.equals(d.getUserId())).toList();
+        if (userId == null) {
+            throw new IllegalStateException("Usuario nao autenticado");
+        }
+        return userId;
+    }
+
+    /**
+     * Streams the user's expenses in the period (either bound may be null) to the destination, oldest first.
+     * Takes the user id explicitly because it runs outside the request thread.
+     */
+    public void exportar(String userId, LocalDateTime inicio, LocalDateTime fim, Consumer<Despesa> destino) {
+        if (userId == null) {
+            throw new IllegalStateException("Usuario nao autenticado");
+        }
+        repository.forEachByUserIdAndDataHoraBetween(userId, inicio, fim, destino);
     }
 
     public List<Despesa> listarPorPeriodo(LocalDateTime inicio, LocalDateTime fim) {
+        validarPeriodo(inicio, fim);
+        return repository.findByUserIdAndDataHoraBetween(requireUserId(), inicio, fim);
+    }
+
+    public List<Despesa> listarPorPeriodo(LocalDateTime inicio, LocalDateTime fim, int page, int size) {
+        validarPeriodo(inicio, fim);
+        return repository.findByUserIdAndDataHoraBetween(requireUserId(), inicio, fim, page, size);
+    }
+
+    public ResumoDespesas resumirPorPeriodo(LocalDateTime inicio, LocalDateTime fim) {
+        validarPeriodo(inicio, fim);
+        String userId = requireUserId();
+        if (cobreMesesInteiros(inicio, fim)) {
+            // Whole months are answered from the rollup, independent of how many expenses the user has
+            return somar(resumoMensal.findByUserIdAndMesBetween(userId, YearMonth.from(inicio), YearMonth.from(fim)));
+        }
+        return repository.resumir(userId, inicio, fim);
+    }
+
+    public List<ResumoMensal> listarResumoMensal(YearMonth de, YearMonth ate) {
+        if (de == null || ate == null || ate.isBefore(de)) {
+            throw new IllegalArgumentException("Periodo invalido: informe meses de inicio e fim em ordem");
+        }
+        return resumoMensal.findByUserIdAndMesBetween(requireUserId(), de, ate);
+    }
+
+    public long reconstruirResumoMensal() {
+        return resumoMensal.reconstruir(requireUserId());
+    }
+
+    private void aplicarNoResumo(Despesa despesa, int sinal) {
+        if (despesa.getUserId() == null) return;
+        Categoria categoria = despesa.getCategoria() == null ? Categoria.OUTRAS : despesa.getCategoria();
+        BigDecimal valor = sinal < 0 ? despesa.getValor().negate() : despesa.getValor();
+        incrementarResumo(despesa.getUserId(), mesDoResumo(despesa), categoria, despesa.getTipoPagamento(), valor, sinal);
+    }
+
+    /**
+     * Best effort: the expenses are already written when the rollup is incremented, so a failure here must not
+     * turn a committed change into an error. The drift is logged and fixed by a rebuild
+     * (DESPESAS_RESUMO_MENSAL_REBUILD on startup).
+     */
+    private void incrementarResumo(String userId, YearMonth mes, Categoria categoria, TipoPagamento tipoPagamento,
+                                   BigDecimal valor, long quantidade) {
+        try {
+            resumoMensal.incrementar(userId, mes, categoria, tipoPagamento, valor, quantidade);
+        } catch (RuntimeException e) {
+            log.warn("[DespesaService] Falha ao atualizar resumo mensal (userId={}, mes={}, categoria={}, tipoPagamento={}, valor={}, quantidade={}); reconstrucao necessaria: {}",
+                    userId, mes, categoria, tipoPagamento, valor, quantidade, e.getMessage());
+        }
+    }
+
+    private static boolean mudouCategorizacao(Despesa antes, Despesa depois) {
+        return !Objects.equals(antes.getDescricao(), depois.getDescricao())
+                || antes.getCategoria() != depois.getCategoria()
+                || antes.getTipoPagamento() != depois.getTipoPagamento();
+    }
+
+    // Bucket in the system zone, the same one the rollup rebuild and period queries use
+    private static YearMonth mesDoResumo(Despesa despesa) {
+        return YearMonth.from(despesa.getDataHora().withZoneSameInstant(ZoneId.systemDefault()));
+    }
+
+    private static boolean cobreMesesInteiros(LocalDateTime inicio, LocalDateTime fim) {
+        LocalDateTime depoisDoFim = fim.plusNanos(1);
+        return inicio.equals(inicio.toLocalDate().withDayOfMonth(1).atStartOfDay())
+                && depoisDoFim.equals(depoisDoFim.toLocalDate().withDayOfMonth(1).atStartOfDay());
+    }
+
+    private static ResumoDespesas somar(List<ResumoMensal> linhas) {
+        BigDecimal total = BigDecimal.ZERO;
+        long quantidade = 0;
+        Map<Categoria, BigDecimal> porCategoria = new EnumMap<>(Categoria.class);
+        Map<TipoPagamento, BigDecimal> porTipo = new EnumMap<>(TipoPagamento.class);
+        for (ResumoMensal linha : linhas) {
+            total = total.add(linha.total());
+            quantidade += linha.quantidade();
+            porCategoria.merge(linha.categoria(), linha.total(), BigDecimal::add);
+            if (linha.tipoPagamento() != null) {
+                porTipo.merge(linha.tipoPagamento(), linha.total(), BigDecimal::add);
+            }
+        }
+        return new ResumoDespesas(total, quantidade, porCategoria, porTipo);
+    }
+
+    private void validarPeriodo(LocalDateTime inicio, LocalDateTime fim) {
         if (inicio == null || fim == null) {
             throw new IllegalArgumentException("Periodo invalido: inicio e fim sao obrigatorios");
         }
         if (fim.isBefore(inicio)) {
             throw new IllegalArgumentException("Periodo invalido: fim deve ser depois de inicio");
         }
-        String userId = SecurityUtils.currentUserIdOrNull();
-        if (userId == null) {
-            throw new IllegalStateException("Usuario nao autenticado");
-        }
-        return repository.findByUserIdAndDataHoraBetween(userId, inicio, fim);
-    }
-
-    public BigDecimal totalizarValor(List<Despesa> despesas) {
-        return despesas.stream()
-                .map(Despesa::getValor)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 }
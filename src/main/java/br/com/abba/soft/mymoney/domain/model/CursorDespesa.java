@@ -0,0 +1,39 @@
+package br.com.abba.soft.mymoney.domain.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset (seek) cursor over a user's expenses ordered by dataHora desc, id desc.
+ * Encoded as an opaque URL-safe token so clients simply echo it back.
+ */
+public record CursorDespesa(Instant dataHora, String id) {
+
+    public static CursorDespesa of(Despesa despesa) {
+        return new CursorDespesa(despesa.getDataHora().toInstant(), despesa.getId());
+    }
+
+    public String encode() {
+        String raw = dataHora.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorDespesa decode(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Cursor invalido");
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            if (sep <= 0 || sep == raw.length() - 1) {
+                throw new IllegalArgumentException("Cursor invalido");
+            }
+            Instant dataHora = Instant.ofEpochMilli(Long.parseLong(raw.substring(0, sep)));
+            return new CursorDespesa(dataHora, raw.substring(sep + 1));
+        } catch (IllegalArgumentException e) {
+            // also covers NumberFormatException and malformed Base64
+            throw new IllegalArgumentException("Cursor invalido");
+        }
+    }
+}
@@ -21,6 +21,8 @@ public class Despesa {
     private TipoPagamento tipoPagamento;
     private Categoria categoria;
     private String userId;
+    // Source that created the expense (e.g. a WhatsApp message); unique, so replaying that source finds it instead of duplicating
+    private String origem;
 
     public Despesa() {}
 
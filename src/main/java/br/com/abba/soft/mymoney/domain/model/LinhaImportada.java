@@ -0,0 +1,16 @@
+package br.com.abba.soft.mymoney.domain.model;
+
+/**
+ * One row read from an import file: either the parsed expense or the reason it could not be read.
+ * {@code numero} is the row's position in the file (line for CSV, transaction for OFX).
+ */
+public record LinhaImportada(long numero, Despesa despesa, String erro) {
+
+    public static LinhaImportada valida(long numero, Despesa despesa) {
+        return new LinhaImportada(numero, despesa, null);
+    }
+
+    public static LinhaImportada invalida(long numero, String erro) {
+        return new LinhaImportada(numero, null, erro);
+    }
+}
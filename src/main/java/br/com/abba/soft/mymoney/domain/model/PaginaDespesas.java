@@ -0,0 +1,9 @@
+package br.com.abba.soft.mymoney.domain.model;
+
+import java.util.List;
+
+/**
+ * A page of expenses plus the cursor to fetch the next one (null when there is no next page).
+ */
+public record PaginaDespesas(List<Despesa> itens, String proximoCursor) {
+}
@@ -0,0 +1,12 @@
+package br.com.abba.soft.mymoney.domain.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: rows read, rows stored and the rejected rows with their reasons.
+ * Only the first rejections are listed; {@code rejeitadas} always holds the full count.
+ */
+public record ResultadoImportacao(long linhas, long importadas, long rejeitadas, List<ErroLinha> erros) {
+
+    public record ErroLinha(long linha, String erro) {}
+}
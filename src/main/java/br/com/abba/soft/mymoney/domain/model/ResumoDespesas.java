@@ -0,0 +1,13 @@
+package br.com.abba.soft.mymoney.domain.model;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Totals of a user's expenses over a period, computed by the store rather than by loading every expense.
+ */
+public record ResumoDespesas(BigDecimal total,
+                             long quantidade,
+                             Map<Categoria, BigDecimal> totalPorCategoria,
+                             Map<TipoPagamento, BigDecimal> totalPorTipoPagamento) {
+}
@@ -0,0 +1,16 @@
+package br.com.abba.soft.mymoney.domain.model;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * One row of the materialized monthly rollup: a user's total and count for a month,
+ * categoria and tipoPagamento.
+ */
+public record ResumoMensal(String userId,
+                           YearMonth mes,
+                           Categoria categoria,
+                           TipoPagamento tipoPagamento,
+                           BigDecimal total,
+                           long quantidade) {
+}
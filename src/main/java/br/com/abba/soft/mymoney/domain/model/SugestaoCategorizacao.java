@@ -0,0 +1,8 @@
+package br.com.abba.soft.mymoney.domain.model;
+
+/**
+ * What a user usually chooses for the words of a description, learned from their own expenses.
+ * Either field is null when the history does not point clearly to one value.
+ */
+public record SugestaoCategorizacao(Categoria categoria, TipoPagamento tipoPagamento) {
+}
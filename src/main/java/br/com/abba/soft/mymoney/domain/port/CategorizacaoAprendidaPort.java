@@ -0,0 +1,18 @@
+package br.com.abba.soft.mymoney.domain.port;
+
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.SugestaoCategorizacao;
+
+import java.util.Optional;
+
+public interface CategorizacaoAprendidaPort {
+
+    /**
+     * Counts (peso 1) or withdraws (peso -1) the expense's categoria and tipoPagamento for each word of its
+     * description, in the expense owner's index. Best effort: failures are logged, never thrown.
+     */
+    void aprender(Despesa despesa, int peso);
+
+    /** The user's usual choices for the words of the description, or empty when their history says nothing. */
+    Optional<SugestaoCategorizacao> sugerir(String userId, String descricao);
+}
@@ -1,16 +1,43 @@
 package br.com.abba.soft.mymoney.domain.port;
 
+import br.com.abba.soft.mymoney.domain.model.CursorDespesa;
 import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.ResumoDespesas;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface DespesaRepositoryPort {
     Despesa save(Despesa despesa);
+
+    /** Inserts new expenses in a single round trip; returns them with their generated ids. */
+    List<Despesa> insertAll(List<Despesa> despesas);
     Optional<Despesa> findById(String id);
+
+    /** The expense created from the given source, if any (see {@code Despesa.origem}). */
+    Optional<Despesa> findByOrigem(String origem);
     List<Despesa> findAll();
     void deleteById(String id);
 
     List<Despesa> findByUserIdAndDataHoraBetween(String userId, LocalDateTime inicio, LocalDateTime fim);
+
+    /** Offset page of a user's expenses within the period, newest first. */
+    List<Despesa> findByUserIdAndDataHoraBetween(String userId, LocalDateTime inicio, LocalDateTime fim, int page, int size);
+
+    /** Total, count and per-categoria / per-tipoPagamento sums for the period, computed server-side. */
+    ResumoDespesas resumir(String userId, LocalDateTime inicio, LocalDateTime fim);
+
+    /**
+     * Feeds a user's expenses within the period (either bound may be null) to the action, oldest first,
+     * from a server-side cursor; nothing beyond the driver's fetch batch is held in memory.
+     */
+    void forEachByUserIdAndDataHoraBetween(String userId, LocalDateTime inicio, LocalDateTime fim, Consumer<Despesa> action);
+
+    /** Offset page of a user's expenses, newest first (dataHora desc, id desc). */
+    List<Despesa> findByUserId(String userId, int page, int size);
+
+    /** Keyset page: the next {@code size} expenses strictly after the cursor, in the same order. */
+    List<Despesa> findByUserIdAfter(String userId, CursorDespesa cursor, int size);
 }
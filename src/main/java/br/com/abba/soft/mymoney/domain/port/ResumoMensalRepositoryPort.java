@@ -0,0 +1,25 @@
+package br.com.abba.soft.mymoney.domain.port;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.ResumoMensal;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+public interface ResumoMensalRepositoryPort {
+
+    /** Atomically applies a delta to the (userId, mes, categoria, tipoPagamento) row, creating it if needed. */
+    void incrementar(String userId, YearMonth mes, Categoria categoria, TipoPagamento tipoPagamento,
+                     BigDecimal deltaValor, long deltaQuantidade);
+
+    List<ResumoMensal> findByUserIdAndMesBetween(String userId, YearMonth de, YearMonth ate);
+
+    /**
+     * Recomputes the rollup from the raw expenses. Rebuilds a single user when userId is given,
+     * or every user when it is null. Existing rows stay readable meanwhile and are overwritten, not recreated;
+     * rows with no expenses left are removed at the end. Returns the number of rollup rows written.
+     */
+    long reconstruir(String userId);
+}
@@ -0,0 +1,166 @@
+package br.com.abba.soft.mymoney.infrastructure.ai;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.infrastructure.cache.BoundedTtlCache;
+import br.com.abba.soft.mymoney.infrastructure.config.OpenAICacheProperties;
+import br.com.abba.soft.mymoney.infrastructure.parsing.DateReferences;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.ExtracaoCacheDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.repository.ExtracaoCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Caches OpenAI extraction results by locale + normalized message text.
+ * Only the date-independent fields are stored; dataHora is always filled at lookup time, and messages
+ * that mention a date or time are never cached since their result depends on when they were sent.
+ */
+@Component
+public class ExpenseExtractionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseExtractionCache.class);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    record CachedExtraction(String descricao, BigDecimal valor, TipoPagamento tipoPagamento, Categoria categoria) {}
+
+    private final OpenAICacheProperties props;
+    private final ExtracaoCacheRepository repository;
+    private final BoundedTtlCache<String, CachedExtraction> memory;
+
+    private final Counter memoryHits;
+    private final Counter mongoHits;
+    private final Counter misses;
+    private final Counter bypassed;
+    private final Counter savedSeconds;
+    private final Timer callTimer;
+
+    public ExpenseExtractionCache(OpenAICacheProperties props, ExtracaoCacheRepository repository, MeterRegistry meterRegistry) {
+        this.props = props;
+        this.repository = repository;
+        this.memory = new BoundedTtlCache<>(Math.max(1, props.getMaxEntries()), Duration.ofSeconds(Math.max(1, props.getTtlSeconds())));
+
+        this.memoryHits = Counter.builder("openai.extraction.cache")
+                .description("Consultas ao cache de extracao")
+                .tags("result", "hit", "tier", "memory")
+                .register(meterRegistry);
+        this.mongoHits = Counter.builder("openai.extraction.cache")
+                .description("Consultas ao cache de extracao")
+                .tags("result", "hit", "tier", "mongo")
+                .register(meterRegistry);
+        this.misses = Counter.builder("openai.extraction.cache")
+                .description("Consultas ao cache de extracao")
+                .tags("result", "miss", "tier", "none")
+                .register(meterRegistry);
+        this.bypassed = Counter.builder("openai.extraction.cache")
+                .description("Consultas ao cache de extracao")
+                .tags("result", "bypass", "tier", "none")
+                .register(meterRegistry);
+        this.savedSeconds = Counter.builder("openai.extraction.cache.saved")
+                .description("Tempo estimado de chamadas ao OpenAI evitadas pelo cache")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.callTimer = Timer.builder("openai.extraction.duration")
+                .description("Tempo de uma chamada de extracao ao OpenAI")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /** Returns the cache key for the message, or null when it must not be cached. */
+    public String keyFor(String rawMessage, Locale locale) {
+        if (!props.isEnabled() || rawMessage == null) return null;
+        String normalized = WHITESPACE.matcher(Normalizer.normalize(rawMessage, Normalizer.Form.NFC).trim())
+                .replaceAll(" ")
+                .toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) return null;
+        if (DateReferences.mentionsDate(normalized)) {
+            bypassed.increment();
+            return null;
+        }
+        return (locale == null ? "pt-BR" : locale.toLanguageTag()) + "|" + normalized;
+    }
+
+    public Optional<Despesa> get(String key, String userId) {
+        if (key == null) return Optional.empty();
+        CachedExtraction hit = memory.get(key);
+        if (hit != null) {
+            memoryHits.increment();
+        } else {
+            hit = findPersistent(key);
+            if (hit == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+            mongoHits.increment();
+            memory.put(key, hit);
+        }
+        savedSeconds.increment(callTimer.mean(TimeUnit.SECONDS));
+        Despesa d = new Despesa();
+        d.setDescricao(hit.descricao());
+        d.setValor(hit.valor());
+        d.setTipoPagamento(hit.tipoPagamento());
+        d.setCategoria(hit.categoria());
+        d.setDataHora(ZonedDateTime.now());
+        d.setUserId(userId);
+        return Optional.of(d);
+    }
+
+    /** Records the latency of a real extraction call and, when key is not null, caches its result. */
+    public void put(String key, Despesa despesa, Duration callLatency) {
+        callTimer.record(callLatency);
+        if (key == null || despesa == null) return;
+        CachedExtraction value = new CachedExtraction(despesa.getDescricao(), despesa.getValor(),
+                despesa.getTipoPagamento(), despesa.getCategoria());
+        memory.put(key, value);
+        if (!props.isPersistent()) return;
+        try {
+            Date expiresAt = Date.from(Instant.now().plusSeconds(props.getTtlSeconds()));
+            repository.save(new ExtracaoCacheDocument(sha256(key), value.descricao(), value.valor(),
+                    value.tipoPagamento(), value.categoria(), expiresAt));
+        } catch (DataAccessException e) {
+            log.debug("[ExpenseExtractionCache] Falha ao gravar cache persistente: {}", e.getMessage());
+        }
+    }
+
+    private CachedExtraction findPersistent(String key) {
+        if (!props.isPersistent()) return null;
+        try {
+            return repository.findByIdAndExpiresAtAfter(sha256(key), new Date())
+                    .map(doc -> new CachedExtraction(doc.getDescricao(), doc.getValor(), doc.getTipoPagamento(), doc.getCategoria()))
+                    .orElse(null);
+        } catch (DataAccessException e) {
+            log.debug("[ExpenseExtractionCache] Falha ao ler cache persistente: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String sha256(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package br.com.abba.soft.mymoney.infrastructure.ai;
+
+/**
+ * The extraction backend could not be reached or refused temporarily (timeout, 5xx, rate limit).
+ * Unlike an empty extraction result, the same message may succeed if retried later.
+ */
+public class ExpenseExtractionUnavailableException extends RuntimeException {
+    public ExpenseExtractionUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
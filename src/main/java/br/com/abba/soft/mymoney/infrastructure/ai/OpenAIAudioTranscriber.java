@@ -1,14 +1,19 @@
 package br.com.abba.soft.mymoney.infrastructure.ai;
 
 import br.com.abba.soft.mymoney.infrastructure.config.OpenAIProperties;
+import br.com.abba.soft.mymoney.infrastructure.http.UpstreamGuard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 
@@ -19,24 +24,29 @@ public class OpenAIAudioTranscriber {
 
     private final OpenAIProperties props;
     private final RestTemplate restTemplate;
+    private final UpstreamGuard guard;
 
-    public OpenAIAudioTranscriber(OpenAIProperties props) {
+    public OpenAIAudioTranscriber(OpenAIProperties props,
+                                  @Qualifier("openAiStreamingRestTemplate") RestTemplate restTemplate,
+                                  @Qualifier("openAiUpstreamGuard") UpstreamGuard guard) {
         this.props = props;
-        this.restTemplate = new RestTemplate();
+        this.restTemplate = restTemplate;
+        this.guard = guard;
     }
 
     /**
-     * Transcribe audio bytes to text using OpenAI's transcription API.
+     * Transcribe audio to text using OpenAI's transcription API. The audio is streamed from the resource
+     * into the multipart body, so it is never held in memory as a whole.
      * Returns null on failure.
      */
-    public String transcribe(byte[] audioBytes, String filename, String mimeType, Locale locale) {
-        if (audioBytes == null || audioBytes.length == 0) return null;
+    public String transcribe(Resource audio, String mimeType, Locale locale) {
+        if (audio == null) return null;
         if (props.isFakeKey()) {
             // Dev fallback: return a simple stub text so the flow can be tested offline
             return "[transcricao-dev]";
         }
         try {
-            String url = props.getBaseUrl().replaceAll("/+$/", "") + "/audio/transcriptions";
+            String url = props.getBaseUrl().replaceAll("/+$", "") + "/audio/transcriptions";
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.MULTIPART_FORM_DATA);
@@ -54,11 +64,13 @@ public class OpenAIAudioTranscriber {
                 body.add("language", textPart(lang));
             }
 
-            // file part
-            body.add("file", new InMemoryFileSystemResource(audioBytes, filename != null ? filename : "audio.ogg", mimeType != null ? mimeType : "audio/ogg"));
+            // file part; the filename comes from the resource
+            HttpHeaders fileHeaders = new HttpHeaders();
+            fileHeaders.setContentType(MediaType.parseMediaType(mimeType != null ? mimeType : "audio/ogg"));
+            body.add("file", new HttpEntity<>(audio, fileHeaders));
 
             HttpEntity<MultiValueMap<String, Object>> req = new HttpEntity<>(body, headers);
-            ResponseEntity<String> resp = restTemplate.exchange(url, HttpMethod.POST, req, String.class);
+            ResponseEntity<String> resp = exchangeGuarded(url, req);
             if (!resp.getStatusCode().is2xxSuccessful() || resp.getBody() == null) {
                 log.warn("[OpenAIAudioTranscriber] Non-2xx from transcription API: status={} body={} ", resp.getStatusCode(), resp.getBody());
                 return null;
@@ -77,6 +89,22 @@ public class OpenAIAudioTranscriber {
         }
     }
 
+    // The streaming template has no interceptors (they would buffer the upload), so the guard is applied here
+    private ResponseEntity<String> exchangeGuarded(String url, HttpEntity<MultiValueMap<String, Object>> req) throws IOException {
+        guard.acquire();
+        boolean healthy = false;
+        try {
+            ResponseEntity<String> resp = restTemplate.exchange(url, HttpMethod.POST, req, String.class);
+            healthy = true;
+            return resp;
+        } catch (HttpStatusCodeException e) {
+            healthy = UpstreamGuard.isHealthyStatus(e.getStatusCode().value());
+            throw e;
+        } finally {
+            guard.release(healthy);
+        }
+    }
+
     private HttpEntity<byte[]> textPart(String value) {
         HttpHeaders h = new HttpHeaders();
         h.setContentType(MediaType.TEXT_PLAIN);
@@ -112,19 +140,4 @@ public class OpenAIAudioTranscriber {
         }
         return sb.toString();
     }
-
-    // Simple in-memory Resource for multipart without touching FS
-    static class InMemoryFileSystemResource extends org.springframework.core.io.AbstractResource {
-        private final byte[] bytes;
-        private final String filename;
-        private final String contentType;
-        InMemoryFileSystemResource(byte[] bytes, String filename, String contentType) {
-            this.bytes = bytes; this.filename = filename; this.contentType = contentType;
-        }
-        @Override public String getDescription() { return "InMemoryFileSystemResource(" + filename + ")"; }
-        @Override public String getFilename() { return filename; }
-        @Override public java.io.InputStream getInputStream() { return new java.io.ByteArrayInputStream(bytes); }
-        @Override public long contentLength() { return bytes.length; }
-        @Override public boolean exists() { return true; }
-    }
 }
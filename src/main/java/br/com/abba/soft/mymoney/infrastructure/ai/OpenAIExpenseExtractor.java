@@ -3,25 +3,30 @@ package br.com.abba.soft.mymoney.infrastructure.ai;
 import br.com.abba.soft.mymoney.domain.model.Despesa;
 import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
 import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.infrastructure.categoria.CategoriaClassifier;
 import br.com.abba.soft.mymoney.infrastructure.config.OpenAIProperties;
+import br.com.abba.soft.mymoney.infrastructure.parsing.TextScanner;
 import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppMessageParser;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @Service
@@ -29,16 +34,77 @@ public class OpenAIExpenseExtractor {
 
     private static final Logger log = LoggerFactory.getLogger(OpenAIExpenseExtractor.class);
 
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
+    private static final String SYSTEM_PROMPT = """
+            Você é um assistente que extrai uma Despesa a partir de mensagens de WhatsApp em linguagem natural.
+            Sempre responda apenas com JSON válido aderente ao schema. Campos: descricao (string), valor (number),
+            tipoPagamento (DINHEIRO|PIX|CARTAO_CREDITO|CARTAO_DEBITO|VALE_REFEICAO|VALE_ALIMENTACAO|VOUCHER), dataHora (ISO-8601),
+            categoria (ALIMENTACAO|MERCADO|EDUCACAO|LAZER|CONTAS_DO_DIA_A_DIA|OUTRAS) inferida a partir da descrição.
+            Se a mensagem não for uma despesa, responda apenas com um JSON com campos
+            mínimos faltando que fará a validação falhar. Idioma: pt-BR.
+            Se não conseguir extrair a data e hora, pode retornar o campo nulo.
+            """;
+
+    private static final String BATCH_SYSTEM_PROMPT = SYSTEM_PROMPT + """
+            Você receberá várias mensagens em um array JSON de objetos {id, mensagem}, cada uma independente.
+            Responda com {"despesas": [...]} contendo um item por mensagem, repetindo o mesmo id recebido.
+            """;
+
+    /** One message of a batch extraction; id is echoed back by the model to map results. */
+    public record BatchItem(String id, String text, String userId) {}
+
+    /**
+     * Outcome of a batch extraction: the expenses by item id, and every id that got an answer, including the
+     * ones answered as "not an expense". Ids missing from answeredIds were never answered and may be retried.
+     */
+    public record BatchResult(Map<String, Despesa> despesas, Set<String> answeredIds) {
+
+        public static BatchResult empty() {
+            return new BatchResult(Map.of(), Set.of());
+        }
+
+        public boolean isAnswered(String id) {
+            return answeredIds.contains(id);
+        }
+
+        public Optional<Despesa> despesa(String id) {
+            return Optional.ofNullable(despesas.get(id));
+        }
+    }
+
+    private record Completion(String content, long totalTokens) {}
+
     private final OpenAIProperties props;
     private final RestTemplate restTemplate;
+    private final CategoriaClassifier categoriaClassifier;
     private final ObjectMapper mapper;
+    // Schemas never change at runtime; built once instead of per request
+    private final Map<String, Object> responseFormat;
+    private final Map<String, Object> batchResponseFormat;
+    private final DistributionSummary singleTokens;
+    private final DistributionSummary batchTokens;
 
-    public OpenAIExpenseExtractor(OpenAIProperties props) {
+    public OpenAIExpenseExtractor(OpenAIProperties props,
+                                  @Qualifier("openAiRestTemplate") RestTemplate restTemplate,
+                                  CategoriaClassifier categoriaClassifier,
+                                  MeterRegistry meterRegistry) {
         this.props = props;
-        this.restTemplate = new RestTemplate();
+        this.restTemplate = restTemplate;
+        this.categoriaClassifier = categoriaClassifier;
         this.mapper = new ObjectMapper()
                 .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
                 .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.responseFormat = Map.of("type", "json_schema", "json_schema", buildJsonSchemaMap());
+        this.batchResponseFormat = Map.of("type", "json_schema", "json_schema", buildBatchJsonSchemaMap());
+        this.singleTokens = DistributionSummary.builder("openai.extraction.tokens")
+                .description("Tokens consumidos por despesa extraida")
+                .tag("mode", "single")
+                .register(meterRegistry);
+        this.batchTokens = DistributionSummary.builder("openai.extraction.tokens")
+                .description("Tokens consumidos por despesa extraida")
+                .tag("mode", "batch")
+                .register(meterRegistry);
     }
 
     public Optional<Despesa> extract(String rawMessage, String userId, Locale locale) {
@@ -46,39 +112,101 @@ public class OpenAIExpenseExtractor {
         // If using fake key, fallback to existing parser to keep dev/test working offline
         if (props.isFakeKey()) {
             log.debug("[OpenAIExpenseExtractor] Fake API key detected, using local parser fallback");
-            return WhatsAppMessageParser.tryParse(rawMessage, userId, locale);
+            return WhatsAppMessageParser.tryParse(rawMessage, userId, locale, categoriaClassifier);
         }
         try {
-            Map<String, Object> request = buildOpenAIRequest(rawMessage, locale);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(props.getApiKey());
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
+            Completion completion = complete(buildOpenAIRequest(SYSTEM_PROMPT, responseFormat,
+                    "Locale=" + localeTag(locale) + "\nMensagem=\n" + rawMessage));
+            singleTokens.record(completion.totalTokens());
+            Despesa d = parseDespesaJson(completion.content(), userId, locale);
+            return Optional.ofNullable(d);
+        } catch (ResourceAccessException | HttpServerErrorException | HttpClientErrorException.TooManyRequests e) {
+            // timeouts, connection failures, 5xx and rate limiting: the caller may retry later
+            throw new ExpenseExtractionUnavailableException("OpenAI indisponivel: " + e.getMessage(), e);
+        } catch (Exception e) {
+            log.warn("[OpenAIExpenseExtractor] Falha na extração via OpenAI: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
 
-            String url = props.getBaseUrl().replaceAll("/+$", "") + "/chat/completions";
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
-            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-                throw new IllegalStateException("OpenAI response inválida: " + response.getStatusCode());
+    /**
+     * Extracts several messages in a single chat-completions call. Items the model answered but that are not a
+     * valid expense are reported as answered, since {@link #extract} would give the same answer; only items the
+     * model dropped should be retried one by one.
+     */
+    public BatchResult extractBatch(List<BatchItem> items, Locale locale) {
+        Map<String, Despesa> result = new HashMap<>();
+        Set<String> answered = new HashSet<>();
+        if (items.isEmpty()) return new BatchResult(result, answered);
+        if (props.isFakeKey()) {
+            for (BatchItem item : items) {
+                WhatsAppMessageParser.tryParse(item.text(), item.userId(), locale, categoriaClassifier).ifPresent(d -> result.put(item.id(), d));
+                answered.add(item.id());
             }
-            Map<String, Object> resp = mapper.readValue(response.getBody(), new TypeReference<Map<String, Object>>(){});
-            Map<String, Object> choice0 = firstChoice(resp);
-            if (choice0 == null) {
-                throw new IllegalStateException("OpenAI não retornou choices");
+            return new BatchResult(result, answered);
+        }
+        Map<String, BatchItem> byId = new HashMap<>();
+        List<Map<String, String>> payload = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            byId.put(item.id(), item);
+            payload.add(Map.of("id", item.id(), "mensagem", item.text()));
+        }
+        try {
+            Completion completion = complete(buildOpenAIRequest(BATCH_SYSTEM_PROMPT, batchResponseFormat,
+                    "Locale=" + localeTag(locale) + "\nMensagens=\n" + mapper.writeValueAsString(payload)));
+            Object despesas = mapper.readValue(completion.content(), JSON_OBJECT).get("despesas");
+            if (!(despesas instanceof List<?> list)) {
+                throw new IllegalStateException("OpenAI não retornou a lista de despesas");
             }
-            String content = extractContent(choice0);
-            if (content == null || content.isBlank()) {
-                throw new IllegalStateException("OpenAI não retornou conteúdo");
+            for (Object o : list) {
+                if (!(o instanceof Map<?, ?> raw)) continue;
+                @SuppressWarnings("unchecked")
+                Map<String, Object> json = (Map<String, Object>) raw;
+                BatchItem item = byId.get(asString(json.get("id")));
+                if (item == null || !answered.add(item.id())) continue;
+                try {
+                    result.put(item.id(), toDespesa(json, item.userId(), locale));
+                } catch (IllegalArgumentException invalid) {
+                    log.debug("[OpenAIExpenseExtractor] Item {} do lote invalido: {}", item.id(), invalid.getMessage());
+                }
             }
-            Despesa d = parseDespesaJson(content, userId, locale);
-            return Optional.ofNullable(d);
+            double perItem = (double) completion.totalTokens() / items.size();
+            for (int i = 0; i < items.size(); i++) batchTokens.record(perItem);
+            return new BatchResult(result, answered);
+        } catch (ResourceAccessException | HttpServerErrorException | HttpClientErrorException.TooManyRequests e) {
+            throw new ExpenseExtractionUnavailableException("OpenAI indisponivel: " + e.getMessage(), e);
         } catch (Exception e) {
-            log.warn("[OpenAIExpenseExtractor] Falha na extração via OpenAI: {}", e.getMessage());
-            return Optional.empty();
+            log.warn("[OpenAIExpenseExtractor] Falha na extração em lote via OpenAI: {}", e.getMessage());
+            return new BatchResult(result, answered);
+        }
+    }
+
+    private Completion complete(Map<String, Object> request) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(props.getApiKey());
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
+
+        String url = props.getBaseUrl().replaceAll("/+$", "") + "/chat/completions";
+        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new IllegalStateException("OpenAI response inválida: " + response.getStatusCode());
+        }
+        Map<String, Object> resp = mapper.readValue(response.getBody(), JSON_OBJECT);
+        Map<String, Object> choice0 = firstChoice(resp);
+        if (choice0 == null) {
+            throw new IllegalStateException("OpenAI não retornou choices");
         }
+        String content = extractContent(choice0);
+        if (content == null || content.isBlank()) {
+            throw new IllegalStateException("OpenAI não retornou conteúdo");
+        }
+        long totalTokens = resp.get("usage") instanceof Map<?, ?> usage && usage.get("total_tokens") instanceof Number n
+                ? n.longValue() : 0L;
+        return new Completion(content, totalTokens);
     }
 
-    private Map<String, Object> buildJsonSchemaMap() {
+    private static Map<String, Object> despesaSchema() {
         Map<String, Object> propsMap = new LinkedHashMap<>();
         propsMap.put("descricao", Map.of("type", "string"));
         propsMap.put("valor", Map.of("type", "number"));
@@ -99,45 +227,52 @@ public class OpenAIExpenseExtractor {
         schema.put("type", "object");
         schema.put("required", List.of("descricao", "valor", "tipoPagamento"));
         schema.put("properties", propsMap);
+        return schema;
+    }
 
+    private static Map<String, Object> buildJsonSchemaMap() {
         Map<String, Object> jsonSchema = new LinkedHashMap<>();
         jsonSchema.put("name", "DespesaSchema");
+        jsonSchema.put("schema", despesaSchema());
+        return jsonSchema;
+    }
+
+    private static Map<String, Object> buildBatchJsonSchemaMap() {
+        Map<String, Object> item = despesaSchema();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> itemProps = (Map<String, Object>) item.get("properties");
+        itemProps.put("id", Map.of("type", "string"));
+        item.put("required", List.of("id", "descricao", "valor", "tipoPagamento"));
+
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        schema.put("required", List.of("despesas"));
+        schema.put("properties", Map.of("despesas", Map.of("type", "array", "items", item)));
+
+        Map<String, Object> jsonSchema = new LinkedHashMap<>();
+        jsonSchema.put("name", "DespesasSchema");
         jsonSchema.put("schema", schema);
         return jsonSchema;
     }
 
-    private Map<String, Object> buildOpenAIRequest(String rawMessage, Locale locale) {
-        Map<String, Object> responseFormat = new HashMap<>();
-        responseFormat.put("type", "json_schema");
-        responseFormat.put("json_schema", buildJsonSchemaMap());
-
-        List<Map<String, String>> messages = new ArrayList<>();
-        messages.add(Map.of(
-                "role", "system",
-                "content", """
-                        Você é um assistente que extrai uma Despesa a partir de mensagens de WhatsApp em linguagem natural.
-                        Sempre responda apenas com JSON válido aderente ao schema. Campos: descricao (string), valor (number),
-                        tipoPagamento (DINHEIRO|PIX|CARTAO_CREDITO|CARTAO_DEBITO|VALE_REFEICAO|VALE_ALIMENTACAO|VOUCHER), dataHora (ISO-8601),
-                        categoria (ALIMENTACAO|MERCADO|EDUCACAO|LAZER|CONTAS_DO_DIA_A_DIA|OUTRAS) inferida a partir da descrição.
-                        Se a mensagem não for uma despesa, responda apenas com um JSON com campos
-                        mínimos faltando que fará a validação falhar. Idioma: pt-BR.
-                        Se não conseguir extrair a data e hora, pode retornar o campo nulo.
-                       """
-        ));
-        String localeTag = locale == null ? "pt-BR" : locale.toLanguageTag();
-        messages.add(Map.of(
-                "role", "user",
-                "content", "Locale=" + localeTag + "\nMensagem=\n" + rawMessage
-        ));
+    private Map<String, Object> buildOpenAIRequest(String systemPrompt, Map<String, Object> format, String userContent) {
+        List<Map<String, String>> messages = List.of(
+                Map.of("role", "system", "content", systemPrompt),
+                Map.of("role", "user", "content", userContent)
+        );
 
         Map<String, Object> req = new HashMap<>();
         req.put("model", props.getModel());
         req.put("messages", messages);
         req.put("temperature", 0);
-        req.put("response_format", responseFormat);
+        req.put("response_format", format);
         return req;
     }
 
+    private static String localeTag(Locale locale) {
+        return locale == null ? "pt-BR" : locale.toLanguageTag();
+    }
+
     @SuppressWarnings("unchecked")
     private Map<String, Object> firstChoice(Map<String, Object> resp) {
         Object choices = resp.get("choices");
@@ -155,102 +290,36 @@ public class OpenAIExpenseExtractor {
         return content == null ? null : content.toString();
     }
 
-    private Despesa parseDespesaJson(String content, String userId, Locale locale) throws Exception {
-        Map<String, Object> json = mapper.readValue(content, new TypeReference<Map<String, Object>>(){});
+    /** Despesa from the model's JSON answer for one message; package-private for the benchmarks. */
+    Despesa parseDespesaJson(String content, String userId, Locale locale) throws JsonProcessingException {
+        return toDespesa(mapper.readValue(content, JSON_OBJECT), userId, locale);
+    }
+
+    private Despesa toDespesa(Map<String, Object> json, String userId, Locale locale) {
         Despesa d = new Despesa();
         d.setDescricao(asString(json.get("descricao")));
         d.setValor(asBigDecimal(json.get("valor")));
         d.setTipoPagamento(asTipoPagamento(asString(json.get("tipoPagamento"))));
         String dt = asString(json.get("dataHora"));
-        ZonedDateTime zdt = parseFlexibleDateTime(dt, locale);
+        ZonedDateTime zdt = TextScanner.dateTime(dt, ZoneId.systemDefault());
         d.setDataHora(zdt != null ? zdt : ZonedDateTime.now());
         String catS = asString(json.get("categoria"));
-        d.setCategoria(asCategoria(catS, d.getDescricao()));
+        d.setCategoria(asCategoria(catS, d.getDescricao(), locale));
         d.setUserId(userId);
         // Validate to ensure correctness
         d.validate();
         return d;
     }
 
-    private ZonedDateTime parseFlexibleDateTime(String dt, Locale locale) {
-        if (dt == null) return null;
-        String s = dt.trim();
-        if (s.isEmpty()) return null;
-        // Try ISO-8601 first
-        try {
-            return ZonedDateTime.parse(s);
-        } catch (DateTimeParseException ignored) {}
-
-        Locale loc = (locale == null ? Locale.forLanguageTag("pt-BR") : locale);
-        ZoneId zone = ZoneId.systemDefault();
-        String[] patterns = new String[] {
-                "dd/MM/uuuu, HH:mm:ss",
-                "dd/MM/uuuu, HH:mm",
-                "dd/MM/uuuu HH:mm:ss",
-                "dd/MM/uuuu HH:mm",
-                "dd-MM-uuuu HH:mm:ss",
-                "dd-MM-uuuu HH:mm",
-                "dd.MM.uuuu HH:mm:ss",
-                "dd.MM.uuuu HH:mm",
-                "dd/MM/uuuu"
-        };
-        for (String p : patterns) {
-            DateTimeFormatter f = DateTimeFormatter.ofPattern(p, loc);
-            // If pattern has only date, parse LocalDate; else LocalDateTime
-            if (p.equals("dd/MM/uuuu")) {
-                try {
-                    LocalDate ld = LocalDate.parse(s, f);
-                    return ld.atStartOfDay(zone);
-                } catch (DateTimeParseException ignored) {}
-            } else {
-                try {
-                    LocalDateTime ldt = LocalDateTime.parse(s, f);
-                    return ldt.atZone(zone);
-                } catch (DateTimeParseException ignored) {}
-            }
-        }
-        return null;
-    }
-
     private String asString(Object o) { return o == null ? null : String.valueOf(o); }
     private BigDecimal asBigDecimal(Object o) {
         if (o == null) return null;
         if (o instanceof Number n) return new BigDecimal(n.toString());
-        try { return new BigDecimal(String.valueOf(o)); } catch (Exception e) { return null; }
-    }
-    private TipoPagamento asTipoPagamento(String s) {
-        if (s == null) return null;
-        try { return TipoPagamento.valueOf(s.trim().toUpperCase(Locale.ROOT)); } catch (Exception e) { return null; }
+        return TextScanner.amount(String.valueOf(o));
     }
-    private Categoria asCategoria(String s, String descricao) {
-        if (s != null) {
-            String key = s.trim().toUpperCase(Locale.ROOT)
-                    .replace('Ã','A') // guard common accent artifacts
-                    .replace('Ç','C')
-                    .replace('É','E')
-                    .replace('Ê','E')
-                    .replace('Á','A')
-                    .replace('Í','I')
-                    .replace('Ó','O')
-                    .replace('Ú','U')
-                    .replace('À','A')
-                    .replace('Â','A')
-                    .replace('Ô','O');
-            key = key.replace(' ', '_');
-            try { return Categoria.valueOf(key); } catch (Exception ignored) {}
-        }
-        // heuristic from description
-        String desc = descricao == null ? "" : descricao.toLowerCase(Locale.ROOT);
-        if (desc.matches(".*\\b(almo(c|ç)o|jantar|comida|restaurante|lanche|hamb(ur|ú)guer|pizza|padaria|refe(i|í)cao|marmita|bar)\\b.*"))
-            return Categoria.ALIMENTACAO;
-        if (desc.matches(".*\\b(mercado|supermercado|compras|hortifruti|a(c|ç)ougue|sacolão|atacado)\\b.*"))
-            return Categoria.MERCADO;
-        if (desc.matches(".*\\b(curso|faculdade|escola|mensalidade|material|livro|aluno|ensino|ead|matr(i|í)cula)\\b.*"))
-            return Categoria.EDUCACAO;
-        if (desc.matches(".*\\b(cinema|lazer|viagem|passeio|parque|show|assinatura|netflix|spotify|game|jogo)\\b.*"))
-            return Categoria.LAZER;
-        if (desc.matches(".*\\b(luz|energia|agua|internet|telefone|aluguel|condominio|gas|conta|boleto)\\b.*"))
-            return Categoria.CONTAS_DO_DIA_A_DIA;
-        return Categoria.OUTRAS;
+    private TipoPagamento asTipoPagamento(String s) { return TextScanner.payment(s); }
+    private Categoria asCategoria(String s, String descricao, Locale locale) {
+        Categoria categoria = CategoriaClassifier.porNome(s);
+        return categoria != null ? categoria : categoriaClassifier.classificar(descricao, locale);
     }
 }
@@ -0,0 +1,280 @@
+package br.com.abba.soft.mymoney.infrastructure.ai;
+
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.SugestaoCategorizacao;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.domain.port.CategorizacaoAprendidaPort;
+import br.com.abba.soft.mymoney.infrastructure.ai.OpenAIExpenseExtractor.BatchItem;
+import br.com.abba.soft.mymoney.infrastructure.ai.OpenAIExpenseExtractor.BatchResult;
+import br.com.abba.soft.mymoney.infrastructure.categoria.CategoriaClassifier;
+import br.com.abba.soft.mymoney.infrastructure.config.OpenAIProperties;
+import br.com.abba.soft.mymoney.infrastructure.config.WhatsAppProcessorProperties;
+import br.com.abba.soft.mymoney.infrastructure.parsing.DateReferences;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppMessageParser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Extracts a Despesa from a message using the cheapest source that can answer:
+ * the structured parser ("Mercado | 120.50 | PIX"), then the user's own history ("uber 23,90" categorized the
+ * way the user categorized "uber" before), then the result cache, and only then OpenAI.
+ */
+@Service
+public class TieredExpenseExtractor {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredExpenseExtractor.class);
+
+    private final OpenAIExpenseExtractor openAIExpenseExtractor;
+    private final ExpenseExtractionCache cache;
+    private final OpenAIProperties openAIProperties;
+    private final CategoriaClassifier categoriaClassifier;
+    private final CategorizacaoAprendidaPort categorizacao;
+    private final Semaphore openAiPermits;
+
+    private final Counter parserHits;
+    private final Counter historyHits;
+    private final Counter cacheHits;
+    private final Counter openAiHits;
+    private final Counter openAiMisses;
+    private final Timer parserTimer;
+    private final Timer historyTimer;
+    private final Timer cacheTimer;
+    private final Timer openAiTimer;
+    private final Counter batchHits;
+    private final Counter batchMisses;
+    private final Timer batchTimer;
+
+    public TieredExpenseExtractor(OpenAIExpenseExtractor openAIExpenseExtractor,
+                                  ExpenseExtractionCache cache,
+                                  OpenAIProperties openAIProperties,
+                                  WhatsAppProcessorProperties processorProperties,
+                                  CategoriaClassifier categoriaClassifier,
+                                  CategorizacaoAprendidaPort categorizacao,
+                                  MeterRegistry meterRegistry) {
+        this.openAIExpenseExtractor = openAIExpenseExtractor;
+        this.cache = cache;
+        this.openAIProperties = openAIProperties;
+        this.categoriaClassifier = categoriaClassifier;
+        this.categorizacao = categorizacao;
+        // Only the OpenAI tier is throttled; parser and cache hits never wait for a permit
+        this.openAiPermits = new Semaphore(Math.max(1, processorProperties.getOpenaiMaxConcurrency()));
+
+        this.parserHits = counter(meterRegistry, "parser", "extracted");
+        this.historyHits = counter(meterRegistry, "history", "extracted");
+        this.cacheHits = counter(meterRegistry, "cache", "extracted");
+        this.openAiHits = counter(meterRegistry, "openai", "extracted");
+        this.openAiMisses = counter(meterRegistry, "openai", "empty");
+        this.parserTimer = timer(meterRegistry, "parser");
+        this.historyTimer = timer(meterRegistry, "history");
+        this.cacheTimer = timer(meterRegistry, "cache");
+        this.openAiTimer = timer(meterRegistry, "openai");
+        this.batchHits = counter(meterRegistry, "openai_batch", "extracted");
+        this.batchMisses = counter(meterRegistry, "openai_batch", "empty");
+        this.batchTimer = timer(meterRegistry, "openai_batch");
+    }
+
+    public Optional<Despesa> extract(String rawMessage, String userId, Locale locale) throws InterruptedException {
+        if (rawMessage == null || rawMessage.isBlank()) return Optional.empty();
+
+        long start = System.nanoTime();
+        Optional<Despesa> parsed = WhatsAppMessageParser.tryParseStructured(rawMessage, userId, locale, categoriaClassifier);
+        if (parsed.isPresent()) {
+            parserTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            parserHits.increment();
+            return parsed.map(d -> withHistoryCategory(d, userId));
+        }
+
+        start = System.nanoTime();
+        Optional<Despesa> learned = fromHistory(rawMessage, userId);
+        if (learned.isPresent()) {
+            historyTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            historyHits.increment();
+            return learned;
+        }
+
+        start = System.nanoTime();
+        String cacheKey = cache.keyFor(rawMessage, locale);
+        Optional<Despesa> cached = cache.get(cacheKey, userId);
+        if (cached.isPresent()) {
+            cacheTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            cacheHits.increment();
+            return cached;
+        }
+
+        openAiPermits.acquire();
+        try {
+            start = System.nanoTime();
+            Optional<Despesa> extracted = openAIExpenseExtractor.extract(rawMessage, userId, locale);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            openAiTimer.record(elapsed);
+            (extracted.isPresent() ? openAiHits : openAiMisses).increment();
+            // With a fake key the "OpenAI" result comes from the local parser; not worth caching
+            if (!openAIProperties.isFakeKey()) {
+                cache.put(cacheKey, extracted.orElse(null), elapsed);
+            }
+            return extracted;
+        } finally {
+            openAiPermits.release();
+        }
+    }
+
+    /**
+     * Resolves as many messages as possible in bulk: parser and cache per message, then the rest packed into
+     * batched OpenAI requests (in parallel, within the same concurrency limit). Messages answered as "not an
+     * expense" are reported as answered too; callers fall back to {@link #extract} only for the unanswered ones.
+     */
+    public BatchResult extractAll(List<BatchItem> items, Locale locale) {
+        Map<String, Despesa> resolved = new ConcurrentHashMap<>();
+        Set<String> answered = ConcurrentHashMap.newKeySet();
+        List<BatchItem> remote = new ArrayList<>();
+        Map<String, String> cacheKeys = new HashMap<>();
+        for (BatchItem item : items) {
+            if (item.text() == null || item.text().isBlank()) continue;
+            long start = System.nanoTime();
+            Optional<Despesa> parsed = WhatsAppMessageParser.tryParseStructured(item.text(), item.userId(), locale, categoriaClassifier);
+            if (parsed.isPresent()) {
+                parserTimer.record(Duration.ofNanos(System.nanoTime() - start));
+                parserHits.increment();
+                resolved.put(item.id(), withHistoryCategory(parsed.get(), item.userId()));
+                answered.add(item.id());
+                continue;
+            }
+            start = System.nanoTime();
+            Optional<Despesa> learned = fromHistory(item.text(), item.userId());
+            if (learned.isPresent()) {
+                historyTimer.record(Duration.ofNanos(System.nanoTime() - start));
+                historyHits.increment();
+                resolved.put(item.id(), learned.get());
+                answered.add(item.id());
+                continue;
+            }
+            start = System.nanoTime();
+            String cacheKey = cache.keyFor(item.text(), locale);
+            Optional<Despesa> cached = cache.get(cacheKey, item.userId());
+            if (cached.isPresent()) {
+                cacheTimer.record(Duration.ofNanos(System.nanoTime() - start));
+                cacheHits.increment();
+                resolved.put(item.id(), cached.get());
+                answered.add(item.id());
+                continue;
+            }
+            if (cacheKey != null) cacheKeys.put(item.id(), cacheKey);
+            remote.add(item);
+        }
+
+        // A batch of one costs the same as a single call; leave it to extract()
+        int chunkSize = Math.max(2, openAIProperties.getBatchSize());
+        if (remote.size() < 2) return new BatchResult(resolved, answered);
+        try (ExecutorService calls = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < remote.size(); i += chunkSize) {
+                List<BatchItem> chunk = remote.subList(i, Math.min(remote.size(), i + chunkSize));
+                if (chunk.size() < 2) break;
+                // extractChunk handles its own failures, so the futures carry nothing to read
+                calls.submit(() -> extractChunk(chunk, locale, cacheKeys, resolved, answered));
+            }
+        }
+        return new BatchResult(resolved, answered);
+    }
+
+    // Any failure leaves the chunk unanswered: its messages go through extract() one by one, which decides about retries
+    private void extractChunk(List<BatchItem> chunk, Locale locale, Map<String, String> cacheKeys,
+                              Map<String, Despesa> resolved, Set<String> answered) {
+        try {
+            openAiPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batchMisses.increment(chunk.size());
+            log.warn("[TieredExpenseExtractor] Lote de {} mensagens interrompido antes da chamada ao OpenAI", chunk.size());
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            BatchResult extracted = openAIExpenseExtractor.extractBatch(chunk, locale);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            batchTimer.record(elapsed);
+            batchHits.increment(extracted.despesas().size());
+            batchMisses.increment(chunk.size() - extracted.despesas().size());
+            resolved.putAll(extracted.despesas());
+            answered.addAll(extracted.answeredIds());
+            if (!openAIProperties.isFakeKey()) {
+                Duration perItem = elapsed.dividedBy(chunk.size());
+                extracted.despesas().forEach((id, despesa) -> cache.put(cacheKeys.get(id), despesa, perItem));
+            }
+        } catch (ExpenseExtractionUnavailableException e) {
+            batchTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            batchMisses.increment(chunk.size());
+            log.info("[TieredExpenseExtractor] Lote de {} mensagens nao extraido: {}", chunk.size(), e.getMessage());
+        } catch (RuntimeException e) {
+            batchTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            batchMisses.increment(chunk.size());
+            log.warn("[TieredExpenseExtractor] Falha inesperada no lote de {} mensagens", chunk.size(), e);
+        } finally {
+            openAiPermits.release();
+        }
+    }
+
+    /**
+     * Free-form message whose words the user already categorized consistently: amount and payment come from
+     * the text (payment falls back to the user's usual one), categoria from the history. No call leaves the JVM.
+     * Messages that mention when ("uber ontem 23,90") are left to OpenAI, which resolves the date.
+     */
+    private Optional<Despesa> fromHistory(String rawMessage, String userId) {
+        if (userId == null || DateReferences.mentionsDate(rawMessage)) return Optional.empty();
+        Optional<WhatsAppMessageParser.FreeText> parsed = WhatsAppMessageParser.tryParseFreeText(rawMessage);
+        if (parsed.isEmpty()) return Optional.empty();
+        WhatsAppMessageParser.FreeText text = parsed.get();
+        Optional<SugestaoCategorizacao> sugestao = categorizacao.sugerir(userId, text.descricao());
+        if (sugestao.isEmpty() || sugestao.get().categoria() == null) return Optional.empty();
+        TipoPagamento tipo = text.tipoPagamento() != null ? text.tipoPagamento() : sugestao.get().tipoPagamento();
+        if (tipo == null) return Optional.empty();
+        Despesa d = new Despesa();
+        d.setDescricao(text.descricao());
+        d.setValor(text.valor());
+        d.setTipoPagamento(tipo);
+        d.setCategoria(sugestao.get().categoria());
+        d.setDataHora(ZonedDateTime.now());
+        d.setUserId(userId);
+        return Optional.of(d);
+    }
+
+    /** The keyword dictionary is generic; what the user chose before for these words wins over it. */
+    private Despesa withHistoryCategory(Despesa despesa, String userId) {
+        categorizacao.sugerir(userId, despesa.getDescricao())
+                .map(SugestaoCategorizacao::categoria)
+                .ifPresent(despesa::setCategoria);
+        return despesa;
+    }
+
+    private static Counter counter(MeterRegistry registry, String tier, String result) {
+        return Counter.builder("expense.extraction")
+                .description("Extracoes de despesa por camada")
+                .tags("tier", tier, "result", result)
+                .register(registry);
+    }
+
+    private static Timer timer(MeterRegistry registry, String tier) {
+        return Timer.builder("expense.extraction.duration")
+                .description("Tempo de extracao de despesa por camada")
+                .tag("tier", tier)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,107 @@
+package br.com.abba.soft.mymoney.infrastructure.ai;
+
+import br.com.abba.soft.mymoney.infrastructure.cache.BoundedTtlCache;
+import br.com.abba.soft.mymoney.infrastructure.config.TranscriptionCacheProperties;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.TranscricaoCacheDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.repository.TranscricaoCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Caches audio transcriptions by media id (checked before downloading) and by SHA-256 of the audio content
+ * (checked before calling Whisper), so forwarded voice notes and redelivered media are transcribed only once.
+ */
+@Component
+public class TranscriptionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TranscriptionCache.class);
+
+    private final TranscriptionCacheProperties props;
+    private final TranscricaoCacheRepository repository;
+    private final BoundedTtlCache<String, String> memory;
+
+    private final Counter mediaHits;
+    private final Counter contentHits;
+    private final Counter misses;
+
+    public TranscriptionCache(TranscriptionCacheProperties props, TranscricaoCacheRepository repository, MeterRegistry meterRegistry) {
+        this.props = props;
+        this.repository = repository;
+        this.memory = new BoundedTtlCache<>(Math.max(1, props.getMaxEntries()), Duration.ofSeconds(Math.max(1, props.getTtlSeconds())));
+
+        this.mediaHits = Counter.builder("openai.transcription.cache")
+                .description("Consultas ao cache de transcricao")
+                .tags("result", "hit", "key", "media")
+                .register(meterRegistry);
+        this.contentHits = Counter.builder("openai.transcription.cache")
+                .description("Consultas ao cache de transcricao")
+                .tags("result", "hit", "key", "content")
+                .register(meterRegistry);
+        this.misses = Counter.builder("openai.transcription.cache")
+                .description("Consultas ao cache de transcricao")
+                .tags("result", "miss", "key", "content")
+                .register(meterRegistry);
+    }
+
+    /** Transcript of a media id already transcribed; a miss here is not counted, the content lookup follows. */
+    public Optional<String> getByMediaId(String mediaId) {
+        String texto = lookup(mediaKey(mediaId));
+        if (texto != null) mediaHits.increment();
+        return Optional.ofNullable(texto);
+    }
+
+    public Optional<String> getByContent(String sha256) {
+        String texto = lookup(contentKey(sha256));
+        (texto != null ? contentHits : misses).increment();
+        return Optional.ofNullable(texto);
+    }
+
+    /** Stores the transcript under both keys; either may be null. */
+    public void put(String mediaId, String sha256, String texto) {
+        if (!props.isEnabled() || texto == null) return;
+        List<String> keys = new ArrayList<>(2);
+        if (mediaId != null) keys.add(mediaKey(mediaId));
+        if (sha256 != null) keys.add(contentKey(sha256));
+        for (String key : keys) memory.put(key, texto);
+        if (!props.isPersistent() || keys.isEmpty()) return;
+        try {
+            Date expiresAt = Date.from(Instant.now().plusSeconds(props.getTtlSeconds()));
+            repository.saveAll(keys.stream().map(key -> new TranscricaoCacheDocument(key, texto, expiresAt)).toList());
+        } catch (DataAccessException e) {
+            log.debug("[TranscriptionCache] Falha ao gravar cache persistente: {}", e.getMessage());
+        }
+    }
+
+    private String lookup(String key) {
+        if (!props.isEnabled() || key == null) return null;
+        String texto = memory.get(key);
+        if (texto != null || !props.isPersistent()) return texto;
+        try {
+            texto = repository.findByIdAndExpiresAtAfter(key, new Date()).map(TranscricaoCacheDocument::getTexto).orElse(null);
+        } catch (DataAccessException e) {
+            log.debug("[TranscriptionCache] Falha ao ler cache persistente: {}", e.getMessage());
+            return null;
+        }
+        if (texto != null) memory.put(key, texto);
+        return texto;
+    }
+
+    private static String mediaKey(String mediaId) {
+        return mediaId == null ? null : "media:" + mediaId;
+    }
+
+    private static String contentKey(String sha256) {
+        return sha256 == null ? null : "sha256:" + sha256;
+    }
+}
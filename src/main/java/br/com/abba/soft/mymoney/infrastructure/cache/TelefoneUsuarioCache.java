@@ -0,0 +1,92 @@
+package br.com.abba.soft.mymoney.infrastructure.cache;
+
+import br.com.abba.soft.mymoney.infrastructure.config.WhatsAppProcessorProperties;
+import br.com.abba.soft.mymoney.infrastructure.parsing.PhoneNumbers;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.UsuarioDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.repository.UsuarioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sender phone (normalized, as in the queue) to user id. Unknown phones are cached too, with a shorter TTL,
+ * so a stream of messages from an unregistered number does not hit Mongo each time.
+ */
+@Component
+public class TelefoneUsuarioCache {
+
+    private final UsuarioRepository usuarioRepository;
+    private final BoundedTtlCache<String, String> conhecidos;
+    private final BoundedTtlCache<String, Boolean> desconhecidos;
+
+    private final Counter hits;
+    private final Counter negativeHits;
+    private final Counter misses;
+
+    public TelefoneUsuarioCache(UsuarioRepository usuarioRepository, WhatsAppProcessorProperties props, MeterRegistry meterRegistry) {
+        this.usuarioRepository = usuarioRepository;
+        int maxEntries = Math.max(1, props.getUserCacheMaxEntries());
+        this.conhecidos = new BoundedTtlCache<>(maxEntries, Duration.ofSeconds(Math.max(1, props.getUserCacheTtlSeconds())));
+        this.desconhecidos = new BoundedTtlCache<>(maxEntries, Duration.ofSeconds(Math.max(1, props.getUserCacheNegativeTtlSeconds())));
+        this.hits = Counter.builder("whatsapp.user.cache")
+                .description("Resolucao de telefone para usuario")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.negativeHits = Counter.builder("whatsapp.user.cache")
+                .description("Resolucao de telefone para usuario")
+                .tag("result", "negative_hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("whatsapp.user.cache")
+                .description("Resolucao de telefone para usuario")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /** User id per phone; phones without a user are absent from the map. Misses are resolved with one query. */
+    public Map<String, String> resolve(Collection<String> telefones) {
+        Map<String, String> userIdByPhone = new HashMap<>();
+        List<String> faltantes = new ArrayList<>();
+        for (String telefone : telefones) {
+            if (telefone == null || userIdByPhone.containsKey(telefone)) continue;
+            String userId = conhecidos.get(telefone);
+            if (userId != null) {
+                hits.increment();
+                userIdByPhone.put(telefone, userId);
+            } else if (desconhecidos.get(telefone) != null) {
+                negativeHits.increment();
+            } else if (!faltantes.contains(telefone)) {
+                misses.increment();
+                faltantes.add(telefone);
+            }
+        }
+        if (faltantes.isEmpty()) return userIdByPhone;
+        for (UsuarioDocument usuario : usuarioRepository.findByTelefoneIn(faltantes)) {
+            userIdByPhone.putIfAbsent(usuario.getTelefone(), usuario.getId());
+        }
+        for (String telefone : faltantes) {
+            String userId = userIdByPhone.get(telefone);
+            if (userId != null) {
+                conhecidos.put(telefone, userId);
+            } else {
+                desconhecidos.put(telefone, Boolean.TRUE);
+            }
+        }
+        return userIdByPhone;
+    }
+
+    /** Drops whatever is cached for the phone (as typed or normalized); call when a user is registered or changes phone. */
+    public void invalidate(String telefone) {
+        if (telefone == null) return;
+        for (String chave : List.of(telefone, PhoneNumbers.normalize(telefone))) {
+            conhecidos.invalidate(chave);
+            desconhecidos.invalidate(chave);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package br.com.abba.soft.mymoney.infrastructure.categoria;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.infrastructure.config.CategoriaProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Infers a {@link Categoria} from an expense description using per-locale keyword files
+ * ({@code categorias/<tag>.txt}), compiled into a single automaton per locale. The files are re-read when
+ * they change, without a restart. Descriptions matching nothing are {@link Categoria#OUTRAS}.
+ */
+@Component
+public class CategoriaClassifier {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoriaClassifier.class);
+
+    private record Regras(KeywordAutomaton automato, Categoria[] categorias, long versao) {}
+
+    private final CategoriaProperties props;
+    private final ResourceLoader resourceLoader;
+    // Swapped as a whole on reload; readers never see a half-built map
+    private volatile Map<String, Regras> regrasPorLocale;
+
+    public CategoriaClassifier(CategoriaProperties props, ResourceLoader resourceLoader) {
+        this.props = props;
+        this.resourceLoader = resourceLoader;
+        this.regrasPorLocale = carregar(Map.of(), true);
+    }
+
+    public Categoria classificar(String descricao, Locale locale) {
+        if (descricao == null || descricao.isBlank()) return Categoria.OUTRAS;
+        Regras regras = regras(locale);
+        if (regras == null) return Categoria.OUTRAS;
+        int grupo = regras.automato().buscar(descricao);
+        return grupo < 0 ? Categoria.OUTRAS : regras.categorias()[grupo];
+    }
+
+    /** Category named by the text ("Alimentação", "contas do dia a dia"), or null when it names none. */
+    public static Categoria porNome(String nome) {
+        if (nome == null || nome.isBlank()) return null;
+        // Same folding as the keywords, with separators as '_': "Contas do dia-a-dia" -> CONTAS_DO_DIA_A_DIA
+        String chave = KeywordAutomaton.dobrar(nome).strip().replace(' ', '_').toUpperCase(Locale.ROOT);
+        for (Categoria categoria : Categoria.values()) {
+            if (categoria.name().equals(chave)) return categoria;
+        }
+        return null;
+    }
+
+    /** Re-reads the keyword files that changed since the last load; a broken file keeps its previous rules. */
+    @Scheduled(fixedDelayString = "${categorias.reload-interval-ms:60000}", initialDelay = 60_000L)
+    public void recarregar() {
+        this.regrasPorLocale = carregar(regrasPorLocale, false);
+    }
+
+    private Regras regras(Locale locale) {
+        Map<String, Regras> atuais = regrasPorLocale;
+        if (locale != null) {
+            Regras regras = atuais.get(locale.toLanguageTag());
+            if (regras == null) regras = atuais.get(locale.getLanguage());
+            if (regras != null) return regras;
+        }
+        return atuais.get(props.getDefaultLocale());
+    }
+
+    private Map<String, Regras> carregar(Map<String, Regras> anteriores, boolean inicial) {
+        Map<String, Regras> novas = new HashMap<>();
+        for (String tag : props.getLocales()) {
+            Resource resource = resourceLoader.getResource(props.getLocation() + tag + ".txt");
+            Regras anterior = anteriores.get(tag);
+            try {
+                long versao = resource.exists() ? resource.lastModified() : -1;
+                if (anterior != null && anterior.versao() == versao) {
+                    novas.put(tag, anterior);
+                } else if (versao >= 0) {
+                    novas.put(tag, compilar(resource, versao));
+                    if (!inicial) log.info("[CategoriaClassifier] Regras de categoria recarregadas para {}", tag);
+                } else {
+                    log.warn("[CategoriaClassifier] Arquivo de categorias nao encontrado para {}: {}", tag, resource.getDescription());
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                if (inicial) throw new IllegalStateException("Arquivo de categorias invalido para " + tag + ": " + e.getMessage(), e);
+                log.error("[CategoriaClassifier] Arquivo de categorias invalido para {}, mantendo as regras anteriores: {}", tag, e.getMessage());
+                if (anterior != null) novas.put(tag, anterior);
+            }
+        }
+        return Map.copyOf(novas);
+    }
+
+    private static Regras compilar(Resource resource, long versao) throws IOException {
+        List<Categoria> categorias = new ArrayList<>();
+        List<List<String>> palavras = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                linha = linha.strip();
+                if (linha.isEmpty() || linha.startsWith("#")) continue;
+                int doisPontos = linha.indexOf(':');
+                if (doisPontos < 0) throw new IllegalArgumentException("linha sem 'CATEGORIA:': " + linha);
+                Categoria categoria;
+                try {
+                    categoria = Categoria.valueOf(linha.substring(0, doisPontos).strip());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("categoria desconhecida: " + linha.substring(0, doisPontos).strip());
+                }
+                List<String> chaves = Arrays.stream(linha.substring(doisPontos + 1).split(","))
+                        .map(String::strip).filter(s -> !s.isEmpty()).toList();
+                int existente = categorias.indexOf(categoria);
+                if (existente >= 0) {
+                    List<String> juntas = new ArrayList<>(palavras.get(existente));
+                    juntas.addAll(chaves);
+                    palavras.set(existente, juntas);
+                } else {
+                    categorias.add(categoria);
+                    palavras.add(chaves);
+                }
+            }
+        }
+        return new Regras(new KeywordAutomaton(palavras), categorias.toArray(Categoria[]::new), versao);
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.abba.soft.mymoney.infrastructure.categoria;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Words of a description as the learned categorization counts them: accent-folded, lower-case, at least
+ * three letters, without numbers, connectives or repetitions. Uses the same folding as the keyword files.
+ */
+public final class DescricaoTokens {
+
+    private static final int MIN_LETRAS = 3;
+    private static final Set<String> IGNORADAS = Set.of(
+            "com", "para", "pra", "por", "uma", "uns", "umas", "dos", "das", "nos", "nas", "pelo", "pela",
+            "the", "and", "for", "with");
+
+    private DescricaoTokens() {}
+
+    public static List<String> de(String descricao, int max) {
+        List<String> tokens = new ArrayList<>();
+        if (descricao == null) return tokens;
+        StringBuilder palavra = new StringBuilder();
+        boolean temDigito = false;
+        for (int i = 0, n = descricao.length(); i <= n && tokens.size() < max; i++) {
+            char c = i < n ? KeywordAutomaton.dobrar(descricao.charAt(i)) : ' ';
+            if (c != ' ') {
+                palavra.append(c);
+                temDigito |= Character.isDigit(c);
+                continue;
+            }
+            if (palavra.length() >= MIN_LETRAS && !temDigito) {
+                String token = palavra.toString();
+                if (!IGNORADAS.contains(token) && !tokens.contains(token)) tokens.add(token);
+            }
+            palavra.setLength(0);
+            temDigito = false;
+        }
+        return tokens;
+    }
+}
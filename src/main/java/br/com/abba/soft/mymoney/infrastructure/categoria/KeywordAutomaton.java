@@ -0,0 +1,158 @@
+package br.com.abba.soft.mymoney.infrastructure.categoria;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over accent-folded, lower-cased text, compiled to a dense transition table.
+ * Keywords are stored wrapped in separators, so they only match whole words, and runs of non-alphanumeric
+ * characters are read as a single separator. Matching walks the text once and allocates nothing.
+ */
+final class KeywordAutomaton {
+
+    private static final char SEPARADOR = ' ';
+    private static final char[] FOLD = new char[0x250];
+    static {
+        // Latin-1 and Latin Extended: base letter of the canonical decomposition ("ç" -> "c", "Á" -> "a")
+        for (char c = 0; c < FOLD.length; c++) {
+            char base = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0);
+            FOLD[c] = Character.isLetterOrDigit(base) ? Character.toLowerCase(base) : SEPARADOR;
+        }
+    }
+
+    // Folded ASCII char -> symbol; 0 is "any other character", which no keyword contains
+    private final int[] simbolo = new int[128];
+    private final int[][] transicao;
+    // Lowest priority of the keywords ending in each state (through suffix links too), or -1
+    private final int[] saida;
+
+    /** @param palavras keywords per priority; index 0 has the highest priority */
+    KeywordAutomaton(List<List<String>> palavras) {
+        List<String> chaves = new ArrayList<>();
+        List<Integer> prioridades = new ArrayList<>();
+        int totalSimbolos = 1;
+        for (int prioridade = 0; prioridade < palavras.size(); prioridade++) {
+            for (String palavra : palavras.get(prioridade)) {
+                String chave = dobrar(palavra);
+                if (chave.isBlank()) continue;
+                for (int i = 0; i < chave.length(); i++) {
+                    char c = chave.charAt(i);
+                    if (c >= simbolo.length) {
+                        throw new IllegalArgumentException("Palavra-chave com caractere nao suportado: " + palavra);
+                    }
+                    if (simbolo[c] == 0) simbolo[c] = totalSimbolos++;
+                }
+                chaves.add(chave);
+                prioridades.add(prioridade);
+            }
+        }
+
+        List<int[]> filhos = new ArrayList<>();
+        List<Integer> saidas = new ArrayList<>();
+        filhos.add(novoEstado(totalSimbolos));
+        saidas.add(-1);
+        for (int k = 0; k < chaves.size(); k++) {
+            int estado = 0;
+            String chave = chaves.get(k);
+            for (int i = 0; i < chave.length(); i++) {
+                int s = simbolo[chave.charAt(i)];
+                if (filhos.get(estado)[s] < 0) {
+                    filhos.get(estado)[s] = filhos.size();
+                    filhos.add(novoEstado(totalSimbolos));
+                    saidas.add(-1);
+                }
+                estado = filhos.get(estado)[s];
+            }
+            int atual = saidas.get(estado);
+            saidas.set(estado, atual < 0 ? prioridades.get(k) : Math.min(atual, prioridades.get(k)));
+        }
+
+        int estados = filhos.size();
+        this.transicao = new int[estados][];
+        this.saida = new int[estados];
+        int[] falha = new int[estados];
+        for (int e = 0; e < estados; e++) saida[e] = saidas.get(e);
+
+        // Breadth-first: the failure target of a state is always resolved before the state itself
+        Queue<Integer> fila = new ArrayDeque<>();
+        transicao[0] = new int[totalSimbolos];
+        for (int s = 0; s < totalSimbolos; s++) {
+            int filho = filhos.get(0)[s];
+            transicao[0][s] = filho < 0 ? 0 : filho;
+            if (filho > 0) {
+                falha[filho] = 0;
+                fila.add(filho);
+            }
+        }
+        while (!fila.isEmpty()) {
+            int e = fila.poll();
+            int f = falha[e];
+            if (saida[f] >= 0 && (saida[e] < 0 || saida[f] < saida[e])) saida[e] = saida[f];
+            transicao[e] = new int[totalSimbolos];
+            for (int s = 0; s < totalSimbolos; s++) {
+                int filho = filhos.get(e)[s];
+                if (filho < 0) {
+                    transicao[e][s] = transicao[f][s];
+                } else {
+                    transicao[e][s] = filho;
+                    falha[filho] = transicao[f][s];
+                    fila.add(filho);
+                }
+            }
+        }
+    }
+
+    /** Highest-priority (lowest index) keyword group found in the text, or -1. */
+    int buscar(CharSequence texto) {
+        int separador = simbolo[SEPARADOR];
+        int estado = transicao[0][separador];
+        int melhor = -1;
+        boolean ultimoSeparador = true;
+        for (int i = 0, n = texto.length(); i < n; i++) {
+            char c = dobrar(texto.charAt(i));
+            if (c == SEPARADOR) {
+                if (ultimoSeparador) continue;
+                ultimoSeparador = true;
+            } else {
+                ultimoSeparador = false;
+            }
+            estado = transicao[estado][c < simbolo.length ? simbolo[c] : 0];
+            int p = saida[estado];
+            if (p >= 0 && (melhor < 0 || p < melhor)) {
+                if (p == 0) return 0;
+                melhor = p;
+            }
+        }
+        if (!ultimoSeparador) {
+            int p = saida[transicao[estado][separador]];
+            if (p >= 0 && (melhor < 0 || p < melhor)) melhor = p;
+        }
+        return melhor;
+    }
+
+    static char dobrar(char c) {
+        if (c < FOLD.length) return FOLD[c];
+        return Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : SEPARADOR;
+    }
+
+    /** Keyword as stored: folded, separators collapsed and wrapped in separators. */
+    static String dobrar(String palavra) {
+        StringBuilder sb = new StringBuilder(palavra.length() + 2).append(SEPARADOR);
+        for (int i = 0; i < palavra.length(); i++) {
+            char c = dobrar(palavra.charAt(i));
+            if (c != SEPARADOR || sb.charAt(sb.length() - 1) != SEPARADOR) sb.append(c);
+        }
+        if (sb.charAt(sb.length() - 1) != SEPARADOR) sb.append(SEPARADOR);
+        return sb.length() <= 1 ? "" : sb.toString();
+    }
+
+    private static int[] novoEstado(int simbolos) {
+        int[] filhos = new int[simbolos];
+        Arrays.fill(filhos, -1);
+        return filhos;
+    }
+}
@@ -0,0 +1,26 @@
+package br.com.abba.soft.mymoney.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "security.token")
+public class AuthTokenProperties {
+    /** HMAC key for access tokens; when blank a random key is generated and tokens do not survive restarts or span instances. */
+    private String secret = "";
+    /** Lifetime of an access token issued by /api/auth/login, in seconds. */
+    private long ttlSeconds = 3600;
+    /** Verified credentials (Basic logins and password fingerprints) kept in memory. */
+    private int credentialCacheMaxEntries = 10_000;
+    /** How long a verified credential is trusted without going back to Mongo; bounds how late an out-of-band password change is noticed. */
+    private long credentialCacheTtlSeconds = 300;
+
+    public String getSecret() { return secret; }
+    public void setSecret(String secret) { this.secret = secret; }
+    public long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+    public int getCredentialCacheMaxEntries() { return credentialCacheMaxEntries; }
+    public void setCredentialCacheMaxEntries(int credentialCacheMaxEntries) { this.credentialCacheMaxEntries = credentialCacheMaxEntries; }
+    public long getCredentialCacheTtlSeconds() { return credentialCacheTtlSeconds; }
+    public void setCredentialCacheTtlSeconds(long credentialCacheTtlSeconds) { this.credentialCacheTtlSeconds = credentialCacheTtlSeconds; }
+}
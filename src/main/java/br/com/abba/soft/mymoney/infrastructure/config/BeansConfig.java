@@ -1,7 +1,9 @@
 package br.com.abba.soft.mymoney.infrastructure.config;
 
 import br.com.abba.soft.mymoney.application.DespesaService;
+import br.com.abba.soft.mymoney.domain.port.CategorizacaoAprendidaPort;
 import br.com.abba.soft.mymoney.domain.port.DespesaRepositoryPort;
+import br.com.abba.soft.mymoney.domain.port.ResumoMensalRepositoryPort;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,8 +13,9 @@ import java.util.Locale;
 public class BeansConfig {
 
     @Bean
-    public DespesaService despesaService(DespesaRepositoryPort repositoryPort) {
-        return new DespesaService(repositoryPort);
+    public DespesaService despesaService(DespesaRepositoryPort repositoryPort, ResumoMensalRepositoryPort resumoMensalPort,
+                                         CategorizacaoAprendidaPort categorizacaoPort) {
+        return new DespesaService(repositoryPort, resumoMensalPort, categorizacaoPort);
     }
 
     @Bean
@@ -0,0 +1,29 @@
+package br.com.abba.soft.mymoney.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "categorias")
+public class CategoriaProperties {
+    /** Directory holding one keyword file per locale (&lt;tag&gt;.txt); classpath: or file: URL. */
+    private String location = "classpath:categorias/";
+    /** Locales loaded from the location. */
+    private List<String> locales = new ArrayList<>(List.of("pt-BR", "en"));
+    /** Rules used for locales without their own file (and for a null locale). */
+    private String defaultLocale = "pt-BR";
+    /** How often the files are checked for changes (ms). */
+    private long reloadIntervalMs = 60_000L;
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    public List<String> getLocales() { return locales; }
+    public void setLocales(List<String> locales) { this.locales = locales; }
+    public String getDefaultLocale() { return defaultLocale; }
+    public void setDefaultLocale(String defaultLocale) { this.defaultLocale = defaultLocale; }
+    public long getReloadIntervalMs() { return reloadIntervalMs; }
+    public void setReloadIntervalMs(long reloadIntervalMs) { this.reloadIntervalMs = reloadIntervalMs; }
+}
@@ -0,0 +1,38 @@
+package br.com.abba.soft.mymoney.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "categorias.aprendizado")
+public class CategorizacaoAprendidaProperties {
+    /** Learn from the user's expenses and use it before calling OpenAI. */
+    private boolean enabled = true;
+    /** Expenses with the description's words needed before the history is trusted. */
+    private int minOcorrencias = 2;
+    /** Share of the votes the winning categoria (or tipoPagamento) must have. */
+    private double minConfianca = 0.8;
+    /** Words of a description that are counted; longer descriptions keep the first ones. */
+    private int maxTokensPorDespesa = 8;
+    /** Most frequent words of a user loaded into memory. */
+    private int maxTokensPorUsuario = 5000;
+    /** Users whose index is kept in memory. */
+    private int cacheMaxEntries = 2000;
+    /** How long a user's index stays in memory; bounds how stale it is with several instances. */
+    private long cacheTtlSeconds = 1800;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getMinOcorrencias() { return minOcorrencias; }
+    public void setMinOcorrencias(int minOcorrencias) { this.minOcorrencias = minOcorrencias; }
+    public double getMinConfianca() { return minConfianca; }
+    public void setMinConfianca(double minConfianca) { this.minConfianca = minConfianca; }
+    public int getMaxTokensPorDespesa() { return maxTokensPorDespesa; }
+    public void setMaxTokensPorDespesa(int maxTokensPorDespesa) { this.maxTokensPorDespesa = maxTokensPorDespesa; }
+    public int getMaxTokensPorUsuario() { return maxTokensPorUsuario; }
+    public void setMaxTokensPorUsuario(int maxTokensPorUsuario) { this.maxTokensPorUsuario = maxTokensPorUsuario; }
+    public int getCacheMaxEntries() { return cacheMaxEntries; }
+    public void setCacheMaxEntries(int cacheMaxEntries) { this.cacheMaxEntries = cacheMaxEntries; }
+    public long getCacheTtlSeconds() { return cacheTtlSeconds; }
+    public void setCacheTtlSeconds(long cacheTtlSeconds) { this.cacheTtlSeconds = cacheTtlSeconds; }
+}
@@ -0,0 +1,14 @@
+package br.com.abba.soft.mymoney.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "despesas.exportacao")
+public class DespesaExportacaoProperties {
+    /** Size of the output buffer of each export; data is written to the socket each time it fills. */
+    private int bufferBytes = 64 * 1024;
+
+    public int getBufferBytes() { return bufferBytes; }
+    public void setBufferBytes(int bufferBytes) { this.bufferBytes = bufferBytes; }
+}
@@ -0,0 +1,18 @@
+package br.com.abba.soft.mymoney.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "despesas.importacao")
+public class DespesaImportacaoProperties {
+    /** Valid rows accumulated before each insertMany. */
+    private int batchSize = 500;
+    /** Rejected rows listed in the response; the rest are only counted. */
+    private int maxReportedErrors = 1000;
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    public int getMaxReportedErrors() { return maxReportedErrors; }
+    public void setMaxReportedErrors(int maxReportedErrors) { this.maxReportedErrors = maxReportedErrors; }
+}
@@ -12,6 +12,8 @@ public class OpenAIProperties {
     private String baseUrl = "https://api.openai.com/v1";
     /** Model to use (e.g., gpt-4o-mini) */
     private String model = "gpt-4o-mini";
+    /** Maximum messages packed into one extraction request when draining a backlog */
+    private int batchSize = 10;
 
     public String getApiKey() { return apiKey; }
     public void setApiKey(String apiKey) { this.apiKey = apiKey; }
@@ -19,6 +21,8 @@ public class OpenAIProperties {
     public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
     public String getModel() { return model; }
     public void setModel(String model) { this.model = model; }
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
 
     public boolean isFakeKey() {
         if (apiKey == null || apiKey.isBlank()) return true;
@@ -0,0 +1,100 @@
+package br.com.abba.soft.mymoney.infrastructure.config;
+
+import br.com.abba.soft.mymoney.infrastructure.http.UpstreamGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * One JDK HttpClient per upstream: pooled keep-alive connections per host, HTTP/2 when the server negotiates it,
+ * explicit timeouts, and an {@link UpstreamGuard} (bulkhead + circuit breaker).
+ * RestTemplates are built from Boot's RestTemplateBuilder so requests also show up in http.client.requests.
+ */
+@Configuration
+public class OutboundHttpConfig {
+
+    @Bean
+    public HttpClient openAiHttpClient(OutboundHttpProperties props) {
+        return httpClient(props.getOpenai());
+    }
+
+    @Bean
+    public UpstreamGuard openAiUpstreamGuard(OutboundHttpProperties props, MeterRegistry meterRegistry) {
+        return new UpstreamGuard("openai", props.getOpenai(), meterRegistry);
+    }
+
+    @Bean
+    public RestTemplate openAiRestTemplate(RestTemplateBuilder builder, OutboundHttpProperties props,
+                                           @Qualifier("openAiHttpClient") HttpClient httpClient,
+                                           @Qualifier("openAiUpstreamGuard") UpstreamGuard guard) {
+        return builder
+                .requestFactory(() -> requestFactory(httpClient, props.getOpenai()))
+                .additionalInterceptors(guard.asInterceptor())
+                .build();
+    }
+
+    /**
+     * Same client without interceptors, so request bodies (audio uploads) are streamed instead of buffered.
+     * Callers wrap each call in openAiUpstreamGuard themselves.
+     */
+    @Bean
+    public RestTemplate openAiStreamingRestTemplate(RestTemplateBuilder builder, OutboundHttpProperties props,
+                                                    @Qualifier("openAiHttpClient") HttpClient httpClient) {
+        return builder
+                .requestFactory(() -> requestFactory(httpClient, props.getOpenai()))
+                .build();
+    }
+
+    @Bean
+    public HttpClient whatsAppHttpClient(OutboundHttpProperties props) {
+        return httpClient(props.getWhatsapp());
+    }
+
+    @Bean
+    public UpstreamGuard whatsAppUpstreamGuard(OutboundHttpProperties props, MeterRegistry meterRegistry) {
+        return new UpstreamGuard("whatsapp", props.getWhatsapp(), meterRegistry);
+    }
+
+    @Bean
+    public RestTemplate whatsAppRestTemplate(RestTemplateBuilder builder, OutboundHttpProperties props,
+                                             @Qualifier("whatsAppHttpClient") HttpClient httpClient,
+                                             @Qualifier("whatsAppUpstreamGuard") UpstreamGuard guard) {
+        return builder
+                .requestFactory(() -> requestFactory(httpClient, props.getWhatsapp()))
+                .additionalInterceptors(guard.asInterceptor())
+                .build();
+    }
+
+    /**
+     * Same client without interceptors, for media downloads whose body is streamed after the headers arrive.
+     * Callers wrap each call, body read included, in whatsAppUpstreamGuard themselves.
+     */
+    @Bean
+    public RestTemplate whatsAppStreamingRestTemplate(RestTemplateBuilder builder, OutboundHttpProperties props,
+                                                      @Qualifier("whatsAppHttpClient") HttpClient httpClient) {
+        return builder
+                .requestFactory(() -> requestFactory(httpClient, props.getWhatsapp()))
+                .build();
+    }
+
+    private static HttpClient httpClient(OutboundHttpProperties.Upstream config) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(config.getConnectTimeoutMs()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    private static JdkClientHttpRequestFactory requestFactory(HttpClient httpClient, OutboundHttpProperties.Upstream config) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(config.getReadTimeoutMs()));
+        return requestFactory;
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.abba.soft.mymoney.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timeouts and protection limits of each outbound integration (http.outbound.openai / http.outbound.whatsapp).
+ */
+@Component
+@ConfigurationProperties(prefix = "http.outbound")
+public class OutboundHttpProperties {
+
+    private Upstream openai = new Upstream(5_000, 60_000, 8);
+    private Upstream whatsapp = new Upstream(5_000, 30_000, 16);
+
+    public Upstream getOpenai() { return openai; }
+    public void setOpenai(Upstream openai) { this.openai = openai; }
+    public Upstream getWhatsapp() { return whatsapp; }
+    public void setWhatsapp(Upstream whatsapp) { this.whatsapp = whatsapp; }
+
+    public static class Upstream {
+        /** Time allowed to open a TCP/TLS connection. */
+        private long connectTimeoutMs;
+        /** Time allowed for the response after the request is sent. */
+        private long readTimeoutMs;
+        /** Bulkhead: requests in flight at once against this upstream. */
+        private int maxConcurrentCalls;
+        /** How long a request waits for a bulkhead slot before being rejected. */
+        private long maxWaitMs = 1_000;
+        /** Consecutive failures (I/O errors, 5xx, 429) that open the circuit. */
+        private int failureThreshold = 5;
+        /** How long the circuit stays open before a trial request is let through. */
+        private long openStateSeconds = 30;
+
+        public Upstream() {}
+
+        Upstream(long connectTimeoutMs, long readTimeoutMs, int maxConcurrentCalls) {
+            this.connectTimeoutMs = connectTimeoutMs;
+            this.readTimeoutMs = readTimeoutMs;
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public long getConnectTimeoutMs() { return connectTimeoutMs; }
+        public void setConnectTimeoutMs(long connectTimeoutMs) { this.connectTimeoutMs = connectTimeoutMs; }
+        public long getReadTimeoutMs() { return readTimeoutMs; }
+        public void setReadTimeoutMs(long readTimeoutMs) { this.readTimeoutMs = readTimeoutMs; }
+        public int getMaxConcurrentCalls() { return maxConcurrentCalls; }
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) { this.maxConcurrentCalls = maxConcurrentCalls; }
+        public long getMaxWaitMs() { return maxWaitMs; }
+        public void setMaxWaitMs(long maxWaitMs) { this.maxWaitMs = maxWaitMs; }
+        public int getFailureThreshold() { return failureThreshold; }
+        public void setFailureThreshold(int failureThreshold) { this.failureThreshold = failureThreshold; }
+        public long getOpenStateSeconds() { return openStateSeconds; }
+        public void setOpenStateSeconds(long openStateSeconds) { this.openStateSeconds = openStateSeconds; }
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.abba.soft.mymoney.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "despesas.resumo-mensal")
+public class ResumoMensalProperties {
+    /** Backfill every user's rollup at startup (ResumoMensalRebuildRunner is only created when true). */
+    private boolean rebuildOnStartup = false;
+    /** Exposes POST /api/despesas/resumo-mensal/reconstruir; off in normal operation, the rollup is kept by $inc. */
+    private boolean rebuildEndpointEnabled = false;
+
+    public boolean isRebuildOnStartup() { return rebuildOnStartup; }
+    public void setRebuildOnStartup(boolean rebuildOnStartup) { this.rebuildOnStartup = rebuildOnStartup; }
+    public boolean isRebuildEndpointEnabled() { return rebuildEndpointEnabled; }
+    public void setRebuildEndpointEnabled(boolean rebuildEndpointEnabled) { this.rebuildEndpointEnabled = rebuildEndpointEnabled; }
+}
@@ -0,0 +1,26 @@
+package br.com.abba.soft.mymoney.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "openai.transcription-cache")
+public class TranscriptionCacheProperties {
+    /** Reuse transcriptions of audio already seen (same media id or same content). */
+    private boolean enabled = true;
+    /** Maximum entries kept in memory (LRU eviction beyond that). */
+    private int maxEntries = 2_000;
+    /** Time-to-live of a cached transcription, in seconds. */
+    private long ttlSeconds = 604_800;
+    /** Also keep entries in Mongo so they survive restarts and are shared between instances. */
+    private boolean persistent = true;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+    public long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+    public boolean isPersistent() { return persistent; }
+    public void setPersistent(boolean persistent) { this.persistent = persistent; }
+}
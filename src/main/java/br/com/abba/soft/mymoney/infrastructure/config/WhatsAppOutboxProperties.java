@@ -0,0 +1,38 @@
+package br.com.abba.soft.mymoney.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "whatsapp.outbox")
+public class WhatsAppOutboxProperties {
+    /** Replies claimed from the outbox per batch. */
+    private int batchSize = 100;
+    /** Replies sent concurrently. */
+    private int concurrency = 8;
+    /** Sustained send rate across this instance; keep below the Graph API throughput limit of the number. */
+    private double messagesPerSecond = 20;
+    /** How long a claimed batch stays owned before another instance may reclaim it. */
+    private long leaseSeconds = 60;
+    /** Attempts before a reply failing with transient errors is marked DEAD. */
+    private int maxAttempts = 8;
+    /** Backoff before the first retry; doubles on each attempt, with jitter. */
+    private long retryInitialBackoffSeconds = 5;
+    /** Upper bound of the backoff between retries. */
+    private long retryMaxBackoffSeconds = 600;
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    public int getConcurrency() { return concurrency; }
+    public void setConcurrency(int concurrency) { this.concurrency = concurrency; }
+    public double getMessagesPerSecond() { return messagesPerSecond; }
+    public void setMessagesPerSecond(double messagesPerSecond) { this.messagesPerSecond = messagesPerSecond; }
+    public long getLeaseSeconds() { return leaseSeconds; }
+    public void setLeaseSeconds(long leaseSeconds) { this.leaseSeconds = leaseSeconds; }
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+    public long getRetryInitialBackoffSeconds() { return retryInitialBackoffSeconds; }
+    public void setRetryInitialBackoffSeconds(long retryInitialBackoffSeconds) { this.retryInitialBackoffSeconds = retryInitialBackoffSeconds; }
+    public long getRetryMaxBackoffSeconds() { return retryMaxBackoffSeconds; }
+    public void setRetryMaxBackoffSeconds(long retryMaxBackoffSeconds) { this.retryMaxBackoffSeconds = retryMaxBackoffSeconds; }
+}
@@ -0,0 +1,62 @@
+package br.com.abba.soft.mymoney.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "whatsapp.processor")
+public class WhatsAppProcessorProperties {
+    /** Messages fetched from the queue per batch. */
+    private int batchSize = 50;
+    /** Messages processed concurrently (virtual threads). */
+    private int workers = 16;
+    /** Audio messages downloaded and transcribed concurrently by the media stage. */
+    private int mediaWorkers = 4;
+    /** Upper bound of concurrent calls to OpenAI across all workers. */
+    private int openaiMaxConcurrency = 4;
+    /** How long a claimed batch stays owned before another instance may reclaim it; must exceed a batch's processing time. */
+    private long leaseSeconds = 300;
+    /** Attempts (including the first) before a message failing with transient errors is marked DEAD. */
+    private int maxAttempts = 5;
+    /** Backoff before the first retry; doubles on each attempt, with jitter. */
+    private long retryInitialBackoffSeconds = 30;
+    /** Upper bound of the backoff between retries. */
+    private long retryMaxBackoffSeconds = 1800;
+    /** Downloaded audio up to this size stays in memory; larger files are spooled to a temp file. */
+    private int mediaMemoryThresholdBytes = 256 * 1024;
+    /** Audio larger than this is rejected (OpenAI transcription accepts up to 25 MB). */
+    private long mediaMaxBytes = 25L * 1024 * 1024;
+    /** Sender phones whose user id is kept in memory. */
+    private int userCacheMaxEntries = 10_000;
+    /** How long a resolved phone -> user id stays cached. */
+    private long userCacheTtlSeconds = 600;
+    /** How long an unknown phone is remembered as unknown; short so a user who just registered is found quickly. */
+    private long userCacheNegativeTtlSeconds = 60;
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    public int getWorkers() { return workers; }
+    public void setWorkers(int workers) { this.workers = workers; }
+    public int getMediaWorkers() { return mediaWorkers; }
+    public void setMediaWorkers(int mediaWorkers) { this.mediaWorkers = mediaWorkers; }
+    public int getOpenaiMaxConcurrency() { return openaiMaxConcurrency; }
+    public void setOpenaiMaxConcurrency(int openaiMaxConcurrency) { this.openaiMaxConcurrency = openaiMaxConcurrency; }
+    public long getLeaseSeconds() { return leaseSeconds; }
+    public void setLeaseSeconds(long leaseSeconds) { this.leaseSeconds = leaseSeconds; }
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+    public long getRetryInitialBackoffSeconds() { return retryInitialBackoffSeconds; }
+    public void setRetryInitialBackoffSeconds(long retryInitialBackoffSeconds) { this.retryInitialBackoffSeconds = retryInitialBackoffSeconds; }
+    public long getRetryMaxBackoffSeconds() { return retryMaxBackoffSeconds; }
+    public void setRetryMaxBackoffSeconds(long retryMaxBackoffSeconds) { this.retryMaxBackoffSeconds = retryMaxBackoffSeconds; }
+    public int getMediaMemoryThresholdBytes() { return mediaMemoryThresholdBytes; }
+    public void setMediaMemoryThresholdBytes(int mediaMemoryThresholdBytes) { this.mediaMemoryThresholdBytes = mediaMemoryThresholdBytes; }
+    public long getMediaMaxBytes() { return mediaMaxBytes; }
+    public void setMediaMaxBytes(long mediaMaxBytes) { this.mediaMaxBytes = mediaMaxBytes; }
+    public int getUserCacheMaxEntries() { return userCacheMaxEntries; }
+    public void setUserCacheMaxEntries(int userCacheMaxEntries) { this.userCacheMaxEntries = userCacheMaxEntries; }
+    public long getUserCacheTtlSeconds() { return userCacheTtlSeconds; }
+    public void setUserCacheTtlSeconds(long userCacheTtlSeconds) { this.userCacheTtlSeconds = userCacheTtlSeconds; }
+    public long getUserCacheNegativeTtlSeconds() { return userCacheNegativeTtlSeconds; }
+    public void setUserCacheNegativeTtlSeconds(long userCacheNegativeTtlSeconds) { this.userCacheNegativeTtlSeconds = userCacheNegativeTtlSeconds; }
+}
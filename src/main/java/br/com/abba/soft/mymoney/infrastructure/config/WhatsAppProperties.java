@@ -20,4 +20,8 @@ public class WhatsAppProperties {
     @Value("${meta.whatsapp.app-secret:FAKE_APP_SECRET}")
     private String appSecret;
 
+    // Graph API root including the version; point it elsewhere to talk to a stand-in server
+    @Value("${meta.whatsapp.graph-base-url:https://graph.facebook.com/v20.0}")
+    private String graphBaseUrl;
+
 }
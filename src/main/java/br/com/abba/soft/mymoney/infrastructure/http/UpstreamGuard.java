@@ -0,0 +1,114 @@
+package br.com.abba.soft.mymoney.infrastructure.http;
+
+import br.com.abba.soft.mymoney.infrastructure.config.OutboundHttpProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkhead + circuit breaker in front of one upstream, so a slow or failing dependency is cut off
+ * instead of tying up every caller thread. Every successful {@link #acquire()} must be paired with
+ * {@link #release(boolean)}.
+ */
+public class UpstreamGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamGuard.class);
+
+    private final String upstream;
+    private final Semaphore bulkhead;
+    private final long maxWaitMs;
+    private final CircuitBreaker breaker;
+    private final Counter rejectedOpen;
+    private final Counter rejectedFull;
+
+    public UpstreamGuard(String upstream, OutboundHttpProperties.Upstream config, MeterRegistry meterRegistry) {
+        this.upstream = upstream;
+        this.bulkhead = new Semaphore(Math.max(1, config.getMaxConcurrentCalls()));
+        this.maxWaitMs = Math.max(0, config.getMaxWaitMs());
+        this.breaker = new CircuitBreaker(config.getFailureThreshold(), Duration.ofSeconds(config.getOpenStateSeconds()));
+
+        this.rejectedOpen = Counter.builder("http.outbound.rejected")
+                .description("Requisicoes externas recusadas localmente")
+                .tags("upstream", upstream, "reason", "circuit_open")
+                .register(meterRegistry);
+        this.rejectedFull = Counter.builder("http.outbound.rejected")
+                .description("Requisicoes externas recusadas localmente")
+                .tags("upstream", upstream, "reason", "bulkhead_full")
+                .register(meterRegistry);
+        Gauge.builder("http.outbound.circuit.state", breaker, b -> b.state().ordinal())
+                .description("Estado do circuito: 0 fechado, 1 aberto, 2 meio-aberto")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        Gauge.builder("http.outbound.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Vagas livres para requisicoes simultaneas")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+    }
+
+    /** Takes a bulkhead slot and checks the circuit; throws {@link UpstreamUnavailableException} when refused. */
+    public void acquire() throws IOException {
+        try {
+            if (!bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                rejectedFull.increment();
+                throw new UpstreamUnavailableException(upstream + ": limite de requisicoes simultaneas atingido");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompido aguardando vaga para " + upstream);
+        }
+        if (!breaker.tryAcquire()) {
+            bulkhead.release();
+            rejectedOpen.increment();
+            throw new UpstreamUnavailableException(upstream + ": circuito aberto");
+        }
+    }
+
+    /** Frees the slot; healthy=false for I/O errors, 5xx and 429, which count towards opening the circuit. */
+    public void release(boolean healthy) {
+        try {
+            if (healthy) {
+                breaker.onSuccess();
+                return;
+            }
+            CircuitBreaker.State before = breaker.state();
+            breaker.onFailure();
+            if (before != CircuitBreaker.State.OPEN && breaker.state() == CircuitBreaker.State.OPEN) {
+                log.warn("[UpstreamGuard] Circuito de {} aberto apos falhas consecutivas", upstream);
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public static boolean isHealthyStatus(int status) {
+        return status < 500 && status != 429;
+    }
+
+    /**
+     * Applies the guard to every request of a RestTemplate. Note that intercepted requests buffer their body, and
+     * that the slot is freed once the response headers arrive: calls that stream the response body must use a
+     * template without this interceptor and hold {@link #acquire()}/{@link #release(boolean)} around the read.
+     */
+    public ClientHttpRequestInterceptor asInterceptor() {
+        return (request, body, execution) -> {
+            acquire();
+            boolean healthy = false;
+            try {
+                var response = execution.execute(request, body);
+                healthy = isHealthyStatus(response.getStatusCode().value());
+                return response;
+            } finally {
+                release(healthy);
+            }
+        };
+    }
+}
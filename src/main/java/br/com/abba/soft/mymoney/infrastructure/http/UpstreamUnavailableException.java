@@ -0,0 +1,13 @@
+package br.com.abba.soft.mymoney.infrastructure.http;
+
+import java.io.IOException;
+
+/**
+ * Request refused locally because the upstream's circuit is open or its bulkhead is full.
+ * An IOException so RestTemplate reports it as ResourceAccessException, like a connection failure.
+ */
+public class UpstreamUnavailableException extends IOException {
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.abba.soft.mymoney.infrastructure.job;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+/**
+ * Runs one task per claimed item and collects every outcome that is known, so a batch is never completed
+ * partially by accident: a task that threw is handed to {@code onFailure} (usually a retry) without
+ * affecting the others, and an interrupt while waiting still keeps the results that had already finished.
+ * Items whose task is still running after an interrupt are left out; their lease brings them back.
+ */
+public final class BatchTasks {
+
+    /** Work for one item; returns the item with its new state. */
+    @FunctionalInterface
+    public interface Task<T> {
+        T run(T item) throws Exception;
+    }
+
+    private BatchTasks() {}
+
+    public static <T> List<T> runAll(ExecutorService executor, List<T> items, Task<T> task,
+                                     BiFunction<T, Throwable, T> onFailure) {
+        List<Future<T>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(executor.submit(() -> task.run(item)));
+        }
+        for (Future<T> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException | CancellationException e) {
+                // outcome read below
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<T> done = new ArrayList<>(items.size());
+        for (int i = 0; i < futures.size(); i++) {
+            Future<T> future = futures.get(i);
+            switch (future.state()) {
+                case SUCCESS -> done.add(future.resultNow());
+                case FAILED -> done.add(onFailure.apply(items.get(i), future.exceptionNow()));
+                default -> {
+                    // RUNNING after an interrupt, or CANCELLED: stays claimed until the lease expires
+                }
+            }
+        }
+        return done;
+    }
+}
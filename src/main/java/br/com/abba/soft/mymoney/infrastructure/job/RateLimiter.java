@@ -0,0 +1,39 @@
+package br.com.abba.soft.mymoney.infrastructure.job;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Smooth rate limiter: hands out one slot every 1/rate seconds and makes callers sleep until their slot.
+ * Meant for virtual threads, where blocking is cheap.
+ */
+public final class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeSlot = System.nanoTime();
+
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) throw new IllegalArgumentException("permitsPerSecond deve ser positivo");
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    public void acquire() throws InterruptedException {
+        long wait = reserve();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /** Pushes every slot back, e.g. after the server answered with a rate-limit error. */
+    public synchronized void pause(Duration duration) {
+        nextFreeSlot = Math.max(nextFreeSlot, System.nanoTime() + duration.toNanos());
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        // no burst credit: an idle limiter starts from now
+        long slot = Math.max(nextFreeSlot, now);
+        nextFreeSlot = slot + intervalNanos;
+        return slot - now;
+    }
+}
@@ -0,0 +1,34 @@
+package br.com.abba.soft.mymoney.infrastructure.job;
+
+import br.com.abba.soft.mymoney.domain.port.ResumoMensalRepositoryPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off backfill of the monthly rollup for every user. Run the application with
+ * {@code --despesas.resumo-mensal.rebuild-on-startup=true} (e.g. after deploying the rollup,
+ * or to repair drift); leave it off in normal operation.
+ */
+@Component
+@ConditionalOnProperty(name = "despesas.resumo-mensal.rebuild-on-startup", havingValue = "true")
+public class ResumoMensalRebuildRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumoMensalRebuildRunner.class);
+
+    private final ResumoMensalRepositoryPort resumoMensal;
+
+    public ResumoMensalRebuildRunner(ResumoMensalRepositoryPort resumoMensal) {
+        this.resumoMensal = resumoMensal;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("[ResumoMensalRebuildRunner] Reconstruindo resumo mensal de todos os usuarios...");
+        long linhas = resumoMensal.reconstruir(null);
+        log.info("[ResumoMensalRebuildRunner] Resumo mensal reconstruido: {} linhas", linhas);
+    }
+}
@@ -0,0 +1,30 @@
+package br.com.abba.soft.mymoney.infrastructure.job;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with "equal jitter": the delay for attempt n is drawn from
+ * [d/2, d] where d = min(max, initial * 2^(n-1)). Half of the delay is kept fixed so
+ * retries never collapse to zero, the other half spreads replicas apart.
+ */
+public final class RetryBackoff {
+
+    private final long initialMillis;
+    private final long maxMillis;
+
+    public RetryBackoff(Duration initial, Duration max) {
+        if (initial.isNegative() || initial.isZero()) throw new IllegalArgumentException("initial deve ser positivo");
+        if (max.compareTo(initial) < 0) throw new IllegalArgumentException("max deve ser maior ou igual a initial");
+        this.initialMillis = initial.toMillis();
+        this.maxMillis = max.toMillis();
+    }
+
+    /** Delay before the next try, given how many attempts were already made (1-based). */
+    public Duration delayFor(int attempt) {
+        int exp = Math.max(attempt - 1, 0);
+        long ceiling = exp >= 62 || initialMillis > (maxMillis >> exp) ? maxMillis : initialMillis << exp;
+        long half = ceiling / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(ceiling - half + 1));
+    }
+}
@@ -0,0 +1,202 @@
+package br.com.abba.soft.mymoney.infrastructure.job;
+
+import br.com.abba.soft.mymoney.infrastructure.ai.OpenAIAudioTranscriber;
+import br.com.abba.soft.mymoney.infrastructure.ai.TranscriptionCache;
+import br.com.abba.soft.mymoney.infrastructure.config.OpenAIProperties;
+import br.com.abba.soft.mymoney.infrastructure.config.WhatsAppProcessorProperties;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppIncomingMessageDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppMessageStatus;
+import br.com.abba.soft.mymoney.infrastructure.persistence.repository.WhatsAppIncomingMessageRepository;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppApiClient;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.SpooledMedia;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Media stage of the WhatsApp pipeline: downloads the audio referenced by PENDING_MEDIA messages,
+ * transcribes it and hands the text to {@link WhatsAppMessageProcessor} by moving the message to PENDING.
+ * Keeps the slow media work off the webhook request.
+ */
+@Component
+public class WhatsAppMediaProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(WhatsAppMediaProcessor.class);
+
+    private final WhatsAppIncomingMessageRepository messageRepository;
+    private final WhatsAppApiClient whatsappApiClient;
+    private final WhatsAppOutbox outbox;
+    private final OpenAIAudioTranscriber audioTranscriber;
+    private final TranscriptionCache transcriptionCache;
+    private final OpenAIProperties openAIProperties;
+    private final Locale appLocale;
+    private final WhatsAppProcessorProperties processorProperties;
+
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    private final ExecutorService workers;
+    private final RetryBackoff backoff;
+
+    private final Counter transcribedCounter;
+    private final Counter retriedCounter;
+    private final Counter deadCounter;
+    private final Timer transcriptionTimer;
+
+    public WhatsAppMediaProcessor(WhatsAppIncomingMessageRepository messageRepository,
+                                  WhatsAppApiClient whatsappApiClient,
+                                  WhatsAppOutbox outbox,
+                                  OpenAIAudioTranscriber audioTranscriber,
+                                  TranscriptionCache transcriptionCache,
+                                  OpenAIProperties openAIProperties,
+                                  Locale appLocale,
+                                  WhatsAppProcessorProperties processorProperties,
+                                  MeterRegistry meterRegistry) {
+        this.messageRepository = messageRepository;
+        this.whatsappApiClient = whatsappApiClient;
+        this.outbox = outbox;
+        this.audioTranscriber = audioTranscriber;
+        this.transcriptionCache = transcriptionCache;
+        this.openAIProperties = openAIProperties;
+        this.appLocale = appLocale;
+        this.processorProperties = processorProperties;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, processorProperties.getMediaWorkers()),
+                Thread.ofVirtual().name("whatsapp-media-", 0).factory());
+        this.backoff = new RetryBackoff(Duration.ofSeconds(processorProperties.getRetryInitialBackoffSeconds()),
+                Duration.ofSeconds(processorProperties.getRetryMaxBackoffSeconds()));
+
+        this.transcribedCounter = Counter.builder("whatsapp.media.messages").tag("result", "transcribed").register(meterRegistry);
+        this.retriedCounter = Counter.builder("whatsapp.media.messages").tag("result", "retry").register(meterRegistry);
+        this.deadCounter = Counter.builder("whatsapp.media.messages").tag("result", "dead").register(meterRegistry);
+        this.transcriptionTimer = Timer.builder("whatsapp.media.duration")
+                .description("Tempo para baixar e transcrever um audio")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${whatsapp.processor.poll-interval-ms:5000}", initialDelay = 10_000L)
+    public void processPendingMedia() {
+        int batchSize = Math.max(1, processorProperties.getMediaWorkers());
+        Duration lease = Duration.ofSeconds(processorProperties.getLeaseSeconds());
+        int claimed;
+        do {
+            List<WhatsAppIncomingMessageDocument> batch = messageRepository.claimBatch(
+                    WhatsAppMessageStatus.PENDING_MEDIA, WhatsAppMessageStatus.TRANSCRIBING, workerId, batchSize, lease);
+            claimed = batch.size();
+            if (claimed > 0) {
+                log.info("[WhatsAppMediaProcessor] Transcrevendo {} audios...", claimed);
+                processBatch(batch);
+            }
+        } while (claimed == batchSize && !Thread.currentThread().isInterrupted());
+    }
+
+    private void processBatch(List<WhatsAppIncomingMessageDocument> batch) {
+        List<WhatsAppIncomingMessageDocument> done = BatchTasks.runAll(workers, batch,
+                msg -> transcriptionTimer.record(() -> transcribe(msg)),
+                (msg, ex) -> {
+                    log.error("[WhatsAppMediaProcessor] Falha inesperada no audio {}", msg.getId(), ex);
+                    return failed(msg, "Falha inesperada: " + ex);
+                });
+        messageRepository.complete(WhatsAppMessageStatus.TRANSCRIBING, workerId, done);
+    }
+
+    private WhatsAppIncomingMessageDocument transcribe(WhatsAppIncomingMessageDocument msg) {
+        String mediaId = msg.getMediaId();
+        String failure;
+        if (mediaId == null) {
+            failure = "Audio message without media id";
+        } else {
+            String transcript = downloadAndTranscribe(mediaId, msg.getMimeType());
+            if (transcript != null) {
+                msg.setBody(transcript);
+                msg.setStatus(WhatsAppMessageStatus.PENDING);
+                msg.setErrorMessage(null);
+                // Extraction gets its own retry budget
+                msg.setAttempts(0);
+                msg.setNextAttemptAt(LocalDateTime.now());
+                transcribedCounter.increment();
+                return msg;
+            }
+            failure = "Failed to download or transcribe audio for id=" + mediaId;
+        }
+        return failed(msg, failure);
+    }
+
+    private WhatsAppIncomingMessageDocument failed(WhatsAppIncomingMessageDocument msg, String failure) {
+        String mediaId = msg.getMediaId();
+        // Media URLs, downloads and Whisper all fail transiently far more often than permanently
+        if (mediaId != null && msg.getAttempts() < processorProperties.getMaxAttempts()) {
+            msg.setStatus(WhatsAppMessageStatus.PENDING_MEDIA);
+            msg.setErrorMessage(failure);
+            msg.setNextAttemptAt(LocalDateTime.now().plus(backoff.delayFor(msg.getAttempts())));
+            retriedCounter.increment();
+            return msg;
+        }
+        log.warn("[WhatsAppMediaProcessor] Audio {} descartado apos {} tentativas: {}", msg.getId(), msg.getAttempts(), failure);
+        msg.setStatus(WhatsAppMessageStatus.DEAD);
+        msg.setErrorMessage(failure);
+        deadCounter.increment();
+        try {
+            outbox.enqueue(msg.getFrom(), "⚠️ Não consegui entender seu áudio. Tente novamente ou envie a despesa por texto.");
+        } catch (Exception sendEx) {
+            log.warn("[WhatsAppMediaProcessor] Falha ao enfileirar erro ao {}: {}", msg.getFrom(), sendEx.getMessage());
+        }
+        return msg;
+    }
+
+    private String downloadAndTranscribe(String mediaId, String mimeType) {
+        Optional<String> known = transcriptionCache.getByMediaId(mediaId);
+        if (known.isPresent()) return known.get();
+        String mediaUrl = whatsappApiClient.getMediaUrl(mediaId);
+        if (mediaUrl == null) return null;
+        // Streamed to memory or a temp file and from there into the upload; never a whole byte[] per audio
+        try (SpooledMedia media = whatsappApiClient.downloadMedia(mediaUrl,
+                processorProperties.getMediaMemoryThresholdBytes(), processorProperties.getMediaMaxBytes())) {
+            if (media == null || media.size() == 0) return null;
+            // Forwarded voice notes arrive with a new media id but identical content
+            Optional<String> sameAudio = transcriptionCache.getByContent(media.sha256());
+            if (sameAudio.isPresent()) {
+                transcriptionCache.put(mediaId, null, sameAudio.get());
+                return sameAudio.get();
+            }
+            String filename = "audio-" + mediaId + extensionFor(mimeType);
+            String transcript = audioTranscriber.transcribe(media.asResource(filename),
+                    mimeType != null ? mimeType : "application/octet-stream", appLocale);
+            if (transcript == null || transcript.isBlank()) return null;
+            // With a fake key the transcript is the dev stub; caching it would outlive a switch to a real key
+            if (!openAIProperties.isFakeKey()) {
+                transcriptionCache.put(mediaId, media.sha256(), transcript);
+            }
+            return transcript;
+        }
+    }
+
+    private static String extensionFor(String mimeType) {
+        if (mimeType == null) return ".bin";
+        if (mimeType.contains("ogg")) return ".ogg";
+        if (mimeType.contains("mpeg")) return ".mp3";
+        if (mimeType.contains("aac")) return ".aac";
+        if (mimeType.contains("wav")) return ".wav";
+        if (mimeType.contains("amr")) return ".amr";
+        return ".bin";
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -2,109 +2,275 @@ package br.com.abba.soft.mymoney.infrastructure.job;
 
 import br.com.abba.soft.mymoney.application.DespesaService;
 import br.com.abba.soft.mymoney.domain.model.Despesa;
-import br.com.abba.soft.mymoney.infrastructure.persistence.entity.UsuarioDocument;
-import br.com.abba.soft.mymoney.infrastructure.persistence.repository.UsuarioRepository;
+import br.com.abba.soft.mymoney.infrastructure.config.WhatsAppProcessorProperties;
+import br.com.abba.soft.mymoney.infrastructure.cache.TelefoneUsuarioCache;
 import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppIncomingMessageDocument;
 import br.com.abba.soft.mymoney.infrastructure.persistence.repository.WhatsAppIncomingMessageRepository;
 import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppMessageStatus;
-import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppApiClient;
-import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppMessageParser;
-import br.com.abba.soft.mymoney.infrastructure.ai.OpenAIExpenseExtractor;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppOutbox;
+import br.com.abba.soft.mymoney.infrastructure.ai.ExpenseExtractionUnavailableException;
+import br.com.abba.soft.mymoney.infrastructure.ai.OpenAIExpenseExtractor.BatchItem;
+import br.com.abba.soft.mymoney.infrastructure.ai.OpenAIExpenseExtractor.BatchResult;
+import br.com.abba.soft.mymoney.infrastructure.ai.TieredExpenseExtractor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
+import java.lang.management.ManagementFactory;
 import java.text.NumberFormat;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class WhatsAppMessageProcessor {
 
     private static final Logger log = LoggerFactory.getLogger(WhatsAppMessageProcessor.class);
 
+    private static final String ORIGEM_WHATSAPP = "whatsapp:";
+
     private final WhatsAppIncomingMessageRepository messageRepository;
-    private final UsuarioRepository usuarioRepository;
+    private final TelefoneUsuarioCache telefoneUsuarioCache;
     private final DespesaService despesaService;
-    private final WhatsAppApiClient whatsappApiClient;
+    private final WhatsAppOutbox outbox;
     private final Locale appLocale;
-    private final OpenAIExpenseExtractor openAIExpenseExtractor;
+    private final TieredExpenseExtractor expenseExtractor;
+    private final WhatsAppProcessorProperties processorProperties;
+
+    // Identifies this instance's claims; unique per JVM so replicas never share leases
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    private final ExecutorService workers;
+    private final RetryBackoff backoff;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Counter processedCounter;
+    private final Counter failedCounter;
+    private final Counter retriedCounter;
+    private final Counter deadCounter;
+    private final Timer messageTimer;
+    private final Timer batchTimer;
 
     public WhatsAppMessageProcessor(WhatsAppIncomingMessageRepository messageRepository,
-                                    UsuarioRepository usuarioRepository,
+                                    TelefoneUsuarioCache telefoneUsuarioCache,
                                     DespesaService despesaService,
-                                    WhatsAppApiClient whatsappApiClient,
+                                    WhatsAppOutbox outbox,
                                     Locale appLocale,
-                                    OpenAIExpenseExtractor openAIExpenseExtractor) {
+                                    TieredExpenseExtractor expenseExtractor,
+                                    WhatsAppProcessorProperties processorProperties,
+                                    MeterRegistry meterRegistry) {
         this.messageRepository = messageRepository;
-        this.usuarioRepository = usuarioRepository;
+        this.telefoneUsuarioCache = telefoneUsuarioCache;
         this.despesaService = despesaService;
-        this.whatsappApiClient = whatsappApiClient;
+        this.outbox = outbox;
         this.appLocale = appLocale;
-        this.openAIExpenseExtractor = openAIExpenseExtractor;
+        this.expenseExtractor = expenseExtractor;
+        this.processorProperties = processorProperties;
+
+        // Work is I/O bound (Mongo, OpenAI, Graph API): a fixed number of virtual threads caps concurrency cheaply
+        this.workers = Executors.newFixedThreadPool(Math.max(1, processorProperties.getWorkers()),
+                Thread.ofVirtual().name("whatsapp-worker-", 0).factory());
+        this.backoff = new RetryBackoff(Duration.ofSeconds(processorProperties.getRetryInitialBackoffSeconds()),
+                Duration.ofSeconds(processorProperties.getRetryMaxBackoffSeconds()));
+
+        this.processedCounter = Counter.builder("whatsapp.processor.messages")
+                .description("Mensagens do WhatsApp processadas")
+                .tag("result", "processed")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("whatsapp.processor.messages")
+                .description("Mensagens do WhatsApp processadas")
+                .tag("result", "error")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("whatsapp.processor.messages")
+                .description("Mensagens do WhatsApp processadas")
+                .tag("result", "retry")
+                .register(meterRegistry);
+        this.deadCounter = Counter.builder("whatsapp.processor.messages")
+                .description("Mensagens do WhatsApp processadas")
+                .tag("result", "dead")
+                .register(meterRegistry);
+        this.messageTimer = Timer.builder("whatsapp.processor.message.duration")
+                .description("Tempo de processamento de uma mensagem")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("whatsapp.processor.batch.duration")
+                .description("Tempo de processamento de um lote de mensagens")
+                .register(meterRegistry);
+        Gauge.builder("whatsapp.processor.queue.depth", queueDepth, AtomicLong::get)
+                .description("Mensagens pendentes na fila na ultima varredura")
+                .register(meterRegistry);
     }
 
-    // Run every minute
-    @Scheduled(fixedDelay = 60 * 1000L, initialDelay = 10_000L)
+    // Polls every few seconds and, once started, keeps draining until the queue is empty
+    @Scheduled(fixedDelayString = "${whatsapp.processor.poll-interval-ms:5000}", initialDelay = 10_000L)
     public void processPendingMessages() {
+        int batchSize = Math.max(1, processorProperties.getBatchSize());
+        Duration lease = Duration.ofSeconds(processorProperties.getLeaseSeconds());
+        int processed;
+        do {
+            // Claimed atomically: other replicas running this job never get the same messages
+            List<WhatsAppIncomingMessageDocument> pendings = messageRepository.claimBatch(
+                    WhatsAppMessageStatus.PENDING, WhatsAppMessageStatus.IN_PROGRESS, workerId, batchSize, lease);
+            processed = pendings.size();
+            if (processed > 0) {
+                log.info("[WhatsAppMessageProcessor] Processando {} mensagens pendentes...", processed);
+                batchTimer.record(() -> processBatch(pendings));
+            }
+            queueDepth.set(messageRepository.countByStatus(WhatsAppMessageStatus.PENDING));
+        } while (processed == batchSize && !Thread.currentThread().isInterrupted());
+    }
 
-        log.info("[WhatsAppMessageProcessor] Processando mensagens pendentes...");
+    private void processBatch(List<WhatsAppIncomingMessageDocument> batch) {
+        // Repeat senders come from memory; the remaining ones are resolved with a single query
+        var telefones = batch.stream().map(WhatsAppIncomingMessageDocument::getFrom).distinct().toList();
+        Map<String, String> userIdByPhone = telefoneUsuarioCache.resolve(telefones);
 
-        List<WhatsAppIncomingMessageDocument> pendings = messageRepository.findTop50ByStatusOrderByReceivedAtAsc(WhatsAppMessageStatus.PENDING);
-        if (pendings.isEmpty()) return;
-        for (WhatsAppIncomingMessageDocument msg : pendings) {
-            String from = msg.getFrom();
-            try {
-                msg.setAttempts(msg.getAttempts() + 1);
-                msg.setLastAttemptAt(LocalDateTime.now());
+        BatchResult preExtracted = preExtract(batch, userIdByPhone);
 
-                String userId = usuarioRepository.findByTelefone(from)
-                        .map(UsuarioDocument::getId)
-                        .orElse(null);
+        List<WhatsAppIncomingMessageDocument> done = BatchTasks.runAll(workers, batch,
+                msg -> messageTimer.record(() ->
+                        processMessage(msg, userIdByPhone.get(msg.getFrom()), preExtracted)),
+                this::failedUnexpectedly);
+        messageRepository.complete(WhatsAppMessageStatus.IN_PROGRESS, workerId, done);
+    }
 
-                if (userId == null) {
-                    throw new IllegalStateException("Usuario nao encontrado para telefone: " + from);
-                }
+    // Extracts the whole batch up front so free-text messages share OpenAI requests; unanswered ones are retried per message
+    private BatchResult preExtract(List<WhatsAppIncomingMessageDocument> batch, Map<String, String> userIdByPhone) {
+        List<BatchItem> items = new ArrayList<>(batch.size());
+        for (WhatsAppIncomingMessageDocument msg : batch) {
+            String userId = userIdByPhone.get(msg.getFrom());
+            if (userId == null || msg.getAttempts() > processorProperties.getMaxAttempts()) continue;
+            items.add(new BatchItem(msg.getId(), msg.getBody(), userId));
+        }
+        if (items.isEmpty()) return BatchResult.empty();
+        try {
+            return expenseExtractor.extractAll(items, appLocale);
+        } catch (RuntimeException e) {
+            log.warn("[WhatsAppMessageProcessor] Extracao em lote falhou, processando mensagem a mensagem: {}", e.getMessage());
+            return BatchResult.empty();
+        }
+    }
 
-                var maybe = openAIExpenseExtractor.extract(msg.getBody(), userId, appLocale);
-                if (maybe.isEmpty()) {
-                    throw new IllegalArgumentException("Mensagem invalida: " + msg.getBody());
-                }
-                Despesa despesa = maybe.get();
-                despesa.setUserId(userId); // ensure proper ownership
-                Despesa criada = despesaService.criar(despesa);
+    private WhatsAppIncomingMessageDocument processMessage(WhatsAppIncomingMessageDocument msg, String userId, BatchResult preExtracted) {
+        String from = msg.getFrom();
+        if (msg.getAttempts() > processorProperties.getMaxAttempts()) {
+            // Reclaimed after its worker died mid-processing too many times
+            return giveUp(msg, "Limite de tentativas excedido");
+        }
+        try {
+            if (userId == null) {
+                throw new IllegalStateException("Usuario nao encontrado para telefone: " + from);
+            }
+
+            // A message the batch answered as "not an expense" is not asked again
+            var maybe = preExtracted.isAnswered(msg.getId())
+                    ? preExtracted.despesa(msg.getId())
+                    : expenseExtractor.extract(msg.getBody(), userId, appLocale);
+            if (maybe.isEmpty()) {
+                throw new IllegalArgumentException("Mensagem invalida: " + msg.getBody());
+            }
+            Despesa despesa = maybe.get();
+            despesa.setUserId(userId); // ensure proper ownership
+            // A retry or a reclaimed lease finds the expense this message already created
+            despesa.setOrigem(ORIGEM_WHATSAPP + msg.getId());
+            Despesa criada = despesaService.criar(despesa);
 
-                msg.setStatus(WhatsAppMessageStatus.PROCESSED);
-                msg.setErrorMessage(null);
-                messageRepository.save(msg);
+            msg.setStatus(WhatsAppMessageStatus.PROCESSED);
+            msg.setErrorMessage(null);
+            processedCounter.increment();
 
-                log.info("[WhatsAppMessageProcessor] Despesa registrada com sucesso: {}", criada);
+            log.info("[WhatsAppMessageProcessor] Despesa registrada com sucesso: {}", criada);
 
-                // Friendly confirmation back to user (best-effort)
-                try {
-                    whatsappApiClient.sendText(from, buildSuccessMessage(criada));
-                } catch (Exception sendEx) {
-                    log.warn("[WhatsAppMessageProcessor] Falha ao enviar confirmacao ao {}: {}", from, sendEx.getMessage());
-                }
-            } catch (Exception ex) {
-                log.warn("[WhatsAppMessageProcessor] Falha ao processar mensagem {}: {}", msg.getId(), ex.getMessage());
-                msg.setStatus(WhatsAppMessageStatus.ERROR);
-                msg.setErrorMessage(ex.getMessage());
-                messageRepository.save(msg);
-                // Friendly error back to user (best-effort)
-                try {
-                    whatsappApiClient.sendText(from, buildErrorMessage(ex.getMessage()));
-                } catch (Exception sendEx) {
-                    log.warn("[WhatsAppMessageProcessor] Falha ao enviar erro ao {}: {}", from, sendEx.getMessage());
+            // Friendly confirmation back to user; delivered by WhatsAppReplySender (best-effort)
+            try {
+                outbox.enqueue(from, buildSuccessMessage(criada));
+            } catch (Exception sendEx) {
+                log.warn("[WhatsAppMessageProcessor] Falha ao enfileirar confirmacao ao {}: {}", from, sendEx.getMessage());
+            }
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException) Thread.currentThread().interrupt();
+            if (isTransient(ex)) {
+                if (msg.getAttempts() < processorProperties.getMaxAttempts()) {
+                    return scheduleRetry(msg, ex);
                 }
+                return giveUp(msg, ex.getMessage());
             }
+            log.warn("[WhatsAppMessageProcessor] Falha ao processar mensagem {}: {}", msg.getId(), ex.getMessage());
+            msg.setStatus(WhatsAppMessageStatus.ERROR);
+            msg.setErrorMessage(ex.getMessage());
+            failedCounter.increment();
+            notifyError(from, ex.getMessage());
+        }
+        return msg;
+    }
+
+    // processMessage handles its own failures; this would be a programming error, so only this message is retried
+    private WhatsAppIncomingMessageDocument failedUnexpectedly(WhatsAppIncomingMessageDocument msg, Throwable ex) {
+        log.error("[WhatsAppMessageProcessor] Falha inesperada na mensagem {}", msg.getId(), ex);
+        if (msg.getAttempts() < processorProperties.getMaxAttempts()) {
+            return scheduleRetry(msg, ex);
+        }
+        return giveUp(msg, String.valueOf(ex));
+    }
+
+    private WhatsAppIncomingMessageDocument scheduleRetry(WhatsAppIncomingMessageDocument msg, Throwable ex) {
+        Duration delay = backoff.delayFor(msg.getAttempts());
+        log.info("[WhatsAppMessageProcessor] Falha transitoria na mensagem {} (tentativa {}), nova tentativa em {}s: {}",
+                msg.getId(), msg.getAttempts(), delay.toSeconds(), ex.getMessage());
+        msg.setStatus(WhatsAppMessageStatus.PENDING);
+        msg.setErrorMessage(ex.getMessage());
+        msg.setNextAttemptAt(LocalDateTime.now().plus(delay));
+        retriedCounter.increment();
+        return msg;
+    }
+
+    private WhatsAppIncomingMessageDocument giveUp(WhatsAppIncomingMessageDocument msg, String reason) {
+        log.warn("[WhatsAppMessageProcessor] Mensagem {} descartada apos {} tentativas: {}", msg.getId(), msg.getAttempts(), reason);
+        msg.setStatus(WhatsAppMessageStatus.DEAD);
+        msg.setErrorMessage(reason);
+        deadCounter.increment();
+        notifyError(msg.getFrom(), "servico temporariamente indisponivel, tente novamente mais tarde");
+        return msg;
+    }
+
+    private void notifyError(String from, String reason) {
+        // Friendly error back to user (best-effort)
+        try {
+            outbox.enqueue(from, buildErrorMessage(reason));
+        } catch (Exception sendEx) {
+            log.warn("[WhatsAppMessageProcessor] Falha ao enfileirar erro ao {}: {}", from, sendEx.getMessage());
         }
     }
 
+    // Failures that may go away on their own; anything else (unknown sender, unparseable text) is final
+    private static boolean isTransient(Exception ex) {
+        return ex instanceof ExpenseExtractionUnavailableException
+                || ex instanceof TransientDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof InterruptedException;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
     private String buildSuccessMessage(Despesa despesa) {
         NumberFormat nf = NumberFormat.getCurrencyInstance(appLocale);
         String valorFmt = despesa.getValor() != null ? nf.format(despesa.getValor()) : "";
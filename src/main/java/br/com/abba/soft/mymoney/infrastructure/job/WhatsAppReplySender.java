@@ -0,0 +1,165 @@
+package br.com.abba.soft.mymoney.infrastructure.job;
+
+import br.com.abba.soft.mymoney.infrastructure.config.WhatsAppOutboxProperties;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppOutboxDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppOutboxStatus;
+import br.com.abba.soft.mymoney.infrastructure.persistence.repository.WhatsAppOutboxRepository;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppApiClient;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppSendException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the replies queued in the WhatsApp outbox, with bounded concurrency, a send-rate limit
+ * and retries with backoff for transient Graph API failures.
+ */
+@Component
+public class WhatsAppReplySender {
+
+    private static final Logger log = LoggerFactory.getLogger(WhatsAppReplySender.class);
+    // Time a send may take once started; a reply claimed with less than this left goes back to the queue
+    private static final Duration SEND_MARGIN = Duration.ofSeconds(5);
+
+    private final WhatsAppOutboxRepository outboxRepository;
+    private final WhatsAppApiClient whatsappApiClient;
+    private final WhatsAppOutboxProperties properties;
+
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    private final ExecutorService senders;
+    private final RateLimiter rateLimiter;
+    private final RetryBackoff backoff;
+
+    private final AtomicLong outboxDepth = new AtomicLong();
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter deadCounter;
+    private final Counter requeuedCounter;
+    private final Timer sendTimer;
+
+    public WhatsAppReplySender(WhatsAppOutboxRepository outboxRepository,
+                               WhatsAppApiClient whatsappApiClient,
+                               WhatsAppOutboxProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.whatsappApiClient = whatsappApiClient;
+        this.properties = properties;
+        this.senders = Executors.newFixedThreadPool(Math.max(1, properties.getConcurrency()),
+                Thread.ofVirtual().name("whatsapp-sender-", 0).factory());
+        this.rateLimiter = new RateLimiter(properties.getMessagesPerSecond());
+        this.backoff = new RetryBackoff(Duration.ofSeconds(properties.getRetryInitialBackoffSeconds()),
+                Duration.ofSeconds(properties.getRetryMaxBackoffSeconds()));
+
+        this.sentCounter = Counter.builder("whatsapp.outbox.replies").tag("result", "sent").register(meterRegistry);
+        this.retriedCounter = Counter.builder("whatsapp.outbox.replies").tag("result", "retry").register(meterRegistry);
+        this.deadCounter = Counter.builder("whatsapp.outbox.replies").tag("result", "dead").register(meterRegistry);
+        this.requeuedCounter = Counter.builder("whatsapp.outbox.replies").tag("result", "requeued").register(meterRegistry);
+        this.sendTimer = Timer.builder("whatsapp.outbox.send.duration")
+                .description("Tempo de envio de uma resposta pela Graph API")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("whatsapp.outbox.depth", outboxDepth, AtomicLong::get)
+                .description("Respostas aguardando envio na ultima varredura")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${whatsapp.outbox.poll-interval-ms:1000}", initialDelay = 10_000L)
+    public void sendPendingReplies() {
+        Duration lease = Duration.ofSeconds(properties.getLeaseSeconds());
+        // Never claim more than the rate limit lets this instance send within half the lease
+        long sendableInLease = (long) (properties.getMessagesPerSecond() * lease.toSeconds() / 2);
+        int batchSize = (int) Math.max(1, Math.min(properties.getBatchSize(), sendableInLease));
+        int claimed;
+        do {
+            List<WhatsAppOutboxDocument> batch = outboxRepository.claimBatch(workerId, batchSize, lease);
+            claimed = batch.size();
+            if (claimed > 0) {
+                sendBatch(batch);
+            }
+            outboxDepth.set(outboxRepository.countByStatus(WhatsAppOutboxStatus.PENDING));
+        } while (claimed == batchSize && !Thread.currentThread().isInterrupted());
+    }
+
+    private void sendBatch(List<WhatsAppOutboxDocument> batch) {
+        List<WhatsAppOutboxDocument> done = BatchTasks.runAll(senders, batch, this::send, (reply, ex) -> {
+            log.error("[WhatsAppReplySender] Falha inesperada na resposta {}", reply.getId(), ex);
+            failed(reply, new WhatsAppSendException(String.valueOf(ex), true, null, ex));
+            return reply;
+        });
+        outboxRepository.complete(workerId, done);
+    }
+
+    private WhatsAppOutboxDocument send(WhatsAppOutboxDocument reply) throws InterruptedException {
+        rateLimiter.acquire();
+        if (leaseEnding(reply)) {
+            // A Retry-After pause outlasted the lease: another instance may reclaim the reply, so sending it
+            // here could deliver it twice. Give it back untouched, without spending an attempt.
+            reply.setStatus(WhatsAppOutboxStatus.PENDING);
+            reply.setNextAttemptAt(LocalDateTime.now());
+            reply.setAttempts(reply.getAttempts() - 1);
+            requeuedCounter.increment();
+            return reply;
+        }
+        long start = System.nanoTime();
+        try {
+            whatsappApiClient.sendText(reply.getTo(), reply.getBody());
+            reply.setStatus(WhatsAppOutboxStatus.SENT);
+            reply.setSentAt(LocalDateTime.now());
+            reply.setErrorMessage(null);
+            sentCounter.increment();
+        } catch (RuntimeException e) {
+            failed(reply, e instanceof WhatsAppSendException sendEx
+                    ? sendEx
+                    : new WhatsAppSendException(e.getMessage(), true, null, e));
+        } finally {
+            sendTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+        return reply;
+    }
+
+    private void failed(WhatsAppOutboxDocument reply, WhatsAppSendException ex) {
+        if (ex.isRetryable() && reply.getAttempts() < properties.getMaxAttempts()) {
+            Duration delay = backoff.delayFor(reply.getAttempts());
+            if (ex.getRetryAfter() != null) {
+                // the whole sender slows down, not just this reply
+                rateLimiter.pause(ex.getRetryAfter());
+                delay = delay.compareTo(ex.getRetryAfter()) < 0 ? ex.getRetryAfter() : delay;
+            }
+            reply.setStatus(WhatsAppOutboxStatus.PENDING);
+            reply.setNextAttemptAt(LocalDateTime.now().plus(delay));
+            retriedCounter.increment();
+        } else {
+            log.warn("[WhatsAppReplySender] Resposta {} para {} descartada apos {} tentativas: {}",
+                    reply.getId(), reply.getTo(), reply.getAttempts(), ex.getMessage());
+            reply.setStatus(WhatsAppOutboxStatus.DEAD);
+            reply.setDeadAt(LocalDateTime.now());
+            deadCounter.increment();
+        }
+        reply.setErrorMessage(ex.getMessage());
+    }
+
+    private static boolean leaseEnding(WhatsAppOutboxDocument reply) {
+        LocalDateTime expiresAt = reply.getLeaseExpiresAt();
+        return expiresAt != null && !LocalDateTime.now().plus(SEND_MARGIN).isBefore(expiresAt);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdown();
+    }
+}
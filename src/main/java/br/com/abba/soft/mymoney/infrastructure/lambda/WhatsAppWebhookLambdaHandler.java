@@ -3,6 +3,7 @@ package br.com.abba.soft.mymoney.infrastructure.lambda;
 import br.com.abba.soft.mymoney.MyMoneyApplication;
 import br.com.abba.soft.mymoney.infrastructure.config.WhatsAppProperties;
 import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppWebhookController;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppWebhookPayloadReader;
 import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppWebhookService;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
@@ -74,9 +75,14 @@ public class WhatsAppWebhookLambdaHandler implements RequestHandler<APIGatewayPr
     private APIGatewayProxyResponseEvent handlePOST(APIGatewayProxyRequestEvent request, Map<String, String> headers, WhatsAppWebhookService service) throws JsonProcessingException {
         String bodyRaw = request.getBody();
         if (bodyRaw == null || bodyRaw.isBlank()) {
-            return new APIGatewayProxyResponseEvent().withStatusCode(202).withHeaders(headers).withBody(json(new WhatsAppWebhookController.WebhookProcessResult(0, 0, 0, List.of("Empty body"))));
+            return new APIGatewayProxyResponseEvent().withStatusCode(202).withHeaders(headers).withBody(json(new WhatsAppWebhookController.WebhookProcessResult(0, 0, 0, 0, List.of("Empty body"))));
+        }
+        WhatsAppWebhookController.WhatsMetaRoot payload;
+        try {
+            payload = WhatsAppWebhookPayloadReader.read(bodyRaw);
+        } catch (IllegalArgumentException ex) {
+            return new APIGatewayProxyResponseEvent().withStatusCode(400).withHeaders(headers).withBody(json(Map.of("error", ex.getMessage())));
         }
-        Map<String, Object> payload = mapper.readValue(bodyRaw, Map.class);
         WhatsAppWebhookController.WebhookProcessResult result = service.process(payload);
         return new APIGatewayProxyResponseEvent().withStatusCode(202).withHeaders(headers).withBody(json(result));
     }
@@ -0,0 +1,27 @@
+package br.com.abba.soft.mymoney.infrastructure.parsing;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * Detects pt-BR messages that say when the expense happened ("ontem", "sexta", "10/08", "20h", "dia 5").
+ * Their dataHora can only be resolved by OpenAI, so shortcuts that stamp "now" (the result cache, the
+ * history tier) must leave them alone.
+ */
+public final class DateReferences {
+
+    // dd/MM, dd-MM, dd.MM.yy, 12:30, 20h, ontem, sexta, dia 5, marco...
+    private static final Pattern DATE_REFERENCE = Pattern.compile(
+            "\\d{1,2}\\s*[/-]\\s*\\d{1,2}|\\d{1,2}\\.\\d{1,2}\\.\\d{2,4}|\\b\\d{1,2}(:\\d{2}|h\\d{0,2})\\b"
+                    + "|\\b(ontem|anteontem|amanh[aã]|semana|m[eê]s|segunda|ter[cç]a|quarta|quinta|sexta|s[aá]bado|domingo"
+                    + "|dia\\s+\\d{1,2}|janeiro|fevereiro|mar[cç]o|abril|maio|junho|julho|agosto|setembro|outubro|novembro|dezembro)\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+    private DateReferences() {}
+
+    public static boolean mentionsDate(String text) {
+        if (text == null) return false;
+        String nfc = Normalizer.isNormalized(text, Normalizer.Form.NFC) ? text : Normalizer.normalize(text, Normalizer.Form.NFC);
+        return DATE_REFERENCE.matcher(nfc).find();
+    }
+}
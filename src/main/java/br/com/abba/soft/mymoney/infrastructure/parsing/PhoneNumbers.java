@@ -0,0 +1,25 @@
+package br.com.abba.soft.mymoney.infrastructure.parsing;
+
+/**
+ * Phone numbers in the form the WhatsApp queue stores them ({@code from}) and users are looked up by:
+ * digits only, with the Brazilian 9th mobile digit restored.
+ */
+public final class PhoneNumbers {
+
+    private PhoneNumbers() {}
+
+    public static String normalize(String raw) {
+        if (raw == null) return null;
+        StringBuilder digits = new StringBuilder(raw.length() + 1);
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') digits.append(c);
+        }
+        // Brazilian WhatsApp numbers (country 55) always include the 9th digit:
+        // 55 + AA (2) + 9 + XXXXXXXX (8) => 13 digits; without it (12 digits) the '9' goes after the area code
+        if (digits.length() == 12 && digits.charAt(0) == '5' && digits.charAt(1) == '5') {
+            digits.insert(4, '9');
+        }
+        return digits.toString();
+    }
+}
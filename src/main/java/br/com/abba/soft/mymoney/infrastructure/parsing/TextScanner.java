@@ -0,0 +1,347 @@
+package br.com.abba.soft.mymoney.infrastructure.parsing;
+
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Set;
+
+/**
+ * Hand-written scanners for the values users type in messages and files: amounts ("R$ 1.234,56"), payment
+ * names and aliases ("cartão de crédito", "pix") and dates (pt-BR "10/08/2025 14:30" and ISO-8601).
+ * Each one reads the text once, works on a range of a {@link CharSequence} without copying it, and
+ * answers null for input it does not recognize: no regexes, formatters or exceptions on the way.
+ */
+public final class TextScanner {
+
+    private static final int MAX_DIGITS = 18;
+
+    // Folded form (upper case, no accents, single spaces) -> payment; enum names are added with '_' as ' '
+    private static final String[] PAYMENT_KEYS;
+    private static final TipoPagamento[] PAYMENT_VALUES;
+    static {
+        String[][] aliases = {
+                {"CASH", "DINHEIRO"},
+                {"CARTAO", "CARTAO_CREDITO"},
+                {"CREDITO", "CARTAO_CREDITO"},
+                {"CARTAO DE CREDITO", "CARTAO_CREDITO"},
+                {"DEBITO", "CARTAO_DEBITO"},
+                {"CARTAO DE DEBITO", "CARTAO_DEBITO"},
+        };
+        TipoPagamento[] tipos = TipoPagamento.values();
+        PAYMENT_KEYS = new String[tipos.length + aliases.length];
+        PAYMENT_VALUES = new TipoPagamento[PAYMENT_KEYS.length];
+        for (int i = 0; i < tipos.length; i++) {
+            PAYMENT_KEYS[i] = tipos[i].name().replace('_', ' ');
+            PAYMENT_VALUES[i] = tipos[i];
+        }
+        for (int i = 0; i < aliases.length; i++) {
+            PAYMENT_KEYS[tipos.length + i] = aliases[i][0];
+            PAYMENT_VALUES[tipos.length + i] = TipoPagamento.valueOf(aliases[i][1]);
+        }
+    }
+
+    private static final Set<String> ZONE_IDS = Set.copyOf(ZoneId.getAvailableZoneIds());
+
+    private TextScanner() {}
+
+    // ---------------------------------------------------------------- words
+
+    /** First non-whitespace index at or after {@code from}, or {@code to}. */
+    public static int skipSpaces(CharSequence s, int from, int to) {
+        while (from < to && Character.isWhitespace(s.charAt(from))) from++;
+        return from;
+    }
+
+    /** End (exclusive) of the word starting at {@code from}. */
+    public static int wordEnd(CharSequence s, int from, int to) {
+        while (from < to && !Character.isWhitespace(s.charAt(from))) from++;
+        return from;
+    }
+
+    /** Whether the range, folded like the payment names, equals {@code folded} (upper case, no accents, single spaces). */
+    public static boolean equalsFolded(CharSequence s, int from, int to, String folded) {
+        int j = 0;
+        boolean space = false;
+        for (int i = skipSpaces(s, from, to); i < to; i++) {
+            char c = fold(s.charAt(i));
+            if (c == ' ') {
+                space = true;
+                continue;
+            }
+            if (space) {
+                if (j >= folded.length() || folded.charAt(j++) != ' ') return false;
+                space = false;
+            }
+            if (j >= folded.length() || folded.charAt(j++) != c) return false;
+        }
+        return j == folded.length();
+    }
+
+    // ---------------------------------------------------------------- amounts
+
+    public static BigDecimal amount(CharSequence s) {
+        return s == null ? null : amount(s, 0, s.length());
+    }
+
+    /**
+     * Amount with an optional "R$" and sign. With both ',' and '.' the last one is the decimal separator
+     * ("1.234,56", "1,234.56"); a single separator is decimal ("12,90", "12.90"); a repeated one groups
+     * thousands ("1.234.567"). Thousands groups have three digits ("1,234,56" is rejected). At most 18 digits.
+     */
+    public static BigDecimal amount(CharSequence s, int from, int to) {
+        int i = skipSpaces(s, from, to);
+        while (to > i && Character.isWhitespace(s.charAt(to - 1))) to--;
+        if (i + 1 < to && (s.charAt(i) == 'R' || s.charAt(i) == 'r') && s.charAt(i + 1) == '$') {
+            i = skipSpaces(s, i + 2, to);
+        }
+        boolean negative = false;
+        if (i < to && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int commas = 0;
+        int dots = 0;
+        char lastSeparator = 0;
+        int digitsAfterSeparator = 0;
+        int firstGroup = 0;
+        boolean previousWasSeparator = false;
+        for (; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS) return null;
+                unscaled = unscaled * 10 + (c - '0');
+                digitsAfterSeparator++;
+                previousWasSeparator = false;
+            } else if ((c == ',' || c == '.') && !previousWasSeparator) {
+                // a separator after another one means the previous one grouped thousands
+                if (commas + dots == 0) firstGroup = digitsAfterSeparator;
+                else if (digitsAfterSeparator != 3) return null;
+                if (c == ',') commas++;
+                else dots++;
+                lastSeparator = c;
+                digitsAfterSeparator = 0;
+                previousWasSeparator = true;
+            } else {
+                return null;
+            }
+        }
+        if (digits == 0 || previousWasSeparator) return null;
+        int scale = 0;
+        if (commas > 0 && dots > 0) {
+            // the decimal separator appears once, after every grouping one
+            if ((lastSeparator == ',' ? commas : dots) != 1) return null;
+            scale = digitsAfterSeparator;
+        } else if (commas + dots == 1) {
+            scale = digitsAfterSeparator;
+        } else if (commas + dots > 1 && digitsAfterSeparator != 3) {
+            return null;
+        }
+        if (commas + dots > 1 && firstGroup > 3) return null;
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+    }
+
+    // ---------------------------------------------------------------- payment
+
+    public static TipoPagamento payment(CharSequence s) {
+        return s == null ? null : payment(s, 0, s.length());
+    }
+
+    /**
+     * Payment named by the range: enum name or alias, ignoring case, accents and repeated spaces,
+     * '_' and '-' ("cartão de crédito", "CARTAO_DEBITO", "pix"). Null when it names none.
+     */
+    public static TipoPagamento payment(CharSequence s, int from, int to) {
+        for (int k = 0; k < PAYMENT_KEYS.length; k++) {
+            if (equalsFolded(s, from, to, PAYMENT_KEYS[k])) return PAYMENT_VALUES[k];
+        }
+        return null;
+    }
+
+    // ---------------------------------------------------------------- dates
+
+    public static ZonedDateTime dateTime(CharSequence s, ZoneId zone) {
+        return s == null ? null : dateTime(s, 0, s.length(), zone);
+    }
+
+    /**
+     * Date or date-time in one of the forms below; values without an offset are in {@code zone} and dates
+     * without a time are the start of the day. Impossible dates (31/02) are rejected.
+     * <ul>
+     *   <li>pt-BR: {@code d/M/yyyy}, with '/', '-' or '.', optionally followed by {@code [,] HH:mm[:ss]}</li>
+     *   <li>ISO-8601: {@code yyyy-MM-dd[('T'|' ')HH:mm[:ss[.fraction]]][Z|±HH[:mm]][[Region/City]]}</li>
+     * </ul>
+     */
+    public static ZonedDateTime dateTime(CharSequence s, int from, int to, ZoneId zone) {
+        Cursor c = new Cursor(s, skipSpaces(s, from, to), to);
+        while (c.end > c.pos && Character.isWhitespace(s.charAt(c.end - 1))) c.end--;
+        int first = c.number(1, 4);
+        if (first < 0) return null;
+        return c.pos - c.start == 4 ? iso(c, first, zone) : brazilian(c, first, zone);
+    }
+
+    private static ZonedDateTime brazilian(Cursor c, int day, ZoneId zone) {
+        char separator = c.peek();
+        if (separator != '/' && separator != '-' && separator != '.') return null;
+        c.pos++;
+        int month = c.number(1, 2);
+        if (month < 0 || !c.accept(separator)) return null;
+        int yearStart = c.pos;
+        int year = c.number(4, 4);
+        if (year < 0 || c.pos - yearStart != 4) return null;
+        int hour = 0, minute = 0, second = 0;
+        if (!c.atEnd()) {
+            c.accept(',');
+            if (!c.skipSpaces()) return null;
+            hour = c.number(1, 2);
+            if (hour < 0 || !c.accept(':')) return null;
+            minute = c.number(2, 2);
+            if (minute < 0) return null;
+            if (c.accept(':')) {
+                second = c.number(2, 2);
+                if (second < 0) return null;
+            }
+            if (!c.atEnd()) return null;
+        }
+        LocalDateTime local = local(year, month, day, hour, minute, second, 0);
+        return local == null ? null : local.atZone(zone);
+    }
+
+    private static ZonedDateTime iso(Cursor c, int year, ZoneId zone) {
+        if (!c.accept('-')) return null;
+        int month = c.number(2, 2);
+        if (month < 0 || !c.accept('-')) return null;
+        int day = c.number(2, 2);
+        if (day < 0) return null;
+        int hour = 0, minute = 0, second = 0, nano = 0;
+        if (c.accept('T') || c.accept(' ')) {
+            hour = c.number(2, 2);
+            if (hour < 0 || !c.accept(':')) return null;
+            minute = c.number(2, 2);
+            if (minute < 0) return null;
+            if (c.accept(':')) {
+                second = c.number(2, 2);
+                if (second < 0) return null;
+                if (c.accept('.')) {
+                    int fractionStart = c.pos;
+                    int fraction = c.number(1, 9);
+                    if (fraction < 0) return null;
+                    nano = fraction;
+                    for (int n = c.pos - fractionStart; n < 9; n++) nano *= 10;
+                }
+            }
+        }
+        LocalDateTime local = local(year, month, day, hour, minute, second, nano);
+        if (local == null) return null;
+        ZoneOffset offset = null;
+        if (c.accept('Z') || c.accept('z')) {
+            offset = ZoneOffset.UTC;
+        } else if (c.peek() == '+' || c.peek() == '-') {
+            int sign = c.peek() == '-' ? -1 : 1;
+            c.pos++;
+            int offsetHours = c.number(2, 2);
+            if (offsetHours < 0 || offsetHours > 18) return null;
+            int offsetMinutes = 0;
+            boolean colon = c.accept(':');
+            if (colon || Character.isDigit(c.peek())) {
+                offsetMinutes = c.number(2, 2);
+                if (offsetMinutes < 0 || offsetMinutes > 59) return null;
+            }
+            offset = ZoneOffset.ofTotalSeconds(sign * (offsetHours * 3600 + offsetMinutes * 60));
+        }
+        ZoneId region = null;
+        if (c.accept('[')) {
+            int idStart = c.pos;
+            while (!c.atEnd() && c.peek() != ']') c.pos++;
+            if (c.atEnd()) return null;
+            String id = c.s.subSequence(idStart, c.pos).toString();
+            c.pos++;
+            if (!ZONE_IDS.contains(id)) return null;
+            region = ZoneId.of(id);
+        }
+        if (!c.atEnd()) return null;
+        if (region != null) return offset == null ? local.atZone(region) : ZonedDateTime.ofLocal(local, region, offset);
+        return local.atZone(offset != null ? offset : zone);
+    }
+
+    private static LocalDateTime local(int year, int month, int day, int hour, int minute, int second, int nano) {
+        if (month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) return null;
+        if (hour > 23 || minute > 59 || second > 59) return null;
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    /** Position over the range being scanned. */
+    private static final class Cursor {
+        final CharSequence s;
+        final int start;
+        int pos;
+        int end;
+
+        Cursor(CharSequence s, int pos, int end) {
+            this.s = s;
+            this.start = pos;
+            this.pos = pos;
+            this.end = end;
+        }
+
+        boolean atEnd() {
+            return pos >= end;
+        }
+
+        char peek() {
+            return pos < end ? s.charAt(pos) : 0;
+        }
+
+        boolean accept(char expected) {
+            if (pos < end && s.charAt(pos) == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        boolean skipSpaces() {
+            int before = pos;
+            pos = TextScanner.skipSpaces(s, pos, end);
+            return pos > before;
+        }
+
+        /** Reads min..max ASCII digits, or returns -1 (and stays put) when fewer than min are present. */
+        int number(int min, int max) {
+            int value = 0;
+            int n = 0;
+            while (n < max && pos + n < end) {
+                char ch = s.charAt(pos + n);
+                if (ch < '0' || ch > '9') break;
+                value = value * 10 + (ch - '0');
+                n++;
+            }
+            if (n < min) return -1;
+            pos += n;
+            return value;
+        }
+    }
+
+    /** Upper-case base letter for Latin letters, ' ' for whitespace, '_' and '-'; other chars unchanged. */
+    private static char fold(char c) {
+        if (c == '_' || c == '-' || Character.isWhitespace(c)) return ' ';
+        if (c < 0x80) return (c >= 'a' && c <= 'z') ? (char) (c - 32) : c;
+        return switch (Character.toUpperCase(c)) {
+            case 'À', 'Á', 'Â', 'Ã', 'Ä', 'Å' -> 'A';
+            case 'Ç' -> 'C';
+            case 'È', 'É', 'Ê', 'Ë' -> 'E';
+            case 'Ì', 'Í', 'Î', 'Ï' -> 'I';
+            case 'Ñ' -> 'N';
+            case 'Ò', 'Ó', 'Ô', 'Õ', 'Ö' -> 'O';
+            case 'Ù', 'Ú', 'Û', 'Ü' -> 'U';
+            default -> Character.toUpperCase(c);
+        };
+    }
+}
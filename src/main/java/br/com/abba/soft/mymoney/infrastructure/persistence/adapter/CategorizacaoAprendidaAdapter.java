@@ -0,0 +1,191 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.adapter;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.SugestaoCategorizacao;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.domain.port.CategorizacaoAprendidaPort;
+import br.com.abba.soft.mymoney.infrastructure.cache.BoundedTtlCache;
+import br.com.abba.soft.mymoney.infrastructure.categoria.DescricaoTokens;
+import br.com.abba.soft.mymoney.infrastructure.config.CategorizacaoAprendidaProperties;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.CategorizacaoAprendidaDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-user word index over the descriptions of the user's expenses, stored in MongoDB (one $inc per word on
+ * every change) and mirrored in memory for the users seen recently, so suggestions need no I/O.
+ * A suggestion is the categoria/tipoPagamento most voted by the description's known words, when it has
+ * enough support and a clear majority.
+ */
+@Component
+public class CategorizacaoAprendidaAdapter implements CategorizacaoAprendidaPort {
+
+    private static final Logger log = LoggerFactory.getLogger(CategorizacaoAprendidaAdapter.class);
+
+    private static final Categoria[] CATEGORIAS = Categoria.values();
+    private static final TipoPagamento[] PAGAMENTOS = TipoPagamento.values();
+
+    /** Counts of one word, indexed by enum ordinal. */
+    private static final class Contagem {
+        final long[] categorias = new long[CATEGORIAS.length];
+        final long[] pagamentos = new long[PAGAMENTOS.length];
+        long total;
+    }
+
+    /** In-memory copy of a user's index; guarded by its own monitor. */
+    private static final class Modelo {
+        final Map<String, Contagem> tokens = new HashMap<>();
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final CategorizacaoAprendidaProperties props;
+    private final BoundedTtlCache<String, Modelo> modelos;
+
+    public CategorizacaoAprendidaAdapter(MongoTemplate mongoTemplate, CategorizacaoAprendidaProperties props) {
+        this.mongoTemplate = mongoTemplate;
+        this.props = props;
+        this.modelos = new BoundedTtlCache<>(props.getCacheMaxEntries(), Duration.ofSeconds(props.getCacheTtlSeconds()));
+    }
+
+    @Override
+    public void aprender(Despesa despesa, int peso) {
+        if (!props.isEnabled() || despesa == null || despesa.getUserId() == null) return;
+        // long so the counters are stored as Int64 from the first $inc
+        long delta = peso;
+        List<String> tokens = DescricaoTokens.de(despesa.getDescricao(), props.getMaxTokensPorDespesa());
+        if (tokens.isEmpty()) return;
+        String userId = despesa.getUserId();
+        Categoria categoria = despesa.getCategoria() == null ? Categoria.OUTRAS : despesa.getCategoria();
+        TipoPagamento tipoPagamento = despesa.getTipoPagamento();
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CategorizacaoAprendidaDocument.class);
+            for (String token : tokens) {
+                Update update = new Update()
+                        .inc("total", delta)
+                        .inc("categorias." + categoria.name(), delta)
+                        .setOnInsert("userId", userId)
+                        .setOnInsert("token", token);
+                if (tipoPagamento != null) update.inc("pagamentos." + tipoPagamento.name(), delta);
+                bulk.upsert(Query.query(Criteria.where("id").is(chave(userId, token))), update);
+            }
+            bulk.execute();
+            if (delta < 0) {
+                mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)
+                        .and("token").in(tokens).and("total").lte(0)), CategorizacaoAprendidaDocument.class);
+            }
+        } catch (RuntimeException e) {
+            // Learning must never fail the expense write; the word counts just lag behind
+            log.warn("[CategorizacaoAprendida] Falha ao atualizar indice do usuario {}: {}", userId, e.getMessage());
+            modelos.invalidate(userId);
+            return;
+        }
+        Modelo modelo = modelos.get(userId);
+        if (modelo != null) {
+            synchronized (modelo) {
+                for (String token : tokens) {
+                    Contagem contagem = modelo.tokens.computeIfAbsent(token, t -> new Contagem());
+                    contagem.total += delta;
+                    contagem.categorias[categoria.ordinal()] += delta;
+                    if (tipoPagamento != null) contagem.pagamentos[tipoPagamento.ordinal()] += delta;
+                    if (contagem.total <= 0) modelo.tokens.remove(token);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Optional<SugestaoCategorizacao> sugerir(String userId, String descricao) {
+        if (!props.isEnabled() || userId == null) return Optional.empty();
+        List<String> tokens = DescricaoTokens.de(descricao, props.getMaxTokensPorDespesa());
+        if (tokens.isEmpty()) return Optional.empty();
+        Modelo modelo = modelo(userId);
+        if (modelo == null) return Optional.empty();
+
+        // Every known word votes with its own distribution, so one frequent word does not drown the others
+        double[] votosCategoria = new double[CATEGORIAS.length];
+        double[] votosPagamento = new double[PAGAMENTOS.length];
+        long suporte = 0;
+        int palavrasComPagamento = 0;
+        int palavras = 0;
+        synchronized (modelo) {
+            for (String token : tokens) {
+                Contagem contagem = modelo.tokens.get(token);
+                if (contagem == null || contagem.total <= 0) continue;
+                palavras++;
+                suporte += contagem.total;
+                for (int i = 0; i < votosCategoria.length; i++) {
+                    if (contagem.categorias[i] > 0) votosCategoria[i] += (double) contagem.categorias[i] / contagem.total;
+                }
+                long comPagamento = 0;
+                for (long n : contagem.pagamentos) if (n > 0) comPagamento += n;
+                if (comPagamento == 0) continue;
+                palavrasComPagamento++;
+                for (int i = 0; i < votosPagamento.length; i++) {
+                    if (contagem.pagamentos[i] > 0) votosPagamento[i] += (double) contagem.pagamentos[i] / comPagamento;
+                }
+            }
+        }
+        if (palavras == 0 || suporte < props.getMinOcorrencias()) return Optional.empty();
+        int categoria = vencedor(votosCategoria, palavras);
+        int pagamento = vencedor(votosPagamento, palavrasComPagamento);
+        if (categoria < 0 && pagamento < 0) return Optional.empty();
+        return Optional.of(new SugestaoCategorizacao(categoria < 0 ? null : CATEGORIAS[categoria],
+                pagamento < 0 ? null : PAGAMENTOS[pagamento]));
+    }
+
+    private int vencedor(double[] votos, int eleitores) {
+        if (eleitores == 0) return -1;
+        int melhor = -1;
+        for (int i = 0; i < votos.length; i++) {
+            if (melhor < 0 || votos[i] > votos[melhor]) melhor = i;
+        }
+        return votos[melhor] / eleitores >= props.getMinConfianca() ? melhor : -1;
+    }
+
+    private Modelo modelo(String userId) {
+        Modelo modelo = modelos.get(userId);
+        if (modelo != null) return modelo;
+        Query query = Query.query(Criteria.where("userId").is(userId).and("total").gt(0))
+                .with(Sort.by(Sort.Direction.DESC, "total"))
+                .limit(props.getMaxTokensPorUsuario());
+        modelo = new Modelo();
+        for (CategorizacaoAprendidaDocument doc : mongoTemplate.find(query, CategorizacaoAprendidaDocument.class)) {
+            Contagem contagem = new Contagem();
+            contagem.total = doc.getTotal();
+            copiar(doc.getCategorias(), contagem.categorias, Categoria.class);
+            copiar(doc.getPagamentos(), contagem.pagamentos, TipoPagamento.class);
+            modelo.tokens.put(doc.getToken(), contagem);
+        }
+        modelos.put(userId, modelo);
+        return modelo;
+    }
+
+    private static <E extends Enum<E>> void copiar(Map<String, Long> origem, long[] destino, Class<E> tipo) {
+        if (origem == null) return;
+        origem.forEach((nome, n) -> {
+            try {
+                destino[Enum.valueOf(tipo, nome).ordinal()] = n == null ? 0 : n;
+            } catch (IllegalArgumentException ignored) {
+                // value removed from the enum; its votes no longer count
+            }
+        });
+    }
+
+    private static String chave(String userId, String token) {
+        return userId + "|" + token;
+    }
+}
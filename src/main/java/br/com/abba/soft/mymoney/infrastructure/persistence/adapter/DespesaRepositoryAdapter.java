@@ -1,23 +1,51 @@
 package br.com.abba.soft.mymoney.infrastructure.persistence.adapter;
 
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.CursorDespesa;
 import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.ResumoDespesas;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
 import br.com.abba.soft.mymoney.domain.port.DespesaRepositoryPort;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.DespesaDocument;
 import br.com.abba.soft.mymoney.infrastructure.persistence.mapper.DespesaMapper;
 import br.com.abba.soft.mymoney.infrastructure.persistence.repository.DespesaRepository;
 
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Component
 public class DespesaRepositoryAdapter implements DespesaRepositoryPort {
 
+    // Must match the (userId, dataHora, _id) compound index on DespesaDocument
+    private static final Sort ORDEM_RECENTES = Sort.by(Sort.Order.desc("dataHora"), Sort.Order.desc("id"));
+    private static final int EXPORT_CURSOR_BATCH = 500;
+
     private final DespesaRepository repository;
+    private final MongoTemplate mongoTemplate;
 
-    public DespesaRepositoryAdapter(DespesaRepository repository) {
+    public DespesaRepositoryAdapter(DespesaRepository repository, MongoTemplate mongoTemplate) {
         this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
     }
 
     @Override
@@ -26,11 +54,27 @@ public class DespesaRepositoryAdapter implements DespesaRepositoryPort {
         return DespesaMapper.toDomain(saved);
     }
 
+    @Override
+    public List<Despesa> insertAll(List<Despesa> despesas) {
+        if (despesas.isEmpty()) return List.of();
+        // insertMany: one command per chunk instead of one save per expense
+        List<DespesaDocument> documentos = despesas.stream().map(DespesaMapper::toDocument).toList();
+        return mongoTemplate.insert(documentos, DespesaDocument.class)
+                .stream()
+                .map(DespesaMapper::toDomain)
+                .toList();
+    }
+
     @Override
     public Optional<Despesa> findById(String id) {
         return repository.findById(id).map(DespesaMapper::toDomain);
     }
 
+    @Override
+    public Optional<Despesa> findByOrigem(String origem) {
+        return repository.findByOrigem(origem).map(DespesaMapper::toDomain);
+    }
+
     @Override
     public List<Despesa> findAll() {
         return repository.findAll().stream().map(DespesaMapper::toDomain).toList();
@@ -48,4 +92,105 @@ public class DespesaRepositoryAdapter implements DespesaRepositoryPort {
                 .map(DespesaMapper::toDomain)
                 .toList();
     }
+
+    @Override
+    public List<Despesa> findByUserIdAndDataHoraBetween(String userId, LocalDateTime inicio, LocalDateTime fim, int page, int size) {
+        return repository.findByUserIdAndDataHoraBetween(userId, inicio, fim, PageRequest.of(page, size, ORDEM_RECENTES))
+                .stream()
+                .map(DespesaMapper::toDomain)
+                .toList();
+    }
+
+    @Override
+    public ResumoDespesas resumir(String userId, LocalDateTime inicio, LocalDateTime fim) {
+        // One round trip: the three group-bys run as facets over the same matched documents
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId)
+                        .and("dataHora").gte(toDate(inicio)).lte(toDate(fim))),
+                // valor is persisted as a string; $toDecimal keeps the sums exact (Decimal128)
+                Aggregation.project("categoria", "tipoPagamento")
+                        .and(ConvertOperators.valueOf("valor").convertToDecimal()).as("valor"),
+                Aggregation.facet(Aggregation.group().sum("valor").as("total").count().as("quantidade")).as("geral")
+                        .and(Aggregation.group("categoria").sum("valor").as("total")).as("porCategoria")
+                        .and(Aggregation.group("tipoPagamento").sum("valor").as("total")).as("porTipoPagamento")
+        );
+        String collection = mongoTemplate.getCollectionName(DespesaDocument.class);
+        Document result = mongoTemplate.aggregate(aggregation, collection, Document.class).getUniqueMappedResult();
+        if (result == null) {
+            return new ResumoDespesas(BigDecimal.ZERO, 0, Map.of(), Map.of());
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        long quantidade = 0;
+        List<Document> geral = result.getList("geral", Document.class, List.of());
+        if (!geral.isEmpty()) {
+            total = toBigDecimal(geral.get(0).get("total"));
+            quantidade = ((Number) geral.get(0).get("quantidade")).longValue();
+        }
+
+        Map<Categoria, BigDecimal> porCategoria = new EnumMap<>(Categoria.class);
+        for (Document d : result.getList("porCategoria", Document.class, List.of())) {
+            // Legacy documents without categoria are reported as OUTRAS
+            Categoria categoria = d.get("_id") == null ? Categoria.OUTRAS : Categoria.valueOf(d.getString("_id"));
+            porCategoria.merge(categoria, toBigDecimal(d.get("total")), BigDecimal::add);
+        }
+        Map<TipoPagamento, BigDecimal> porTipo = new EnumMap<>(TipoPagamento.class);
+        for (Document d : result.getList("porTipoPagamento", Document.class, List.of())) {
+            if (d.get("_id") == null) continue;
+            porTipo.put(TipoPagamento.valueOf(d.getString("_id")), toBigDecimal(d.get("total")));
+        }
+        return new ResumoDespesas(total, quantidade, porCategoria, porTipo);
+    }
+
+    @Override
+    public void forEachByUserIdAndDataHoraBetween(String userId, LocalDateTime inicio, LocalDateTime fim, Consumer<Despesa> action) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (inicio != null || fim != null) {
+            Criteria periodo = criteria.and("dataHora");
+            if (inicio != null) periodo.gte(toDate(inicio));
+            if (fim != null) periodo.lte(toDate(fim));
+        }
+        // Ascending walk of the same (userId, dataHora, _id) index; the cursor fetches EXPORT_CURSOR_BATCH docs per round trip
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Order.asc("dataHora"), Sort.Order.asc("id")))
+                .cursorBatchSize(EXPORT_CURSOR_BATCH);
+        try (Stream<DespesaDocument> documentos = mongoTemplate.stream(query, DespesaDocument.class)) {
+            documentos.map(DespesaMapper::toDomain).forEach(action);
+        }
+    }
+
+    @Override
+    public List<Despesa> findByUserId(String userId, int page, int size) {
+        return repository.findByUserId(userId, PageRequest.of(page, size, ORDEM_RECENTES))
+                .stream()
+                .map(DespesaMapper::toDomain)
+                .toList();
+    }
+
+    @Override
+    public List<Despesa> findByUserIdAfter(String userId, CursorDespesa cursor, int size) {
+        Date dataHora = Date.from(cursor.dataHora());
+        Object id = ObjectId.isValid(cursor.id()) ? new ObjectId(cursor.id()) : cursor.id();
+        // Seek predicate: (dataHora, id) < (cursor.dataHora, cursor.id) in the listing order
+        Criteria criteria = Criteria.where("userId").is(userId).orOperator(
+                Criteria.where("dataHora").lt(dataHora),
+                Criteria.where("dataHora").is(dataHora).and("id").lt(id)
+        );
+        Query query = Query.query(criteria).with(ORDEM_RECENTES).limit(size);
+        return mongoTemplate.find(query, DespesaDocument.class)
+                .stream()
+                .map(DespesaMapper::toDomain)
+                .toList();
+    }
+
+    // Same zone Spring Data uses when converting LocalDateTime query parameters
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Decimal128 d) return d.bigDecimalValue();
+        if (value instanceof Number n) return new BigDecimal(n.toString());
+        return BigDecimal.ZERO;
+    }
 }
@@ -0,0 +1,157 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.adapter;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.ResumoMensal;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.domain.port.ResumoMensalRepositoryPort;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.DespesaDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.ResumoMensalDocument;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Component
+public class ResumoMensalRepositoryAdapter implements ResumoMensalRepositoryPort {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumoMensalRepositoryAdapter.class);
+    private static final int REBUILD_CHUNK = 500;
+    private static final String PENDENTE = "reconstrucaoPendente";
+
+    private final MongoTemplate mongoTemplate;
+
+    public ResumoMensalRepositoryAdapter(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void incrementar(String userId, YearMonth mes, Categoria categoria, TipoPagamento tipoPagamento,
+                            BigDecimal deltaValor, long deltaQuantidade) {
+        Query query = Query.query(Criteria.where("id").is(chave(userId, mes.toString(), categoria, tipoPagamento)));
+        Update update = new Update()
+                .inc("total", new Decimal128(deltaValor))
+                .inc("quantidade", deltaQuantidade)
+                .setOnInsert("userId", userId)
+                .setOnInsert("mes", mes.toString())
+                .setOnInsert("categoria", categoria)
+                .setOnInsert("tipoPagamento", tipoPagamento)
+                // a row changed while a rebuild runs is live, whatever the rebuild read
+                .unset(PENDENTE);
+        mongoTemplate.upsert(query, update, ResumoMensalDocument.class);
+    }
+
+    @Override
+    public List<ResumoMensal> findByUserIdAndMesBetween(String userId, YearMonth de, YearMonth ate) {
+        Query query = Query.query(Criteria.where("userId").is(userId)
+                        .and("mes").gte(de.toString()).lte(ate.toString())
+                        .and("quantidade").gt(0))
+                .with(Sort.by("mes"));
+        return mongoTemplate.find(query, ResumoMensalDocument.class)
+                .stream()
+                .map(doc -> new ResumoMensal(doc.getUserId(), YearMonth.parse(doc.getMes()), doc.getCategoria(),
+                        doc.getTipoPagamento(), doc.getTotal(), doc.getQuantidade()))
+                .toList();
+    }
+
+    /**
+     * Rows are never removed up front, so reports and concurrent $inc keep working on the old totals while
+     * the rebuild runs: existing rows are marked pending, every computed row overwrites its totals with $set
+     * (clearing the mark), and only the rows still marked at the end are deleted. incrementar clears the
+     * mark too, so a row created or changed meanwhile is kept.
+     */
+    @Override
+    public long reconstruir(String userId) {
+        Criteria filtro = userId == null ? new Criteria() : Criteria.where("userId").is(userId);
+        String marca = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(Query.query(filtro), new Update().set(PENDENTE, marca), ResumoMensalDocument.class);
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(filtro),
+                Aggregation.project("userId", "tipoPagamento")
+                        .and(ConditionalOperators.ifNull("categoria").then(Categoria.OUTRAS.name())).as("categoria")
+                        // months are bucketed in the same zone ZonedDateTime values are read back in
+                        .and(DateOperators.dateOf("dataHora")
+                                .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId()))
+                                .toString("%Y-%m")).as("mes")
+                        .and(ConvertOperators.valueOf("valor").convertToDecimal()).as("valor"),
+                Aggregation.group("userId", "mes", "categoria", "tipoPagamento")
+                        .sum("valor").as("total")
+                        .count().as("quantidade")
+        ).withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        String collection = mongoTemplate.getCollectionName(DespesaDocument.class);
+        long escritos = 0;
+        List<ResumoMensalDocument> lote = new ArrayList<>(REBUILD_CHUNK);
+        try (Stream<Document> linhas = mongoTemplate.aggregateStream(aggregation, collection, Document.class)) {
+            for (var it = linhas.iterator(); it.hasNext(); ) {
+                lote.add(toDocument(it.next()));
+                if (lote.size() == REBUILD_CHUNK) {
+                    escritos += gravar(lote);
+                }
+            }
+        }
+        escritos += gravar(lote);
+        long removidos = mongoTemplate.remove(Query.query(Criteria.where(PENDENTE).is(marca)), ResumoMensalDocument.class)
+                .getDeletedCount();
+        log.info("[ResumoMensal] Rollup reconstruido (userId={}): {} linhas, {} removidas",
+                userId == null ? "*" : userId, escritos, removidos);
+        return escritos;
+    }
+
+    private int gravar(List<ResumoMensalDocument> lote) {
+        if (lote.isEmpty()) return 0;
+        int n = lote.size();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ResumoMensalDocument.class);
+        for (ResumoMensalDocument doc : lote) {
+            Update update = new Update()
+                    .set("total", new Decimal128(doc.getTotal()))
+                    .set("quantidade", doc.getQuantidade())
+                    .setOnInsert("userId", doc.getUserId())
+                    .setOnInsert("mes", doc.getMes())
+                    .setOnInsert("categoria", doc.getCategoria())
+                    .setOnInsert("tipoPagamento", doc.getTipoPagamento())
+                    .unset(PENDENTE);
+            bulk.upsert(Query.query(Criteria.where("id").is(doc.getId())), update);
+        }
+        bulk.execute();
+        lote.clear();
+        return n;
+    }
+
+    private static ResumoMensalDocument toDocument(Document linha) {
+        Document grupo = linha.get("_id", Document.class);
+        String userId = grupo.getString("userId");
+        String mes = grupo.getString("mes");
+        Categoria categoria = Categoria.valueOf(grupo.getString("categoria"));
+        String tipo = grupo.getString("tipoPagamento");
+        TipoPagamento tipoPagamento = tipo == null ? null : TipoPagamento.valueOf(tipo);
+        Object total = linha.get("total");
+        BigDecimal valor = total instanceof Decimal128 d ? d.bigDecimalValue() : BigDecimal.ZERO;
+        long quantidade = ((Number) linha.get("quantidade")).longValue();
+        return new ResumoMensalDocument(chave(userId, mes, categoria, tipoPagamento), userId, mes, categoria, tipoPagamento, valor, quantidade);
+    }
+
+    private static String chave(String userId, String mes, Categoria categoria, TipoPagamento tipoPagamento) {
+        return userId + "|" + mes + "|" + categoria + "|" + tipoPagamento;
+    }
+}
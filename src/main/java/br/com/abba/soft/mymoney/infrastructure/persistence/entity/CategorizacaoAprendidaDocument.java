@@ -0,0 +1,42 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How often a user picked each categoria and tipoPagamento for expenses whose description has a given word.
+ * The id is userId|token so that learning from an expense is one upsert with $inc per word.
+ */
+@Document(collection = "categorizacao_aprendida")
+@CompoundIndex(name = "userId_total", def = "{'userId': 1, 'total': -1}")
+public class CategorizacaoAprendidaDocument {
+    @Id
+    private String id;
+    private String userId;
+    // Accent-folded, lower-case word of the description
+    private String token;
+    // Categoria / TipoPagamento name -> count
+    private Map<String, Long> categorias = new HashMap<>();
+    private Map<String, Long> pagamentos = new HashMap<>();
+    // Expenses seen with this word
+    private long total;
+
+    public CategorizacaoAprendidaDocument() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+    public Map<String, Long> getCategorias() { return categorias; }
+    public void setCategorias(Map<String, Long> categorias) { this.categorias = categorias; }
+    public Map<String, Long> getPagamentos() { return pagamentos; }
+    public void setPagamentos(Map<String, Long> pagamentos) { this.pagamentos = pagamentos; }
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+}
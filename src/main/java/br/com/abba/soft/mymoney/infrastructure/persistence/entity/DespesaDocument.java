@@ -2,6 +2,8 @@ package br.com.abba.soft.mymoney.infrastructure.persistence.entity;
 
 import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -9,6 +11,8 @@ import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 
 @Document(collection = "despesas")
+// Serves user-scoped listing (offset and keyset) and period queries without scanning other tenants
+@CompoundIndex(name = "userId_dataHora_id", def = "{'userId': 1, 'dataHora': -1, '_id': -1}")
 public class DespesaDocument {
     @Id
     private String id;
@@ -18,6 +22,8 @@ public class DespesaDocument {
     private TipoPagamento tipoPagamento;
     private br.com.abba.soft.mymoney.domain.model.Categoria categoria;
     private String userId;
+    @Indexed(unique = true, sparse = true)
+    private String origem;
 
     public DespesaDocument() {}
 
@@ -45,4 +51,6 @@ public class DespesaDocument {
     public void setCategoria(br.com.abba.soft.mymoney.domain.model.Categoria categoria) { this.categoria = categoria; }
     public String getUserId() { return userId; }
     public void setUserId(String userId) { this.userId = userId; }
+    public String getOrigem() { return origem; }
+    public void setOrigem(String origem) { this.origem = origem; }
 }
@@ -0,0 +1,50 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.entity;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Persistent tier of the OpenAI extraction cache. The id is a SHA-256 of locale + normalized message text.
+ */
+@Document(collection = "openai_extracao_cache")
+public class ExtracaoCacheDocument {
+    @Id
+    private String id;
+    private String descricao;
+    private BigDecimal valor;
+    private TipoPagamento tipoPagamento;
+    private Categoria categoria;
+    // TTL index: Mongo removes the document once expiresAt has passed
+    @Indexed(expireAfterSeconds = 0)
+    private Date expiresAt;
+
+    public ExtracaoCacheDocument() {}
+
+    public ExtracaoCacheDocument(String id, String descricao, BigDecimal valor, TipoPagamento tipoPagamento, Categoria categoria, Date expiresAt) {
+        this.id = id;
+        this.descricao = descricao;
+        this.valor = valor;
+        this.tipoPagamento = tipoPagamento;
+        this.categoria = categoria;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getDescricao() { return descricao; }
+    public void setDescricao(String descricao) { this.descricao = descricao; }
+    public BigDecimal getValor() { return valor; }
+    public void setValor(BigDecimal valor) { this.valor = valor; }
+    public TipoPagamento getTipoPagamento() { return tipoPagamento; }
+    public void setTipoPagamento(TipoPagamento tipoPagamento) { this.tipoPagamento = tipoPagamento; }
+    public Categoria getCategoria() { return categoria; }
+    public void setCategoria(Categoria categoria) { this.categoria = categoria; }
+    public Date getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Date expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,58 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.entity;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+
+/**
+ * Materialized per-user monthly totals. The id is userId|mes|categoria|tipoPagamento so that
+ * every expense change maps to a single upsert with $inc.
+ */
+@Document(collection = "despesas_resumo_mensal")
+@CompoundIndex(name = "userId_mes", def = "{'userId': 1, 'mes': 1}")
+public class ResumoMensalDocument {
+    @Id
+    private String id;
+    private String userId;
+    // yyyy-MM, sortable as a string
+    private String mes;
+    private Categoria categoria;
+    private TipoPagamento tipoPagamento;
+    // Decimal128 (not the default string) so $inc works server-side
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal total;
+    private long quantidade;
+
+    public ResumoMensalDocument() {}
+
+    public ResumoMensalDocument(String id, String userId, String mes, Categoria categoria, TipoPagamento tipoPagamento, BigDecimal total, long quantidade) {
+        this.id = id;
+        this.userId = userId;
+        this.mes = mes;
+        this.categoria = categoria;
+        this.tipoPagamento = tipoPagamento;
+        this.total = total;
+        this.quantidade = quantidade;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getMes() { return mes; }
+    public void setMes(String mes) { this.mes = mes; }
+    public Categoria getCategoria() { return categoria; }
+    public void setCategoria(Categoria categoria) { this.categoria = categoria; }
+    public TipoPagamento getTipoPagamento() { return tipoPagamento; }
+    public void setTipoPagamento(TipoPagamento tipoPagamento) { this.tipoPagamento = tipoPagamento; }
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+    public long getQuantidade() { return quantidade; }
+    public void setQuantidade(long quantidade) { this.quantidade = quantidade; }
+}
@@ -0,0 +1,35 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Persistent tier of the audio transcription cache. The id is "media:&lt;mediaId&gt;" or "sha256:&lt;content hash&gt;".
+ */
+@Document(collection = "openai_transcricao_cache")
+public class TranscricaoCacheDocument {
+    @Id
+    private String id;
+    private String texto;
+    // TTL index: Mongo removes the document once expiresAt has passed
+    @Indexed(expireAfterSeconds = 0)
+    private Date expiresAt;
+
+    public TranscricaoCacheDocument() {}
+
+    public TranscricaoCacheDocument(String id, String texto, Date expiresAt) {
+        this.id = id;
+        this.texto = texto;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getTexto() { return texto; }
+    public void setTexto(String texto) { this.texto = texto; }
+    public Date getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Date expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -1,34 +1,61 @@
 package br.com.abba.soft.mymoney.infrastructure.persistence.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "whatsapp_incoming_messages")
+@CompoundIndexes({
+        // claim of the oldest PENDING messages that are due
+        @CompoundIndex(name = "status_receivedAt", def = "{'status': 1, 'receivedAt': 1}"),
+        @CompoundIndex(name = "status_nextAttemptAt", def = "{'status': 1, 'nextAttemptAt': 1}"),
+        // reclaim of IN_PROGRESS messages whose lease expired
+        @CompoundIndex(name = "status_leaseExpiresAt", def = "{'status': 1, 'leaseExpiresAt': 1}")
+})
 public class WhatsAppIncomingMessageDocument {
     @Id
     private String id;
 
+    // WhatsApp message id (wamid); unique so redelivered webhooks are not queued twice
+    @Indexed(unique = true, sparse = true)
+    private String waMessageId;
+
     // WhatsApp sender phone, digits only (e.g., 5511999999999)
     @Indexed
     private String from;
 
     private String body;
 
+    // WhatsApp message type ("text" or "audio"); audio keeps the media reference until transcribed
+    private String type;
+
+    private String mediaId;
+
+    private String mimeType;
+
     private LocalDateTime receivedAt;
 
     // Message processing status
-    @Indexed
     private WhatsAppMessageStatus status;
 
+    // Processor instance holding the claim while IN_PROGRESS, and when that claim lapses
+    private String leaseOwner;
+
+    private LocalDateTime leaseExpiresAt;
+
     private String errorMessage;
 
     private int attempts;
 
     private LocalDateTime lastAttemptAt;
 
+    // Earliest time the message may be claimed again (set on enqueue and after a retryable failure)
+    private LocalDateTime nextAttemptAt;
+
     public WhatsAppIncomingMessageDocument() {}
 
     public WhatsAppIncomingMessageDocument(String id, String from, String body, LocalDateTime receivedAt, WhatsAppMessageStatus status) {
@@ -41,10 +68,18 @@ public class WhatsAppIncomingMessageDocument {
 
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
+    public String getWaMessageId() { return waMessageId; }
+    public void setWaMessageId(String waMessageId) { this.waMessageId = waMessageId; }
     public String getFrom() { return from; }
     public void setFrom(String from) { this.from = from; }
     public String getBody() { return body; }
     public void setBody(String body) { this.body = body; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getMediaId() { return mediaId; }
+    public void setMediaId(String mediaId) { this.mediaId = mediaId; }
+    public String getMimeType() { return mimeType; }
+    public void setMimeType(String mimeType) { this.mimeType = mimeType; }
     public LocalDateTime getReceivedAt() { return receivedAt; }
     public void setReceivedAt(LocalDateTime receivedAt) { this.receivedAt = receivedAt; }
     public WhatsAppMessageStatus getStatus() { return status; }
@@ -55,4 +90,10 @@ public class WhatsAppIncomingMessageDocument {
     public void setAttempts(int attempts) { this.attempts = attempts; }
     public LocalDateTime getLastAttemptAt() { return lastAttemptAt; }
     public void setLastAttemptAt(LocalDateTime lastAttemptAt) { this.lastAttemptAt = lastAttemptAt; }
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    public String getLeaseOwner() { return leaseOwner; }
+    public void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
+    public LocalDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
 }
@@ -1,7 +1,15 @@
 package br.com.abba.soft.mymoney.infrastructure.persistence.entity;
 
 public enum WhatsAppMessageStatus {
+    // Audio received; media still has to be downloaded and transcribed into body
+    PENDING_MEDIA,
+    // Claimed by the media stage until leaseExpiresAt
+    TRANSCRIBING,
     PENDING,
+    // Claimed by a processor instance until leaseExpiresAt
+    IN_PROGRESS,
     PROCESSED,
-    ERROR
+    ERROR,
+    // Transient failures exhausted the retry budget; no further attempts
+    DEAD
 }
@@ -0,0 +1,77 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reply waiting to be sent to a WhatsApp user. Written by the processors and drained by WhatsAppReplySender,
+ * so a slow Graph API never holds up message processing and pending replies survive restarts.
+ */
+@Document(collection = "whatsapp_outbox")
+@CompoundIndexes({
+        @CompoundIndex(name = "status_nextAttemptAt", def = "{'status': 1, 'nextAttemptAt': 1}"),
+        @CompoundIndex(name = "status_leaseExpiresAt", def = "{'status': 1, 'leaseExpiresAt': 1}")
+})
+public class WhatsAppOutboxDocument {
+    @Id
+    private String id;
+
+    // destination phone, digits only
+    private String to;
+
+    private String body;
+
+    private WhatsAppOutboxStatus status;
+
+    private int attempts;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime nextAttemptAt;
+
+    private String leaseOwner;
+
+    private LocalDateTime leaseExpiresAt;
+
+    private String errorMessage;
+
+    // Sent replies are only kept for a week
+    @Indexed(expireAfterSeconds = 604_800)
+    private LocalDateTime sentAt;
+
+    // Replies given up on are kept for a week as well
+    @Indexed(expireAfterSeconds = 604_800)
+    private LocalDateTime deadAt;
+
+    public WhatsAppOutboxDocument() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+    public WhatsAppOutboxStatus getStatus() { return status; }
+    public void setStatus(WhatsAppOutboxStatus status) { this.status = status; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    public String getLeaseOwner() { return leaseOwner; }
+    public void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
+    public LocalDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+    public LocalDateTime getDeadAt() { return deadAt; }
+    public void setDeadAt(LocalDateTime deadAt) { this.deadAt = deadAt; }
+}
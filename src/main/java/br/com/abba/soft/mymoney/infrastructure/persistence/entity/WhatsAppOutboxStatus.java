@@ -0,0 +1,10 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.entity;
+
+public enum WhatsAppOutboxStatus {
+    PENDING,
+    // Claimed by a sender instance until leaseExpiresAt
+    SENDING,
+    SENT,
+    // Rejected by the Graph API or retry budget exhausted; not sent again
+    DEAD
+}
@@ -6,7 +6,7 @@ import br.com.abba.soft.mymoney.infrastructure.persistence.entity.DespesaDocumen
 public class DespesaMapper {
     public static DespesaDocument toDocument(Despesa d) {
         if (d == null) return null;
-        return new DespesaDocument(
+        DespesaDocument doc = new DespesaDocument(
                 d.getId(),
                 d.getDescricao(),
                 d.getValor(),
@@ -15,6 +15,8 @@ public class DespesaMapper {
                 d.getCategoria(),
                 d.getUserId()
         );
+        doc.setOrigem(d.getOrigem());
+        return doc;
     }
 
     public static Despesa toDomain(DespesaDocument doc) {
@@ -28,6 +30,7 @@ public class DespesaMapper {
         );
         d.setCategoria(doc.getCategoria());
         d.setUserId(doc.getUserId());
+        d.setOrigem(doc.getOrigem());
         return d;
     }
 }
@@ -1,12 +1,20 @@
 package br.com.abba.soft.mymoney.infrastructure.persistence.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import br.com.abba.soft.mymoney.infrastructure.persistence.entity.DespesaDocument;
 
 public interface DespesaRepository extends MongoRepository<DespesaDocument, String> {
     List<DespesaDocument> findByUserIdAndDataHoraBetween(String userId, LocalDateTime inicio, LocalDateTime fim);
+
+    List<DespesaDocument> findByUserId(String userId, Pageable pageable);
+
+    Optional<DespesaDocument> findByOrigem(String origem);
+
+    List<DespesaDocument> findByUserIdAndDataHoraBetween(String userId, LocalDateTime inicio, LocalDateTime fim, Pageable pageable);
 }
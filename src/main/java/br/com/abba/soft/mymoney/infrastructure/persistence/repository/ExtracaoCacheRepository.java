@@ -0,0 +1,12 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.repository;
+
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.ExtracaoCacheDocument;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Date;
+import java.util.Optional;
+
+public interface ExtracaoCacheRepository extends MongoRepository<ExtracaoCacheDocument, String> {
+    // The TTL monitor only runs about once a minute, so expiry is also checked on read
+    Optional<ExtracaoCacheDocument> findByIdAndExpiresAtAfter(String id, Date now);
+}
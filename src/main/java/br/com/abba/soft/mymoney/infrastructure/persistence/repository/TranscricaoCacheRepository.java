@@ -0,0 +1,12 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.repository;
+
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.TranscricaoCacheDocument;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Date;
+import java.util.Optional;
+
+public interface TranscricaoCacheRepository extends MongoRepository<TranscricaoCacheDocument, String> {
+    // The TTL monitor only runs about once a minute, so expiry is also checked on read
+    Optional<TranscricaoCacheDocument> findByIdAndExpiresAtAfter(String id, Date now);
+}
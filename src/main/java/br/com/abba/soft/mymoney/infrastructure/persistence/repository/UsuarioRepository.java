@@ -2,6 +2,8 @@ package br.com.abba.soft.mymoney.infrastructure.persistence.repository;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import br.com.abba.soft.mymoney.infrastructure.persistence.entity.UsuarioDocument;
@@ -10,4 +12,5 @@ public interface UsuarioRepository extends MongoRepository<UsuarioDocument, Stri
     Optional<UsuarioDocument> findByEmail(String email);
     Optional<UsuarioDocument> findByTelefone(String telefone);
     Optional<UsuarioDocument> findByEmailOrTelefone(String email, String telefone);
+    List<UsuarioDocument> findByTelefoneIn(Collection<String> telefones);
 }
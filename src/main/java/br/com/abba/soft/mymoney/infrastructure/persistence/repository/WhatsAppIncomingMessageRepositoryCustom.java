@@ -0,0 +1,32 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.repository;
+
+import java.time.Duration;
+import java.util.List;
+
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppIncomingMessageDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppMessageStatus;
+
+public interface WhatsAppIncomingMessageRepositoryCustom {
+
+    /**
+     * Queues the message unless one with the same waMessageId was already stored (upsert with $setOnInsert).
+     * Returns true when the message was inserted, false for a duplicate delivery.
+     */
+    boolean enqueueIfAbsent(WhatsAppIncomingMessageDocument message);
+
+    /**
+     * Atomically moves up to {@code max} of the oldest due messages in {@code waiting} (or messages in
+     * {@code claimed} whose lease expired) to {@code claimed} owned by {@code owner}, incrementing their
+     * attempts. Each message is claimed with findAndModify, so concurrent processors never receive the
+     * same message.
+     */
+    List<WhatsAppIncomingMessageDocument> claimBatch(WhatsAppMessageStatus waiting, WhatsAppMessageStatus claimed,
+                                                     String owner, int max, Duration lease);
+
+    /**
+     * Writes the outcome (status, body, attempts, retry time) of messages claimed as {@code claimed} in one
+     * bulk operation and releases the lease. Messages whose lease was meanwhile taken over by another
+     * owner are left untouched.
+     */
+    void complete(WhatsAppMessageStatus claimed, String owner, List<WhatsAppIncomingMessageDocument> messages);
+}
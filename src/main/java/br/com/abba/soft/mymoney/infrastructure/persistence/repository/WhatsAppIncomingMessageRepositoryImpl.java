@@ -0,0 +1,100 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.repository;
+
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppIncomingMessageDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppMessageStatus;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Spring Data picks this up as the implementation of WhatsAppIncomingMessageRepositoryCustom
+class WhatsAppIncomingMessageRepositoryImpl implements WhatsAppIncomingMessageRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    WhatsAppIncomingMessageRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean enqueueIfAbsent(WhatsAppIncomingMessageDocument message) {
+        if (message.getWaMessageId() == null) {
+            mongoTemplate.insert(message);
+            return true;
+        }
+        Query byWaMessageId = Query.query(Criteria.where("waMessageId").is(message.getWaMessageId()));
+        Update insertOnly = new Update()
+                .setOnInsert("from", message.getFrom())
+                .setOnInsert("body", message.getBody())
+                .setOnInsert("type", message.getType())
+                .setOnInsert("mediaId", message.getMediaId())
+                .setOnInsert("mimeType", message.getMimeType())
+                .setOnInsert("receivedAt", message.getReceivedAt())
+                .setOnInsert("nextAttemptAt", message.getNextAttemptAt())
+                .setOnInsert("status", message.getStatus())
+                .setOnInsert("attempts", 0);
+        try {
+            UpdateResult result = mongoTemplate.upsert(byWaMessageId, insertOnly, WhatsAppIncomingMessageDocument.class);
+            return result.getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            // Two deliveries of the same message raced; the unique index let only one insert through
+            return false;
+        }
+    }
+
+    @Override
+    public List<WhatsAppIncomingMessageDocument> claimBatch(WhatsAppMessageStatus waiting, WhatsAppMessageStatus claimed,
+                                                            String owner, int max, Duration lease) {
+        List<WhatsAppIncomingMessageDocument> claimed = new ArrayList<>(max);
+        FindAndModifyOptions returnNew = FindAndModifyOptions.options().returnNew(true);
+        for (int i = 0; i < max; i++) {
+            LocalDateTime now = LocalDateTime.now();
+            Query query = Query.query(new Criteria().orOperator(
+                            Criteria.where("status").is(waiting).and("nextAttemptAt").lte(now),
+                            // messages queued before nextAttemptAt existed
+                            Criteria.where("status").is(waiting).and("nextAttemptAt").is(null),
+                            Criteria.where("status").is(claimed).and("leaseExpiresAt").lt(now)))
+                    .with(Sort.by(Sort.Direction.ASC, "receivedAt"));
+            Update update = new Update()
+                    .set("status", claimed)
+                    .set("leaseOwner", owner)
+                    .set("leaseExpiresAt", now.plus(lease))
+                    .set("lastAttemptAt", now)
+                    .inc("attempts", 1);
+            WhatsAppIncomingMessageDocument doc = mongoTemplate.findAndModify(query, update, returnNew, WhatsAppIncomingMessageDocument.class);
+            if (doc == null) break;
+            claimed.add(doc);
+        }
+        return claimed;
+    }
+
+    @Override
+    public void complete(WhatsAppMessageStatus claimed, String owner, List<WhatsAppIncomingMessageDocument> messages) {
+        if (messages.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WhatsAppIncomingMessageDocument.class);
+        for (WhatsAppIncomingMessageDocument msg : messages) {
+            Query owned = Query.query(Criteria.where("id").is(msg.getId())
+                    .and("status").is(claimed)
+                    .and("leaseOwner").is(owner));
+            bulk.updateOne(owned, new Update()
+                    .set("status", msg.getStatus())
+                    .set("body", msg.getBody())
+                    .set("attempts", msg.getAttempts())
+                    .set("errorMessage", msg.getErrorMessage())
+                    .set("nextAttemptAt", msg.getNextAttemptAt())
+                    .unset("leaseOwner")
+                    .unset("leaseExpiresAt"));
+        }
+        bulk.execute();
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.repository;
+
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppOutboxDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppOutboxStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface WhatsAppOutboxRepository extends MongoRepository<WhatsAppOutboxDocument, String>,
+        WhatsAppOutboxRepositoryCustom {
+    long countByStatus(WhatsAppOutboxStatus status);
+}
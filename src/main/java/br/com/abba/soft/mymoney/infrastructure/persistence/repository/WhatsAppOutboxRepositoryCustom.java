@@ -0,0 +1,18 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.repository;
+
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppOutboxDocument;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface WhatsAppOutboxRepositoryCustom {
+
+    /**
+     * Atomically claims up to max due PENDING replies (or SENDING ones whose lease expired) for owner,
+     * oldest first, incrementing their attempts.
+     */
+    List<WhatsAppOutboxDocument> claimBatch(String owner, int max, Duration lease);
+
+    /** Writes back the outcome (and attempts) of claimed replies, only where owner still holds the lease. */
+    void complete(String owner, List<WhatsAppOutboxDocument> replies);
+}
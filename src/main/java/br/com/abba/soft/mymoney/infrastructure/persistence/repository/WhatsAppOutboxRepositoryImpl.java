@@ -0,0 +1,69 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.repository;
+
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppOutboxDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppOutboxStatus;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Spring Data picks this up as the implementation of WhatsAppOutboxRepositoryCustom
+class WhatsAppOutboxRepositoryImpl implements WhatsAppOutboxRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    WhatsAppOutboxRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<WhatsAppOutboxDocument> claimBatch(String owner, int max, Duration lease) {
+        List<WhatsAppOutboxDocument> claimed = new ArrayList<>(max);
+        FindAndModifyOptions returnNew = FindAndModifyOptions.options().returnNew(true);
+        for (int i = 0; i < max; i++) {
+            LocalDateTime now = LocalDateTime.now();
+            Query query = Query.query(new Criteria().orOperator(
+                            Criteria.where("status").is(WhatsAppOutboxStatus.PENDING).and("nextAttemptAt").lte(now),
+                            Criteria.where("status").is(WhatsAppOutboxStatus.SENDING).and("leaseExpiresAt").lt(now)))
+                    .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+            Update update = new Update()
+                    .set("status", WhatsAppOutboxStatus.SENDING)
+                    .set("leaseOwner", owner)
+                    .set("leaseExpiresAt", now.plus(lease))
+                    .inc("attempts", 1);
+            WhatsAppOutboxDocument doc = mongoTemplate.findAndModify(query, update, returnNew, WhatsAppOutboxDocument.class);
+            if (doc == null) break;
+            claimed.add(doc);
+        }
+        return claimed;
+    }
+
+    @Override
+    public void complete(String owner, List<WhatsAppOutboxDocument> replies) {
+        if (replies.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WhatsAppOutboxDocument.class);
+        for (WhatsAppOutboxDocument reply : replies) {
+            Query owned = Query.query(Criteria.where("id").is(reply.getId())
+                    .and("status").is(WhatsAppOutboxStatus.SENDING)
+                    .and("leaseOwner").is(owner));
+            bulk.updateOne(owned, new Update()
+                    .set("status", reply.getStatus())
+                    .set("errorMessage", reply.getErrorMessage())
+                    .set("nextAttemptAt", reply.getNextAttemptAt())
+                    .set("sentAt", reply.getSentAt())
+                    .set("deadAt", reply.getDeadAt())
+                    .set("attempts", reply.getAttempts())
+                    .unset("leaseOwner")
+                    .unset("leaseExpiresAt"));
+        }
+        bulk.execute();
+    }
+}
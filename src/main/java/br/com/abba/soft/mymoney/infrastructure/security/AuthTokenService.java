@@ -0,0 +1,96 @@
+package br.com.abba.soft.mymoney.infrastructure.security;
+
+import br.com.abba.soft.mymoney.infrastructure.config.AuthTokenProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Stateless access tokens: base64url("userId:expiresAtEpoch:passwordFingerprint:username") + "." + HMAC-SHA256.
+ * Verification needs no database access except the (cached) current password fingerprint.
+ */
+@Component
+public class AuthTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthTokenService.class);
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+
+    public record Token(String value, Instant expiresAt) {}
+
+    private final AuthTokenProperties props;
+    private final CredentialCache credentialCache;
+    private final SecretKeySpec key;
+
+    public AuthTokenService(AuthTokenProperties props, CredentialCache credentialCache) {
+        this.props = props;
+        this.credentialCache = credentialCache;
+        byte[] secret;
+        if (props.getSecret() == null || props.getSecret().isBlank()) {
+            log.warn("[AuthTokenService] security.token.secret nao configurado; usando chave aleatoria (tokens invalidos apos reinicio e entre instancias)");
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = props.getSecret().getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+    }
+
+    /** Issues a token for a principal that has just been authenticated. */
+    public Token issue(CustomUserDetails user) {
+        String fingerprint = user.getPasswordHash() != null
+                ? CredentialCache.fingerprintOf(user.getPasswordHash())
+                : credentialCache.currentFingerprint(user.getId());
+        if (fingerprint == null) {
+            throw new IllegalStateException("Usuario nao encontrado");
+        }
+        Instant expiresAt = Instant.now().plusSeconds(props.getTtlSeconds());
+        String claims = user.getId() + ":" + expiresAt.getEpochSecond() + ":" + fingerprint + ":" + user.getUsername();
+        String payload = B64.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        return new Token(payload + "." + B64.encodeToString(sign(payload)), expiresAt);
+    }
+
+    /** The principal carried by a valid, unexpired token whose password fingerprint is still current. */
+    public Optional<CustomUserDetails> verify(String token) {
+        if (token == null) return Optional.empty();
+        int dot = token.indexOf('.');
+        if (dot <= 0) return Optional.empty();
+        String payload = token.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(sign(payload), B64_DECODER.decode(token.substring(dot + 1)))) {
+                return Optional.empty();
+            }
+            String[] claims = new String(B64_DECODER.decode(payload), StandardCharsets.UTF_8).split(":", 4);
+            if (claims.length != 4 || Instant.now().getEpochSecond() >= Long.parseLong(claims[1])) {
+                return Optional.empty();
+            }
+            if (!claims[2].equals(credentialCache.currentFingerprint(claims[0]))) {
+                return Optional.empty();
+            }
+            return Optional.of(new CustomUserDetails(claims[0], claims[3], null));
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or a non-numeric expiry
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.abba.soft.mymoney.infrastructure.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import java.util.Optional;
+
+/**
+ * Username/password authentication (HTTP Basic and /api/auth/login) that answers from {@link CredentialCache}
+ * when the same credentials were verified recently, and falls back to the user lookup plus BCrypt otherwise.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final DaoAuthenticationProvider delegate;
+    private final CredentialCache credentialCache;
+
+    public CachingAuthenticationProvider(DaoAuthenticationProvider delegate, CredentialCache credentialCache) {
+        this.delegate = delegate;
+        this.credentialCache = credentialCache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        String password = authentication.getCredentials() == null ? null : authentication.getCredentials().toString();
+        Optional<CustomUserDetails> cached = credentialCache.verified(username, password);
+        if (cached.isPresent()) {
+            return UsernamePasswordAuthenticationToken.authenticated(cached.get(), null, cached.get().getAuthorities());
+        }
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.getPrincipal() instanceof CustomUserDetails user) {
+            credentialCache.remember(username, password, user);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
@@ -0,0 +1,114 @@
+package br.com.abba.soft.mymoney.infrastructure.security;
+
+import br.com.abba.soft.mymoney.infrastructure.cache.BoundedTtlCache;
+import br.com.abba.soft.mymoney.infrastructure.config.AuthTokenProperties;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.UsuarioDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.repository.UsuarioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Short-lived memory of credentials that were already verified, so steady-state requests skip BCrypt and
+ * the user lookup. Each entry carries the fingerprint of the password hash it was verified against; the
+ * current fingerprint per user is itself cached and reloaded after the TTL or {@link #invalidate(String)},
+ * which is how a password change retires cached logins and issued tokens.
+ */
+@Component
+public class CredentialCache {
+
+    private record VerifiedLogin(byte[] passwordDigest, String userId, String fingerprint) {}
+
+    // Absent user: distinguishes "no such user" from "not cached"
+    private static final String SEM_USUARIO = "";
+
+    private final UsuarioRepository usuarioRepository;
+    private final BoundedTtlCache<String, VerifiedLogin> logins;
+    private final BoundedTtlCache<String, String> fingerprints;
+    private final SecretKeySpec digestKey;
+    private final Counter hits;
+    private final Counter misses;
+
+    public CredentialCache(UsuarioRepository usuarioRepository, AuthTokenProperties props, MeterRegistry meterRegistry) {
+        this.usuarioRepository = usuarioRepository;
+        int maxEntries = Math.max(1, props.getCredentialCacheMaxEntries());
+        Duration ttl = Duration.ofSeconds(Math.max(1, props.getCredentialCacheTtlSeconds()));
+        this.logins = new BoundedTtlCache<>(maxEntries, ttl);
+        this.fingerprints = new BoundedTtlCache<>(maxEntries, ttl);
+        // Passwords are only kept as a keyed digest, with a key that never leaves this process
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, "HmacSHA256");
+        this.hits = Counter.builder("security.credentials.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("security.credentials.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    /** The principal for a Basic login verified recently with the same password, if still valid. */
+    public Optional<CustomUserDetails> verified(String username, String rawPassword) {
+        VerifiedLogin login = username == null || rawPassword == null ? null : logins.get(username);
+        if (login == null
+                || !MessageDigest.isEqual(login.passwordDigest(), digest(rawPassword))
+                || !login.fingerprint().equals(currentFingerprint(login.userId()))) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(new CustomUserDetails(login.userId(), username, null));
+    }
+
+    public void remember(String username, String rawPassword, CustomUserDetails user) {
+        if (username == null || rawPassword == null || user.getPasswordHash() == null) return;
+        String fingerprint = fingerprintOf(user.getPasswordHash());
+        fingerprints.put(user.getId(), fingerprint);
+        logins.put(username, new VerifiedLogin(digest(rawPassword), user.getId(), fingerprint));
+    }
+
+    /** Fingerprint of the user's current password hash, or null when the user no longer exists. */
+    public String currentFingerprint(String userId) {
+        String fingerprint = fingerprints.get(userId);
+        if (fingerprint == null) {
+            fingerprint = usuarioRepository.findById(userId)
+                    .map(UsuarioDocument::getSenhaHash)
+                    .map(CredentialCache::fingerprintOf)
+                    .orElse(SEM_USUARIO);
+            fingerprints.put(userId, fingerprint);
+        }
+        return fingerprint.isEmpty() ? null : fingerprint;
+    }
+
+    /** Call after a user's password changes (or the user is removed) so cached logins and tokens stop working. */
+    public void invalidate(String userId) {
+        fingerprints.invalidate(userId);
+    }
+
+    /** Short, non-reversible tag of a password hash, embedded in tokens. */
+    public static String fingerprintOf(String senhaHash) {
+        try {
+            byte[] sha = MessageDigest.getInstance("SHA-256").digest(senhaHash.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(sha, 12));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] digest(String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(digestKey);
+            return mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
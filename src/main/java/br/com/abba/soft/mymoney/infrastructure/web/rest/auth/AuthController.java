@@ -1,17 +1,27 @@
 package br.com.abba.soft.mymoney.infrastructure.web.rest.auth;
 
 import br.com.abba.soft.mymoney.domain.model.Usuario;
+import br.com.abba.soft.mymoney.infrastructure.cache.TelefoneUsuarioCache;
 import br.com.abba.soft.mymoney.infrastructure.persistence.mapper.UsuarioMapper;
 import br.com.abba.soft.mymoney.infrastructure.persistence.repository.UsuarioRepository;
+import br.com.abba.soft.mymoney.infrastructure.security.AuthTokenService;
+import br.com.abba.soft.mymoney.infrastructure.security.CustomUserDetails;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.LoginRequest;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.LoginResponse;
 import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.UsuarioRegisterRequest;
 import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.UsuarioResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,10 +34,35 @@ public class AuthController {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AuthenticationManager authenticationManager;
+    private final AuthTokenService tokenService;
+    private final TelefoneUsuarioCache telefoneUsuarioCache;
 
-    public AuthController(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder) {
+    public AuthController(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder,
+                          AuthenticationManager authenticationManager, AuthTokenService tokenService,
+                          TelefoneUsuarioCache telefoneUsuarioCache) {
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
+        this.authenticationManager = authenticationManager;
+        this.tokenService = tokenService;
+        this.telefoneUsuarioCache = telefoneUsuarioCache;
+    }
+
+    @PostMapping("/login")
+    @Operation(summary = "Obter token de acesso", description = "Valida email/telefone e senha e retorna um token assinado para usar como 'Authorization: Bearer <token>'. "
+            + "Requisições com o token não consultam o banco nem recalculam o BCrypt.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Autenticado", content = @Content(schema = @Schema(implementation = LoginResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Credenciais inválidas", content = @Content)
+    })
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
+        Authentication authentication = authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(request.getUsuario(), request.getSenha()));
+        if (!(authentication.getPrincipal() instanceof CustomUserDetails user)) {
+            throw new BadCredentialsException("Credenciais invalidas");
+        }
+        AuthTokenService.Token token = tokenService.issue(user);
+        return ResponseEntity.ok(new LoginResponse(token.value(), "Bearer", token.expiresAt()));
     }
 
     @PostMapping("/register")
@@ -49,6 +84,8 @@ public class AuthController {
         usuario.validateForRegister();
 
         var saved = usuarioRepository.save(UsuarioMapper.toDocument(usuario));
+        // The phone may be cached as unknown from messages sent before registering
+        telefoneUsuarioCache.invalidate(saved.getTelefone());
         var response = new UsuarioResponse(saved.getId(), saved.getNome(), saved.getEmail(), saved.getTelefone());
         return ResponseEntity.created(URI.create("/api/users/" + saved.getId())).body(response);
     }
@@ -2,10 +2,26 @@ package br.com.abba.soft.mymoney.infrastructure.web.rest.despesas;
 
 import br.com.abba.soft.mymoney.application.DespesaService;
 import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.LinhaImportada;
+import br.com.abba.soft.mymoney.domain.model.PaginaDespesas;
+import br.com.abba.soft.mymoney.domain.model.ResultadoImportacao;
+import br.com.abba.soft.mymoney.domain.model.ResumoDespesas;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.infrastructure.categoria.CategoriaClassifier;
+import br.com.abba.soft.mymoney.infrastructure.config.DespesaExportacaoProperties;
+import br.com.abba.soft.mymoney.infrastructure.config.DespesaImportacaoProperties;
+import br.com.abba.soft.mymoney.infrastructure.config.ResumoMensalProperties;
 import br.com.abba.soft.mymoney.infrastructure.security.SecurityUtils;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.exportacao.DespesaCsvWriter;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.exportacao.DespesaExportWriter;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.exportacao.DespesaNdjsonWriter;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.importacao.DespesaCsvReader;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.importacao.DespesaOfxReader;
 import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.DespesaRequest;
 import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.DespesaResponse;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.ImportacaoResponse;
 import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.RelatorioDespesasResponse;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.ResumoMensalResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,24 +31,58 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/despesas")
 @Tag(name = "Despesas", description = "Operações para gerenciar despesas do usuário autenticado")
 public class DespesaController {
 
+    static final String HEADER_PROXIMO_CURSOR = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String TEXT_CSV = "text/csv";
+    private static final String APPLICATION_OFX = "application/x-ofx";
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final DespesaService service;
+    private final DespesaImportacaoProperties importacao;
+    private final DespesaExportacaoProperties exportacao;
+    private final ResumoMensalProperties resumoMensal;
+    private final CategoriaClassifier categoriaClassifier;
+    private final Locale appLocale;
 
-    public DespesaController(DespesaService service) {
+    public DespesaController(DespesaService service, DespesaImportacaoProperties importacao, DespesaExportacaoProperties exportacao,
+                             ResumoMensalProperties resumoMensal, CategoriaClassifier categoriaClassifier, Locale appLocale) {
         this.service = service;
+        this.importacao = importacao;
+        this.exportacao = exportacao;
+        this.resumoMensal = resumoMensal;
+        this.categoriaClassifier = categoriaClassifier;
+        this.appLocale = appLocale;
     }
 
     @PostMapping
@@ -55,6 +105,84 @@ public class DespesaController {
                 .body(DespesaDtoMapper.toResponse(criada));
     }
 
+    @PostMapping(value = "/importar", consumes = {TEXT_CSV, APPLICATION_OFX, "application/ofx", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Importar despesas (CSV ou OFX)", description = "Lê o arquivo enviado no corpo da requisição linha a linha e grava as despesas válidas em lotes. "
+            + "CSV: cabeçalho com as colunas descricao, valor, data e opcionalmente pagamento e categoria (separadas por ';', ',' ou tab). "
+            + "OFX: cada débito (TRNAMT negativo) vira uma despesa. Linhas inválidas não interrompem a importação e são listadas no resultado.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Importação concluída", content = @Content(schema = @Schema(implementation = ImportacaoResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Formato não suportado ou cabeçalho inválido", content = @Content)
+    })
+    public ResponseEntity<ImportacaoResponse> importar(
+            @Parameter(description = "csv ou ofx; quando omitido, é deduzido do Content-Type") @RequestParam(value = "formato", required = false) String formato,
+            @Parameter(description = "Tipo de pagamento das linhas que não informam um") @RequestParam(value = "tipoPagamento", required = false) TipoPagamento tipoPagamento,
+            @Parameter(description = "Codificação do arquivo") @RequestParam(value = "charset", required = false, defaultValue = "UTF-8") String charset,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body) {
+        Charset encoding;
+        try {
+            encoding = Charset.forName(charset);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            throw new IllegalArgumentException("Charset invalido: " + charset);
+        }
+        Reader reader = new InputStreamReader(body, encoding);
+        ZoneId zona = ZoneId.systemDefault();
+        Iterator<LinhaImportada> linhas = isOfx(formato, contentType)
+                ? new DespesaOfxReader(reader, tipoPagamento, zona)
+                : new DespesaCsvReader(reader, tipoPagamento, zona);
+        ResultadoImportacao resultado = service.importar(classificando(linhas), importacao.getBatchSize(), importacao.getMaxReportedErrors());
+        return ResponseEntity.ok(DespesaDtoMapper.toResponse(resultado));
+    }
+
+    @GetMapping("/exportar")
+    @Operation(summary = "Exportar despesas (NDJSON ou CSV)", description = "Envia todas as despesas do usuário autenticado no período (mais antigas primeiro) "
+            + "direto do cursor do MongoDB para a resposta, sem montar a lista em memória. O CSV usa o mesmo cabeçalho aceito pela importação.")
+    @ApiResponse(responseCode = "200", description = "Arquivo de exportação")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @Parameter(description = "ndjson (padrão) ou csv") @RequestParam(value = "formato", required = false, defaultValue = "ndjson") String formato,
+            @Parameter(description = "Data inicial (ISO YYYY-MM-DD); sem ela, desde a primeira despesa")
+            @RequestParam(value = "inicio", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate inicio,
+            @Parameter(description = "Data final (ISO YYYY-MM-DD); sem ela, até a última despesa")
+            @RequestParam(value = "fim", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate fim
+    ) {
+        boolean csv = switch (formato.strip().toLowerCase(Locale.ROOT)) {
+            case "csv" -> true;
+            case "ndjson", "json" -> false;
+            default -> throw new IllegalArgumentException("Formato nao suportado: " + formato);
+        };
+        if (inicio != null && fim != null && fim.isBefore(inicio)) {
+            throw new IllegalArgumentException("Periodo invalido: fim deve ser depois de inicio");
+        }
+        // Resolved here: the body is written on an async thread
+        String userId = SecurityUtils.currentUserIdOrNull();
+        if (userId == null) {
+            throw new IllegalStateException("Usuario nao autenticado");
+        }
+        LocalDateTime start = inicio == null ? null : inicio.atStartOfDay();
+        LocalDateTime end = fim == null ? null : fim.plusDays(1).atStartOfDay().minusNanos(1);
+        int buffer = Math.max(1024, exportacao.getBufferBytes());
+        StreamingResponseBody body = out -> {
+            try (DespesaExportWriter writer = csv ? new DespesaCsvWriter(out, buffer) : new DespesaNdjsonWriter(out, buffer)) {
+                service.exportar(userId, start, end, writer);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"despesas." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+
+    private static boolean isOfx(String formato, String contentType) {
+        if (formato != null && !formato.isBlank()) {
+            return switch (formato.strip().toLowerCase(Locale.ROOT)) {
+                case "ofx" -> true;
+                case "csv" -> false;
+                default -> throw new IllegalArgumentException("Formato nao suportado: " + formato);
+            };
+        }
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("ofx");
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualizar despesa", description = "Atualiza os dados de uma despesa existente pelo seu identificador")
     @ApiResponses({
@@ -83,46 +211,89 @@ public class DespesaController {
     }
 
     @GetMapping
-    @Operation(summary = "Listar despesas", description = "Lista as despesas do usuário autenticado com paginação")
+    @Operation(summary = "Listar despesas", description = "Lista as despesas do usuário autenticado, mais recentes primeiro. "
+            + "Use page/size para paginação por deslocamento ou o cursor retornado no header " + HEADER_PROXIMO_CURSOR
+            + " para paginação por chave (recomendado para páginas profundas).")
     @ApiResponse(responseCode = "200", description = "Lista de despesas", content = @Content(schema = @Schema(implementation = DespesaResponse.class)))
     public ResponseEntity<List<DespesaResponse>> listar(
             @Parameter(description = "Número da página (0-based)") @RequestParam(value = "page", required = false, defaultValue = "0") int page,
-            @Parameter(description = "Tamanho da página") @RequestParam(value = "size", required = false, defaultValue = "10") int size
+            @Parameter(description = "Tamanho da página") @RequestParam(value = "size", required = false, defaultValue = "10") int size,
+            @Parameter(description = "Cursor da próxima página (header " + HEADER_PROXIMO_CURSOR + "); quando informado, page é ignorado")
+            @RequestParam(value = "cursor", required = false) String cursor
     ) {
         if (page < 0) page = 0;
         if (size <= 0) size = 10;
-        List<DespesaResponse> all = service.listar().stream().map(DespesaDtoMapper::toResponse).toList();
-        int from = Math.min(page * size, all.size());
-        int to = Math.min(from + size, all.size());
-        List<DespesaResponse> pageItems = all.subList(from, to);
-        return ResponseEntity.ok(pageItems);
+        if (size > MAX_PAGE_SIZE) size = MAX_PAGE_SIZE;
+        PaginaDespesas pagina = (cursor == null || cursor.isBlank())
+                ? service.listar(page, size)
+                : service.listar(cursor, size);
+        List<DespesaResponse> pageItems = pagina.itens().stream().map(DespesaDtoMapper::toResponse).toList();
+        var response = ResponseEntity.ok();
+        if (pagina.proximoCursor() != null) {
+            response.header(HEADER_PROXIMO_CURSOR, pagina.proximoCursor());
+        }
+        return response.body(pageItems);
     }
 
     @GetMapping("/relatorio")
-    @Operation(summary = "Relatório de despesas por período", description = "Retorna resumo com total e itens dentro do período informado. Informe apenas as datas (dia) de início e fim.")
+    @Operation(summary = "Relatório de despesas por período", description = "Retorna resumo com total, quantidade e totais por categoria e por tipo de pagamento dentro do período informado. "
+            + "Informe apenas as datas (dia) de início e fim. Os itens só são retornados quando incluirItens=true, paginados por page/size.")
     @ApiResponse(responseCode = "200", description = "Relatório gerado", content = @Content(schema = @Schema(implementation = RelatorioDespesasResponse.class)))
     public ResponseEntity<RelatorioDespesasResponse> relatorio(
             @Parameter(description = "Data inicial (ISO YYYY-MM-DD)", required = true)
             @RequestParam("inicio") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate inicio,
             @Parameter(description = "Data final (ISO YYYY-MM-DD)", required = true)
-            @RequestParam("fim") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate fim
+            @RequestParam("fim") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate fim,
+            @Parameter(description = "Incluir a lista de despesas do período") @RequestParam(value = "incluirItens", required = false, defaultValue = "false") boolean incluirItens,
+            @Parameter(description = "Número da página de itens (0-based)") @RequestParam(value = "page", required = false, defaultValue = "0") int page,
+            @Parameter(description = "Tamanho da página de itens") @RequestParam(value = "size", required = false, defaultValue = "10") int size
     ) {
         LocalDateTime start = inicio.atStartOfDay();
         LocalDateTime end = fim.plusDays(1).atStartOfDay().minusNanos(1);
-        var despesas = service.listarPorPeriodo(start, end);
-        List<DespesaResponse> itens = despesas.stream().map(DespesaDtoMapper::toResponse).toList();
-        BigDecimal total = service.totalizarValor(despesas);
-        RelatorioDespesasResponse resp = new RelatorioDespesasResponse(total, itens.size(), itens);
-        // Totais por categoria
-        java.util.Map<String, java.math.BigDecimal> porCat = new java.util.LinkedHashMap<>();
-        for (var d : despesas) {
-            String key = d.getCategoria() == null ? "OUTRAS" : d.getCategoria().name();
-            porCat.merge(key, d.getValor(), java.math.BigDecimal::add);
+        ResumoDespesas resumo = service.resumirPorPeriodo(start, end);
+
+        List<DespesaResponse> itens = null;
+        if (incluirItens) {
+            if (page < 0) page = 0;
+            if (size <= 0) size = 10;
+            if (size > MAX_PAGE_SIZE) size = MAX_PAGE_SIZE;
+            itens = service.listarPorPeriodo(start, end, page, size).stream().map(DespesaDtoMapper::toResponse).toList();
         }
+        RelatorioDespesasResponse resp = new RelatorioDespesasResponse(resumo.total(), (int) resumo.quantidade(), itens);
+        // Totais por categoria e por tipo de pagamento
+        java.util.Map<String, BigDecimal> porCat = new java.util.LinkedHashMap<>();
+        resumo.totalPorCategoria().forEach((categoria, total) -> porCat.put(categoria.name(), total));
         resp.setTotalPorCategoria(porCat);
+        java.util.Map<String, BigDecimal> porTipo = new java.util.LinkedHashMap<>();
+        resumo.totalPorTipoPagamento().forEach((tipo, total) -> porTipo.put(tipo.name(), total));
+        resp.setTotalPorTipoPagamento(porTipo);
         return ResponseEntity.ok(resp);
     }
 
+    @GetMapping("/resumo-mensal")
+    @Operation(summary = "Resumo mensal de despesas", description = "Retorna totais por mês, categoria e tipo de pagamento a partir do resumo mensal materializado")
+    @ApiResponse(responseCode = "200", description = "Resumo gerado", content = @Content(schema = @Schema(implementation = ResumoMensalResponse.class)))
+    public ResponseEntity<List<ResumoMensalResponse>> resumoMensal(
+            @Parameter(description = "Mês inicial (YYYY-MM)", required = true) @RequestParam("de") YearMonth de,
+            @Parameter(description = "Mês final (YYYY-MM)", required = true) @RequestParam("ate") YearMonth ate
+    ) {
+        return ResponseEntity.ok(DespesaDtoMapper.toResponses(service.listarResumoMensal(de, ate)));
+    }
+
+    @PostMapping("/resumo-mensal/reconstruir")
+    @Operation(summary = "Reconstruir resumo mensal", description = "Recalcula o resumo mensal do usuário autenticado a partir das despesas gravadas")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Quantidade de linhas do resumo gravadas"),
+            @ApiResponse(responseCode = "403", description = "Reconstrucao desabilitada (DESPESAS_RESUMO_MENSAL_REBUILD_ENDPOINT)", content = @Content)
+    })
+    public ResponseEntity<Map<String, Long>> reconstruirResumoMensal() {
+        // Maintenance only: a full rescan per call, and totals changed while it runs can be off until the next one
+        if (!resumoMensal.isRebuildEndpointEnabled()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(Map.of("linhas", service.reconstruirResumoMensal()));
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Operation(summary = "Excluir despesa", description = "Exclui a despesa pelo seu identificador")
@@ -135,4 +306,24 @@ public class DespesaController {
             @PathVariable String id) {
         service.excluir(id);
     }
+
+    /** Rows without a categoria (OFX never has one) get the category inferred from the description. */
+    private Iterator<LinhaImportada> classificando(Iterator<LinhaImportada> linhas) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return linhas.hasNext();
+            }
+
+            @Override
+            public LinhaImportada next() {
+                LinhaImportada linha = linhas.next();
+                Despesa despesa = linha.despesa();
+                if (despesa != null && despesa.getCategoria() == null) {
+                    despesa.setCategoria(categoriaClassifier.classificar(despesa.getDescricao(), appLocale));
+                }
+                return linha;
+            }
+        };
+    }
 }
@@ -1,8 +1,18 @@
 package br.com.abba.soft.mymoney.infrastructure.web.rest.despesas;
 
 import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.ResultadoImportacao;
+import br.com.abba.soft.mymoney.domain.model.ResumoMensal;
 import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.DespesaRequest;
 import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.DespesaResponse;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.ImportacaoResponse;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.dto.ResumoMensalResponse;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class DespesaDtoMapper {
     public static Despesa toDomain(DespesaRequest req) {
@@ -25,4 +35,25 @@ public class DespesaDtoMapper {
                 d.getCategoria()
         );
     }
+
+    public static ImportacaoResponse toResponse(ResultadoImportacao resultado) {
+        return new ImportacaoResponse(resultado.linhas(), resultado.importadas(), resultado.rejeitadas(),
+                resultado.erros().stream().map(e -> new ImportacaoResponse.Erro(e.linha(), e.erro())).toList());
+    }
+
+    /** Folds rollup rows (already sorted by month) into one response per month. */
+    public static List<ResumoMensalResponse> toResponses(List<ResumoMensal> linhas) {
+        Map<String, ResumoMensalResponse> porMes = new LinkedHashMap<>();
+        for (ResumoMensal linha : linhas) {
+            var mes = porMes.computeIfAbsent(linha.mes().toString(), m ->
+                    new ResumoMensalResponse(m, BigDecimal.ZERO, 0, new LinkedHashMap<>(), new LinkedHashMap<>()));
+            mes.setTotal(mes.getTotal().add(linha.total()));
+            mes.setQuantidade(mes.getQuantidade() + linha.quantidade());
+            mes.getTotalPorCategoria().merge(linha.categoria().name(), linha.total(), BigDecimal::add);
+            if (linha.tipoPagamento() != null) {
+                mes.getTotalPorTipoPagamento().merge(linha.tipoPagamento().name(), linha.total(), BigDecimal::add);
+            }
+        }
+        return new ArrayList<>(porMes.values());
+    }
 }
@@ -0,0 +1,65 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.exportacao;
+
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * CSV with the same header the import endpoint reads (';' separated, '.' as decimal separator),
+ * so an export can be imported back.
+ */
+public final class DespesaCsvWriter extends DespesaExportWriter {
+
+    private static final String CABECALHO = "id;descricao;valor;data;pagamento;categoria\n";
+
+    private final Writer out;
+
+    public DespesaCsvWriter(OutputStream out, int bufferBytes) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), bufferBytes);
+        this.out.write(CABECALHO);
+    }
+
+    @Override
+    protected void escrever(Despesa d) throws IOException {
+        out.write(d.getId() == null ? "" : d.getId());
+        out.write(';');
+        escreverTexto(d.getDescricao());
+        out.write(';');
+        out.write(d.getValor() == null ? "" : d.getValor().toPlainString());
+        out.write(';');
+        out.write(d.getDataHora() == null ? "" : DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(d.getDataHora()));
+        out.write(';');
+        out.write(d.getTipoPagamento() == null ? "" : d.getTipoPagamento().name());
+        out.write(';');
+        out.write(d.getCategoria() == null ? "" : d.getCategoria().name());
+        out.write('\n');
+    }
+
+    private void escreverTexto(String texto) throws IOException {
+        if (texto == null) return;
+        boolean aspas = false;
+        for (int i = 0; i < texto.length() && !aspas; i++) {
+            char c = texto.charAt(i);
+            aspas = c == ';' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!aspas) {
+            out.write(texto);
+            return;
+        }
+        // Line breaks are flattened: the importer reads one record per line
+        out.write('"');
+        out.write(texto.replace("\"", "\"\"").replace('\r', ' ').replace('\n', ' '));
+        out.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+}
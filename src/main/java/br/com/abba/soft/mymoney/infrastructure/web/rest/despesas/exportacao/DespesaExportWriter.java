@@ -0,0 +1,27 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.exportacao;
+
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes expenses to an export stream one at a time. Output goes through a fixed-size buffer and is only
+ * flushed when the buffer fills or the writer is closed, so memory stays flat whatever the export size.
+ */
+public abstract class DespesaExportWriter implements Consumer<Despesa>, Closeable {
+
+    @Override
+    public final void accept(Despesa despesa) {
+        try {
+            escrever(despesa);
+        } catch (IOException e) {
+            // Usually the client went away; abort the cursor walk
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected abstract void escrever(Despesa despesa) throws IOException;
+}
@@ -0,0 +1,49 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.exportacao;
+
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+
+/** One JSON object per line (application/x-ndjson), written with a streaming generator. */
+public final class DespesaNdjsonWriter extends DespesaExportWriter {
+
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final OutputStream out;
+    private final JsonGenerator generator;
+
+    public DespesaNdjsonWriter(OutputStream out, int bufferBytes) throws IOException {
+        this.out = new BufferedOutputStream(out, bufferBytes);
+        this.generator = JSON.createGenerator(this.out);
+        // Lines are separated explicitly below
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    protected void escrever(Despesa d) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", d.getId());
+        generator.writeStringField("descricao", d.getDescricao());
+        generator.writeFieldName("valor");
+        generator.writeNumber(d.getValor());
+        generator.writeStringField("dataHora", d.getDataHora() == null ? null : DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(d.getDataHora()));
+        generator.writeStringField("tipoPagamento", d.getTipoPagamento() == null ? null : d.getTipoPagamento().name());
+        generator.writeStringField("categoria", d.getCategoria() == null ? null : d.getCategoria().name());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+        out.flush();
+    }
+}
@@ -0,0 +1,63 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.importacao;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.infrastructure.parsing.TextScanner;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+
+/**
+ * Field conversions shared by the CSV and OFX readers. Each method throws {@link IllegalArgumentException}
+ * with a message fit for the per-row error report.
+ */
+final class CamposImportacao {
+
+    private CamposImportacao() {}
+
+    /** Accepts "1234.56", "1.234,56", "1,234.56" and "R$ 12,90"; the last separator is the decimal one. */
+    static BigDecimal valor(String raw) {
+        if (raw == null || raw.isBlank()) throw new IllegalArgumentException("Valor obrigatorio");
+        BigDecimal valor = TextScanner.amount(raw);
+        if (valor == null) throw new IllegalArgumentException("Valor invalido: " + raw);
+        return valor;
+    }
+
+    /** ISO date or date-time (with or without offset), "dd/MM/yyyy" or "dd/MM/yyyy HH:mm[:ss]". */
+    static ZonedDateTime dataHora(String raw, ZoneId zona) {
+        if (raw == null || raw.isBlank()) throw new IllegalArgumentException("Data e hora obrigatorias");
+        ZonedDateTime dataHora = TextScanner.dateTime(raw, zona);
+        if (dataHora == null) throw new IllegalArgumentException("Data invalida: " + raw);
+        return dataHora;
+    }
+
+    /** Enum name or alias, with or without accents/spaces ("cartao credito", "CARTAO_CREDITO", "debito"); null when blank. */
+    static TipoPagamento tipoPagamento(String raw) {
+        if (raw == null || raw.isBlank()) return null;
+        TipoPagamento tipo = TextScanner.payment(raw);
+        if (tipo == null) throw new IllegalArgumentException("Tipo de pagamento invalido: " + raw);
+        return tipo;
+    }
+
+    static Categoria categoria(String raw) {
+        String chave = chaveEnum(raw);
+        if (chave == null) return null;
+        try {
+            return Categoria.valueOf(chave);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Categoria invalida: " + raw);
+        }
+    }
+
+    static String semAcentos(String s) {
+        return Normalizer.normalize(s, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    }
+
+    private static String chaveEnum(String raw) {
+        if (raw == null || raw.isBlank()) return null;
+        return semAcentos(raw.strip()).toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+    }
+}
@@ -0,0 +1,158 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.importacao;
+
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.LinhaImportada;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads expenses from CSV one line at a time. The first line is a header naming the columns
+ * (descricao, valor, data; optionally pagamento and categoria), separated by ';', ',' or tab.
+ * Quoted fields ("a;b", "" for a quote) are supported within a line.
+ */
+public final class DespesaCsvReader implements Iterator<LinhaImportada> {
+
+    private final BufferedReader reader;
+    private final TipoPagamento tipoPadrao;
+    private final ZoneId zona;
+    private final char separador;
+    private final int colDescricao;
+    private final int colValor;
+    private final int colData;
+    private final int colPagamento;
+    private final int colCategoria;
+
+    private long numeroLinha;
+    private LinhaImportada proxima;
+
+    /**
+     * @param tipoPadrao payment type for rows without a pagamento column/value; may be null
+     * @throws IllegalArgumentException when the header lacks a required column
+     */
+    public DespesaCsvReader(Reader reader, TipoPagamento tipoPadrao, ZoneId zona) {
+        this.reader = reader instanceof BufferedReader b ? b : new BufferedReader(reader);
+        this.tipoPadrao = tipoPadrao;
+        this.zona = zona;
+        String cabecalho = proximaLinhaNaoVazia();
+        if (cabecalho == null) throw new IllegalArgumentException("Arquivo CSV vazio");
+        if (cabecalho.startsWith("\uFEFF")) cabecalho = cabecalho.substring(1);
+        this.separador = detectarSeparador(cabecalho);
+        List<String> colunas = dividir(cabecalho);
+        int descricao = -1, valor = -1, data = -1, pagamento = -1, categoria = -1;
+        for (int i = 0; i < colunas.size(); i++) {
+            String nome = CamposImportacao.semAcentos(colunas.get(i).strip()).toLowerCase(Locale.ROOT).replace("_", "");
+            switch (nome) {
+                case "descricao", "historico" -> descricao = i;
+                case "valor" -> valor = i;
+                case "data", "datahora" -> data = i;
+                case "pagamento", "tipopagamento" -> pagamento = i;
+                case "categoria" -> categoria = i;
+                default -> { }
+            }
+        }
+        if (descricao < 0 || valor < 0 || data < 0) {
+            throw new IllegalArgumentException("Cabecalho CSV deve conter as colunas descricao, valor e data");
+        }
+        this.colDescricao = descricao;
+        this.colValor = valor;
+        this.colData = data;
+        this.colPagamento = pagamento;
+        this.colCategoria = categoria;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (proxima != null) return true;
+        String linha = proximaLinhaNaoVazia();
+        if (linha == null) return false;
+        proxima = converter(linha);
+        return true;
+    }
+
+    @Override
+    public LinhaImportada next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        LinhaImportada atual = proxima;
+        proxima = null;
+        return atual;
+    }
+
+    private LinhaImportada converter(String linha) {
+        try {
+            List<String> campos = dividir(linha);
+            Despesa despesa = new Despesa();
+            despesa.setDescricao(campo(campos, colDescricao));
+            despesa.setValor(CamposImportacao.valor(campo(campos, colValor)));
+            despesa.setDataHora(CamposImportacao.dataHora(campo(campos, colData), zona));
+            TipoPagamento tipo = CamposImportacao.tipoPagamento(campo(campos, colPagamento));
+            despesa.setTipoPagamento(tipo != null ? tipo : tipoPadrao);
+            despesa.setCategoria(CamposImportacao.categoria(campo(campos, colCategoria)));
+            return LinhaImportada.valida(numeroLinha, despesa);
+        } catch (IllegalArgumentException e) {
+            return LinhaImportada.invalida(numeroLinha, e.getMessage());
+        }
+    }
+
+    private static String campo(List<String> campos, int indice) {
+        if (indice < 0 || indice >= campos.size()) return null;
+        String valor = campos.get(indice).strip();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private List<String> dividir(String linha) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean aspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (aspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    aspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                aspas = true;
+            } else if (c == separador) {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+
+    private static char detectarSeparador(String cabecalho) {
+        if (cabecalho.indexOf(';') >= 0) return ';';
+        if (cabecalho.indexOf('\t') >= 0) return '\t';
+        return ',';
+    }
+
+    private String proximaLinhaNaoVazia() {
+        try {
+            String linha;
+            do {
+                linha = reader.readLine();
+                numeroLinha++;
+            } while (linha != null && linha.isBlank());
+            return linha;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.importacao;
+
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.LinhaImportada;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads debits from an OFX statement (SGML 1.x or XML 2.x) one tag at a time, without building a tree.
+ * Each STMTTRN with a negative TRNAMT becomes an expense; credits are skipped. Transactions are numbered
+ * in file order. Without an explicit payment type, credit card statements (CCSTMTRS) map to CARTAO_CREDITO
+ * and bank statements to CARTAO_DEBITO.
+ */
+public final class DespesaOfxReader implements Iterator<LinhaImportada> {
+
+    private final BufferedReader reader;
+    private final TipoPagamento tipoInformado;
+    private final ZoneId zona;
+    private final StringBuilder texto = new StringBuilder();
+
+    private TipoPagamento tipoDoExtrato = TipoPagamento.CARTAO_DEBITO;
+    private long numeroTransacao;
+    private LinhaImportada proxima;
+    private boolean fim;
+
+    public DespesaOfxReader(Reader reader, TipoPagamento tipoInformado, ZoneId zona) {
+        this.reader = reader instanceof BufferedReader b ? b : new BufferedReader(reader);
+        this.tipoInformado = tipoInformado;
+        this.zona = zona;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (proxima == null && !fim) {
+            proxima = lerTransacao();
+        }
+        return proxima != null;
+    }
+
+    @Override
+    public LinhaImportada next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        LinhaImportada atual = proxima;
+        proxima = null;
+        return atual;
+    }
+
+    /** Advances to the next STMTTRN and converts it; returns null for credits or at end of input. */
+    private LinhaImportada lerTransacao() {
+        String tag;
+        while ((tag = proximaTag()) != null) {
+            if (tag.equals("CCSTMTRS")) tipoDoExtrato = TipoPagamento.CARTAO_CREDITO;
+            if (tag.equals("STMTTRN")) break;
+        }
+        if (tag == null) {
+            fim = true;
+            return null;
+        }
+        numeroTransacao++;
+        String valor = null, data = null, memo = null, nome = null;
+        while ((tag = proximaTag()) != null && !tag.equals("/STMTTRN")) {
+            switch (tag) {
+                case "TRNAMT" -> valor = textoDaTag();
+                case "DTPOSTED" -> data = textoDaTag();
+                case "MEMO" -> memo = textoDaTag();
+                case "NAME" -> nome = textoDaTag();
+                default -> { }
+            }
+        }
+        try {
+            BigDecimal quantia = CamposImportacao.valor(valor);
+            if (quantia.signum() >= 0) return null;
+            Despesa despesa = new Despesa();
+            despesa.setDescricao(memo != null && !memo.isBlank() ? memo : nome);
+            despesa.setValor(quantia.negate());
+            despesa.setDataHora(dataOfx(data));
+            despesa.setTipoPagamento(tipoInformado != null ? tipoInformado : tipoDoExtrato);
+            return LinhaImportada.valida(numeroTransacao, despesa);
+        } catch (IllegalArgumentException e) {
+            return LinhaImportada.invalida(numeroTransacao, e.getMessage());
+        }
+    }
+
+    /** Reads up to the next '&lt;', returning the upper-cased tag name (closing tags keep the '/'). */
+    private String proximaTag() {
+        try {
+            texto.setLength(0);
+            int c;
+            while ((c = reader.read()) != -1 && c != '<') { }
+            if (c == -1) return null;
+            StringBuilder nome = new StringBuilder();
+            while ((c = reader.read()) != -1 && c != '>') nome.append((char) c);
+            // The tag's text is whatever precedes the next tag; it is read lazily by textoDaTag
+            return nome.toString().strip().toUpperCase(Locale.ROOT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String textoDaTag() {
+        try {
+            reader.mark(1);
+            int c;
+            while ((c = reader.read()) != -1 && c != '<') {
+                texto.append((char) c);
+                reader.mark(1);
+            }
+            if (c == '<') reader.reset();
+            String valor = texto.toString().strip()
+                    .replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+            return valor.isEmpty() ? null : valor;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** OFX dates: yyyyMMdd[HHmmss[.SSS]][[-3:BRT]]. */
+    private ZonedDateTime dataOfx(String raw) {
+        if (raw == null || raw.length() < 8) throw new IllegalArgumentException("Data invalida: " + raw);
+        try {
+            int ano = Integer.parseInt(raw, 0, 4, 10);
+            int mes = Integer.parseInt(raw, 4, 6, 10);
+            int dia = Integer.parseInt(raw, 6, 8, 10);
+            int hora = 0, minuto = 0, segundo = 0;
+            if (raw.length() >= 14 && Character.isDigit(raw.charAt(8))) {
+                hora = Integer.parseInt(raw, 8, 10, 10);
+                minuto = Integer.parseInt(raw, 10, 12, 10);
+                segundo = Integer.parseInt(raw, 12, 14, 10);
+            }
+            LocalDateTime local = LocalDateTime.of(ano, mes, dia, hora, minuto, segundo);
+            int abre = raw.indexOf('[');
+            if (abre < 0) return local.atZone(zona);
+            int fecha = raw.indexOf(':', abre) > 0 ? raw.indexOf(':', abre) : raw.indexOf(']', abre);
+            double horas = Double.parseDouble(raw.substring(abre + 1, fecha));
+            return local.atOffset(ZoneOffset.ofTotalSeconds((int) Math.round(horas * 3600))).toZonedDateTime();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Data invalida: " + raw);
+        }
+    }
+}
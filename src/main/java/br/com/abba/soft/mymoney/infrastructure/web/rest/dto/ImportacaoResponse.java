@@ -0,0 +1,21 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Resultado da importação de despesas")
+public record ImportacaoResponse(
+        @Schema(description = "Linhas (CSV) ou transações de débito (OFX) lidas", example = "1200")
+        long linhas,
+        @Schema(description = "Despesas gravadas", example = "1195")
+        long importadas,
+        @Schema(description = "Linhas rejeitadas", example = "5")
+        long rejeitadas,
+        @Schema(description = "Linhas rejeitadas e o motivo (limitado às primeiras)")
+        List<Erro> erros) {
+
+    public record Erro(
+            @Schema(description = "Número da linha (CSV) ou da transação (OFX)", example = "17") long linha,
+            @Schema(description = "Motivo da rejeição", example = "Valor deve ser positivo") String erro) {}
+}
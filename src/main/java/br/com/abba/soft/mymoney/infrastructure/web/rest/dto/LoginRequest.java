@@ -0,0 +1,19 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(description = "Credenciais para obter um token de acesso")
+public class LoginRequest {
+    @NotBlank
+    @Schema(description = "Email ou telefone cadastrado", example = "joao@email.com")
+    private String usuario;
+    @NotBlank
+    @Schema(description = "Senha do usuário", example = "S3nh@F0rte!")
+    private String senha;
+
+    public String getUsuario() { return usuario; }
+    public void setUsuario(String usuario) { this.usuario = usuario; }
+    public String getSenha() { return senha; }
+    public void setSenha(String senha) { this.senha = senha; }
+}
@@ -0,0 +1,25 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(description = "Token de acesso para o header Authorization")
+public class LoginResponse {
+    @Schema(description = "Token a ser enviado como 'Authorization: Bearer <token>'")
+    private String token;
+    @Schema(description = "Tipo do token", example = "Bearer")
+    private String tipo;
+    @Schema(description = "Momento de expiração do token (UTC)", example = "2025-08-10T13:30:00Z")
+    private Instant expiraEm;
+
+    public LoginResponse(String token, String tipo, Instant expiraEm) {
+        this.token = token;
+        this.tipo = tipo;
+        this.expiraEm = expiraEm;
+    }
+
+    public String getToken() { return token; }
+    public String getTipo() { return tipo; }
+    public Instant getExpiraEm() { return expiraEm; }
+}
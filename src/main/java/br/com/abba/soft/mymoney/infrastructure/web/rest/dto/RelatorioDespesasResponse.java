@@ -12,10 +12,12 @@ public class RelatorioDespesasResponse {
     private BigDecimal total;
     @Schema(description = "Quantidade de despesas no período", example = "5")
     private int quantidade;
-    @Schema(description = "Lista de despesas no período")
+    @Schema(description = "Página de despesas no período (presente apenas quando incluirItens=true)")
     private List<DespesaResponse> despesas;
     @Schema(description = "Totais por categoria (para gráfico de pizza)")
     private Map<String, BigDecimal> totalPorCategoria;
+    @Schema(description = "Totais por tipo de pagamento")
+    private Map<String, BigDecimal> totalPorTipoPagamento;
 
     public RelatorioDespesasResponse() {}
 
@@ -36,4 +38,7 @@ public class RelatorioDespesasResponse {
 
     public Map<String, BigDecimal> getTotalPorCategoria() { return totalPorCategoria; }
     public void setTotalPorCategoria(Map<String, BigDecimal> totalPorCategoria) { this.totalPorCategoria = totalPorCategoria; }
+
+    public Map<String, BigDecimal> getTotalPorTipoPagamento() { return totalPorTipoPagamento; }
+    public void setTotalPorTipoPagamento(Map<String, BigDecimal> totalPorTipoPagamento) { this.totalPorTipoPagamento = totalPorTipoPagamento; }
 }
@@ -0,0 +1,41 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Schema(description = "Totais de um mês, lidos do resumo mensal materializado")
+public class ResumoMensalResponse {
+    @Schema(description = "Mês (YYYY-MM)", example = "2025-08")
+    private String mes;
+    @Schema(description = "Soma total dos valores no mês", example = "1250.00")
+    private BigDecimal total;
+    @Schema(description = "Quantidade de despesas no mês", example = "42")
+    private long quantidade;
+    @Schema(description = "Totais por categoria")
+    private Map<String, BigDecimal> totalPorCategoria;
+    @Schema(description = "Totais por tipo de pagamento")
+    private Map<String, BigDecimal> totalPorTipoPagamento;
+
+    public ResumoMensalResponse() {}
+
+    public ResumoMensalResponse(String mes, BigDecimal total, long quantidade, Map<String, BigDecimal> totalPorCategoria, Map<String, BigDecimal> totalPorTipoPagamento) {
+        this.mes = mes;
+        this.total = total;
+        this.quantidade = quantidade;
+        this.totalPorCategoria = totalPorCategoria;
+        this.totalPorTipoPagamento = totalPorTipoPagamento;
+    }
+
+    public String getMes() { return mes; }
+    public void setMes(String mes) { this.mes = mes; }
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+    public long getQuantidade() { return quantidade; }
+    public void setQuantidade(long quantidade) { this.quantidade = quantidade; }
+    public Map<String, BigDecimal> getTotalPorCategoria() { return totalPorCategoria; }
+    public void setTotalPorCategoria(Map<String, BigDecimal> totalPorCategoria) { this.totalPorCategoria = totalPorCategoria; }
+    public Map<String, BigDecimal> getTotalPorTipoPagamento() { return totalPorTipoPagamento; }
+    public void setTotalPorTipoPagamento(Map<String, BigDecimal> totalPorTipoPagamento) { this.totalPorTipoPagamento = totalPorTipoPagamento; }
+}
@@ -0,0 +1,132 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Downloaded media kept in memory while small and spilled to a temp file once it passes a threshold,
+ * so the heap used per download is bounded whatever the file size. The SHA-256 of the content is computed
+ * while copying. Closing deletes the temp file.
+ */
+public final class SpooledMedia implements AutoCloseable {
+
+    private static final int COPY_BUFFER = 8192;
+
+    /** The content passed maxBytes; the upstream answered fine, the file is just too big for us. */
+    public static final class TooLargeException extends IOException {
+        TooLargeException(long maxBytes) {
+            super("Midia excede o limite de " + maxBytes + " bytes");
+        }
+    }
+
+    private final byte[] memory;
+    private final Path file;
+    private final long size;
+    private final String sha256;
+
+    private SpooledMedia(byte[] memory, Path file, long size, String sha256) {
+        this.memory = memory;
+        this.file = file;
+        this.size = size;
+        this.sha256 = sha256;
+    }
+
+    /** Copies the stream, rejecting content larger than maxBytes. Does not close the stream. */
+    public static SpooledMedia spool(InputStream in, int memoryThreshold, long maxBytes) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER];
+        MessageDigest digest = sha256Digest();
+        ByteArrayOutputStream inMemory = new ByteArrayOutputStream(Math.min(memoryThreshold, 64 * 1024));
+        OutputStream out = inMemory;
+        Path file = null;
+        long total = 0;
+        try {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                total += n;
+                if (total > maxBytes) {
+                    throw new TooLargeException(maxBytes);
+                }
+                if (file == null && total > memoryThreshold) {
+                    file = Files.createTempFile("whatsapp-media-", ".tmp");
+                    out = Files.newOutputStream(file);
+                    inMemory.writeTo(out);
+                    inMemory = null;
+                }
+                out.write(buffer, 0, n);
+                digest.update(buffer, 0, n);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            if (file == null) {
+                return new SpooledMedia(inMemory.toByteArray(), null, total, hash);
+            }
+            out.close();
+            return new SpooledMedia(null, file, total, hash);
+        } catch (IOException | RuntimeException e) {
+            if (file != null) {
+                out.close();
+                Files.deleteIfExists(file);
+            }
+            throw e;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /** Hex SHA-256 of the content. */
+    public String sha256() {
+        return sha256;
+    }
+
+    public boolean isOnDisk() {
+        return file != null;
+    }
+
+    /** Streams the content (e.g. as a multipart file part) under the given filename. */
+    public Resource asResource(String filename) {
+        if (file != null) {
+            return new FileSystemResource(file) {
+                @Override
+                public String getFilename() {
+                    return filename;
+                }
+            };
+        }
+        return new ByteArrayResource(memory) {
+            @Override
+            public String getFilename() {
+                return filename;
+            }
+        };
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+}
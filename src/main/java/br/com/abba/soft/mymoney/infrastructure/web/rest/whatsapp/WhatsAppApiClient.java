@@ -1,12 +1,19 @@
 package br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp;
 
 import br.com.abba.soft.mymoney.infrastructure.config.WhatsAppProperties;
+import br.com.abba.soft.mymoney.infrastructure.http.UpstreamGuard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -16,36 +23,72 @@ public class WhatsAppApiClient {
     private static final Logger log = LoggerFactory.getLogger(WhatsAppApiClient.class);
 
     private final WhatsAppProperties props;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final RestTemplate streamingRestTemplate;
+    private final UpstreamGuard guard;
 
-    public WhatsAppApiClient(WhatsAppProperties props) {
+    public WhatsAppApiClient(WhatsAppProperties props,
+                             @Qualifier("whatsAppRestTemplate") RestTemplate restTemplate,
+                             @Qualifier("whatsAppStreamingRestTemplate") RestTemplate streamingRestTemplate,
+                             @Qualifier("whatsAppUpstreamGuard") UpstreamGuard guard) {
         this.props = props;
+        this.restTemplate = restTemplate;
+        this.streamingRestTemplate = streamingRestTemplate;
+        this.guard = guard;
     }
 
+    /**
+     * Sends a text message. Throws {@link WhatsAppSendException} when it was not accepted; the exception tells
+     * whether retrying may help.
+     */
     public void sendText(String toPhoneDigits, String body) {
+        String url = graphUrl(props.getPhoneNumberId() + "/messages");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(props.getAccessToken());
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("messaging_product", "whatsapp");
+        payload.put("to", toPhoneDigits);
+        payload.put("type", "text");
+        Map<String, Object> text = new HashMap<>();
+        text.put("body", body);
+        payload.put("text", text);
+
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(payload, headers);
         try {
-            String url = "https://graph.facebook.com/v20.0/" + props.getPhoneNumberId() + "/messages";
+            restTemplate.postForEntity(url, entity, String.class);
+        } catch (HttpStatusCodeException ex) {
+            int status = ex.getStatusCode().value();
+            String responseBody = ex.getResponseBodyAsString();
+            boolean retryable = status == 429 || status >= 500 || isRateLimitError(responseBody);
+            throw new WhatsAppSendException("Graph API respondeu " + status + ": " + responseBody, retryable,
+                    retryAfter(ex.getResponseHeaders()), ex);
+        } catch (ResourceAccessException ex) {
+            // timeouts, connection failures, open circuit
+            throw new WhatsAppSendException("Graph API indisponivel: " + ex.getMessage(), true, null, ex);
+        }
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(props.getAccessToken());
+    private String graphUrl(String path) {
+        return props.getGraphBaseUrl().replaceAll("/+$", "") + "/" + path;
+    }
 
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("messaging_product", "whatsapp");
-            payload.put("to", toPhoneDigits);
-            payload.put("type", "text");
-            Map<String, Object> text = new HashMap<>();
-            text.put("body", body);
-            payload.put("text", text);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(payload, headers);
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                log.warn("[WhatsAppApiClient] Non-2xx response sending WhatsApp message: status={}, body={}",
-                        response.getStatusCode(), response.getBody());
-            }
-        } catch (Exception ex) {
-            log.warn("[WhatsAppApiClient] Failed to send WhatsApp message: {}", ex.toString());
+    // Graph API reports throughput and pair rate limits as 400 with these error codes
+    private static boolean isRateLimitError(String body) {
+        if (body == null) return false;
+        return body.contains("\"code\":130429") || body.contains("\"code\":131056")
+                || body.contains("\"code\":80007") || body.contains("\"code\":4,");
+    }
+
+    private static Duration retryAfter(HttpHeaders headers) {
+        String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null) return null;
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
@@ -54,7 +97,7 @@ public class WhatsAppApiClient {
      */
     public String getMediaUrl(String mediaId) {
         try {
-            String url = "https://graph.facebook.com/v20.0/" + mediaId;
+            String url = graphUrl(mediaId);
             HttpHeaders headers = new HttpHeaders();
             headers.setBearerAuth(props.getAccessToken());
             HttpEntity<Void> entity = new HttpEntity<>(headers);
@@ -113,22 +156,37 @@ public class WhatsAppApiClient {
     }
 
     /**
-     * Downloads media bytes from an URL using auth header.
+     * Downloads media from an URL using auth header, streaming it into a {@link SpooledMedia}
+     * (memory up to memoryThreshold bytes, temp file beyond). Returns null on failure or when larger than maxBytes.
      */
-    public byte[] downloadMedia(String mediaUrl) {
+    public SpooledMedia downloadMedia(String mediaUrl, int memoryThreshold, long maxBytes) {
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(props.getAccessToken());
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-            ResponseEntity<byte[]> resp = restTemplate.exchange(mediaUrl, HttpMethod.GET, entity, byte[].class);
-            if (!resp.getStatusCode().is2xxSuccessful() || resp.getBody() == null) {
-                log.warn("[WhatsAppApiClient] Non-2xx downloading media: status={}", resp.getStatusCode());
-                return null;
-            }
-            return resp.getBody();
+            return downloadGuarded(mediaUrl, memoryThreshold, maxBytes);
         } catch (Exception e) {
             log.warn("[WhatsAppApiClient] Failed to download media: {}", e.toString());
             return null;
         }
     }
+
+    // The slot is held until the body is spooled, so slow downloads count against the limit and a failed read
+    // counts towards opening the circuit
+    private SpooledMedia downloadGuarded(String mediaUrl, int memoryThreshold, long maxBytes) throws IOException {
+        guard.acquire();
+        boolean healthy = false;
+        try {
+            SpooledMedia media = streamingRestTemplate.execute(URI.create(mediaUrl), HttpMethod.GET,
+                    request -> request.getHeaders().setBearerAuth(props.getAccessToken()),
+                    response -> SpooledMedia.spool(response.getBody(), memoryThreshold, maxBytes));
+            healthy = true;
+            return media;
+        } catch (HttpStatusCodeException e) {
+            healthy = UpstreamGuard.isHealthyStatus(e.getStatusCode().value());
+            throw e;
+        } catch (ResourceAccessException e) {
+            healthy = e.getCause() instanceof SpooledMedia.TooLargeException;
+            throw e;
+        } finally {
+            guard.release(healthy);
+        }
+    }
 }
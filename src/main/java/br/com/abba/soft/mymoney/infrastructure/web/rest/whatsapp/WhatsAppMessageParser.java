@@ -2,16 +2,13 @@ package br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp;
 
 import br.com.abba.soft.mymoney.domain.model.Despesa;
 import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
-import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.infrastructure.categoria.CategoriaClassifier;
+import br.com.abba.soft.mymoney.infrastructure.parsing.TextScanner;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
-import java.text.ParseException;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
-import java.util.HashMap;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -25,51 +22,121 @@ public class WhatsAppMessageParser {
     private static final Pattern PATTERN_PIPE = Pattern.compile(
             "(?i)\\s*(.+?)\\s*[|]\\s*([0-9.,]+)\\s*[|]\\s*([A-ZÇÃÕÁÉÍÓÚÂÊÔ ]+)\\s*");
 
-    private static final Map<String, TipoPagamento> PAYMENT_ALIASES = new HashMap<>();
-    static {
-        PAYMENT_ALIASES.put("DINHEIRO", TipoPagamento.DINHEIRO);
-        PAYMENT_ALIASES.put("CASH", TipoPagamento.DINHEIRO);
-        PAYMENT_ALIASES.put("PIX", TipoPagamento.PIX);
-        PAYMENT_ALIASES.put("CARTAO", TipoPagamento.CARTAO_CREDITO);
-        PAYMENT_ALIASES.put("CARTAO CREDITO", TipoPagamento.CARTAO_CREDITO);
-        PAYMENT_ALIASES.put("CREDITO", TipoPagamento.CARTAO_CREDITO);
-        PAYMENT_ALIASES.put("CARTAO DEBITO", TipoPagamento.CARTAO_DEBITO);
-        PAYMENT_ALIASES.put("DEBITO", TipoPagamento.CARTAO_DEBITO);
-    }
+    private static final Pattern LOOSE_SEPARATOR = Pattern.compile("\\s+[|]\\s+|\\s+;");
+    private static final Pattern WIDE_SPACE = Pattern.compile("\\s{2,}");
 
-    public static Optional<Despesa> tryParse(String textBody, String userIdFromWhats) {
-        // Backward-compatible overload that defaults to PT-BR
-        return tryParse(textBody, userIdFromWhats, Locale.forLanguageTag("pt-BR"));
-    }
+    /** Free-form message split into its parts, before categorization: "uber 23,90 pix". */
+    public record FreeText(String descricao, BigDecimal valor, TipoPagamento tipoPagamento) {}
 
-    public static Optional<Despesa> tryParse(String textBody, String userIdFromWhats, Locale locale) {
+    public static Optional<Despesa> tryParse(String textBody, String userIdFromWhats, Locale locale, CategoriaClassifier classifier) {
         if (textBody == null || textBody.isBlank()) return Optional.empty();
+        Optional<Despesa> structured = tryParseStructured(textBody, userIdFromWhats, locale, classifier);
+        if (structured.isPresent()) return structured;
         String body = textBody.trim();
+        // fallback: space-separated "descricao valor pagamento"
+        String[] parts = LOOSE_SEPARATOR.split(body);
+        // if not split by | or ;, try simple tokens
+        if (parts.length < 3) {
+            parts = WIDE_SPACE.split(body);
+        }
+        if (parts.length >= 3) {
+            return buildDespesa(parts[0], parts[1], parts[2], userIdFromWhats, locale, classifier);
+        }
+        return Optional.empty();
+    }
 
+    /**
+     * High-confidence parse: only messages that fully match one of the explicit formats
+     * ("Despesa: X; Valor: 10; Pagamento: PIX" or "X | 10 | PIX"). The loose whitespace fallback is excluded.
+     */
+    public static Optional<Despesa> tryParseStructured(String textBody, String userIdFromWhats, Locale locale, CategoriaClassifier classifier) {
+        if (textBody == null || textBody.isBlank()) return Optional.empty();
+        String body = textBody.trim();
         Matcher m = PATTERN_SEMICOLON.matcher(body);
         if (m.matches()) {
-            return buildDespesa(m.group(1), m.group(2), m.group(3), userIdFromWhats, locale);
+            return buildDespesa(m.group(1), m.group(2), m.group(3), userIdFromWhats, locale, classifier);
         }
         m = PATTERN_PIPE.matcher(body);
         if (m.matches()) {
-            return buildDespesa(m.group(1), m.group(2), m.group(3), userIdFromWhats, locale);
+            return buildDespesa(m.group(1), m.group(2), m.group(3), userIdFromWhats, locale, classifier);
         }
-        // fallback: space-separated "descricao valor pagamento"
-        String[] parts = body.split("\\s+[|]\\s+|\\s+;");
-        // if not split by | or ;, try simple tokens
-        if (parts.length < 3) {
-            parts = body.split("\\s{2,}");
+        return Optional.empty();
+    }
+
+    /**
+     * Splits a free-form message into description, amount and (optional) payment, without categorizing it:
+     * the only number is the amount and payment words are recognized anywhere. Messages with no number or
+     * more than one (dates, installments...) are not handled here.
+     */
+    public static Optional<FreeText> tryParseFreeText(String textBody) {
+        if (textBody == null || textBody.isBlank()) return Optional.empty();
+        int n = textBody.length();
+        StringBuilder descricao = new StringBuilder();
+        BigDecimal valor = null;
+        TipoPagamento tipo = null;
+        int i = TextScanner.skipSpaces(textBody, 0, n);
+        while (i < n) {
+            int end = TextScanner.wordEnd(textBody, i, n);
+            int word = trimPunctuation(textBody, i, end);
+            BigDecimal amount = TextScanner.amount(textBody, i, word);
+            int phrase = tipo == null && amount == null ? paymentPhraseEnd(textBody, i, n) : -1;
+            if (amount != null) {
+                if (valor != null) return Optional.empty();
+                valor = amount;
+            } else if (phrase >= 0) {
+                // "pix", "cartão de crédito"
+                tipo = TextScanner.payment(textBody, i, trimPunctuation(textBody, i, phrase));
+                end = phrase;
+            } else if (!TextScanner.equalsFolded(textBody, i, word, "R$")
+                    && !TextScanner.equalsFolded(textBody, i, word, "REAIS")
+                    && !TextScanner.equalsFolded(textBody, i, word, "REAL")) {
+                for (int k = i; k < end; k++) {
+                    if (Character.isDigit(textBody.charAt(k))) return Optional.empty();
+                }
+                if (!descricao.isEmpty()) descricao.append(' ');
+                descricao.append(textBody, i, end);
+            }
+            i = TextScanner.skipSpaces(textBody, end, n);
         }
-        if (parts.length >= 3) {
-            return buildDespesa(parts[0], parts[1], parts[2], userIdFromWhats, locale);
+        trimToLettersAndDigits(descricao);
+        if (valor == null || valor.signum() <= 0 || descricao.isEmpty()) return Optional.empty();
+        return Optional.of(new FreeText(descricao.toString(), valor, tipo));
+    }
+
+    /** End of the longest run of up to four words from {@code from} that names a payment, or -1. */
+    private static int paymentPhraseEnd(CharSequence s, int from, int to) {
+        int found = -1;
+        int end = from;
+        for (int words = 0; words < 4 && end < to; words++) {
+            end = TextScanner.wordEnd(s, TextScanner.skipSpaces(s, end, to), to);
+            if (TextScanner.payment(s, from, trimPunctuation(s, from, end)) != null) found = end;
         }
-        return Optional.empty();
+        return found;
+    }
+
+    private static int trimPunctuation(CharSequence s, int from, int to) {
+        while (to > from && isTrailingPunctuation(s.charAt(to - 1))) to--;
+        return to;
     }
 
-    private static Optional<Despesa> buildDespesa(String descricaoRaw, String valorRaw, String pagamentoRaw, String userIdFromWhats, Locale locale) {
+    private static boolean isTrailingPunctuation(char c) {
+        return c == ',' || c == '.' || c == ';' || c == ':' || c == '!';
+    }
+
+    private static void trimToLettersAndDigits(StringBuilder sb) {
+        int end = sb.length();
+        while (end > 0 && !Character.isLetterOrDigit(sb.charAt(end - 1))) end--;
+        sb.setLength(end);
+        int start = 0;
+        while (start < sb.length() && !Character.isLetterOrDigit(sb.charAt(start))) start++;
+        sb.delete(0, start);
+    }
+
+    private static Optional<Despesa> buildDespesa(String descricaoRaw, String valorRaw, String pagamentoRaw, String userIdFromWhats, Locale locale,
+                                                  CategoriaClassifier classifier) {
         String descricao = descricaoRaw == null ? null : descricaoRaw.trim();
-        BigDecimal valor = parseNumber(valorRaw, locale);
-        TipoPagamento tipo = parsePagamento(pagamentoRaw);
+        BigDecimal valor = TextScanner.amount(valorRaw);
+        TipoPagamento tipo = TextScanner.payment(pagamentoRaw);
         if (descricao == null || descricao.isBlank() || valor == null || tipo == null) {
             return Optional.empty();
         }
@@ -78,63 +145,8 @@ public class WhatsAppMessageParser {
         d.setValor(valor);
         d.setTipoPagamento(tipo);
         d.setDataHora(ZonedDateTime.now());
-        d.setCategoria(inferCategoria(descricao));
+        d.setCategoria(classifier.classificar(descricao, locale));
         d.setUserId(userIdFromWhats);
         return Optional.of(d);
     }
-
-    private static BigDecimal parseNumber(String raw, Locale locale) {
-        if (raw == null) return null;
-        String s = raw.trim();
-        // Accept both 12.34 and 12,34; if both separators present, assume last is decimal
-        if (s.contains(",") && s.contains(".")) {
-            // Remove thousand separators heuristically
-            if (s.lastIndexOf(',') > s.lastIndexOf('.')) {
-                s = s.replace(".", "");
-                s = s.replace(',', '.');
-            } else {
-                s = s.replace(",", "");
-            }
-        } else if (s.contains(",")) {
-            s = s.replace('.', ' ').replace(" ", "");
-            s = s.replace(',', '.');
-        }
-        try {
-            return new BigDecimal(s);
-        } catch (NumberFormatException e) {
-            try {
-                Number n = NumberFormat.getNumberInstance(locale == null ? Locale.forLanguageTag("pt-BR") : locale).parse(raw);
-                return new BigDecimal(n.toString());
-            } catch (ParseException ex) {
-                return null;
-            }
-        }
-    }
-
-    private static TipoPagamento parsePagamento(String raw) {
-        if (raw == null) return null;
-        String key = raw.trim().toUpperCase(Locale.ROOT).replaceAll("\\\\s+", " ");
-        if (PAYMENT_ALIASES.containsKey(key)) return PAYMENT_ALIASES.get(key);
-        try {
-            return TipoPagamento.valueOf(key);
-        } catch (IllegalArgumentException ex) {
-            return null;
-        }
-    }
-
-    private static Categoria inferCategoria(String descricao) {
-        if (descricao == null) return Categoria.OUTRAS;
-        String desc = descricao.toLowerCase(Locale.ROOT);
-        if (desc.matches(".*\\b(almo(c|ç)o|jantar|comida|restaurante|lanche|hamb(ur|ú)guer|pizza|padaria|refe(i|í)cao|marmita|bar)\\b.*"))
-            return Categoria.ALIMENTACAO;
-        if (desc.matches(".*\\b(mercado|supermercado|compras|hortifruti|a(c|ç)ougue|sacolão|atacado)\\b.*"))
-            return Categoria.MERCADO;
-        if (desc.matches(".*\\b(curso|faculdade|escola|mensalidade|material|livro|aluno|ensino|ead|matr(i|í)cula)\\b.*"))
-            return Categoria.EDUCACAO;
-        if (desc.matches(".*\\b(cinema|lazer|viagem|passeio|parque|show|assinatura|netflix|spotify|game|jogo)\\b.*"))
-            return Categoria.LAZER;
-        if (desc.matches(".*\\b(luz|energia|agua|internet|telefone|aluguel|condominio|gas|conta|boleto)\\b.*"))
-            return Categoria.CONTAS_DO_DIA_A_DIA;
-        return Categoria.OUTRAS;
-    }
 }
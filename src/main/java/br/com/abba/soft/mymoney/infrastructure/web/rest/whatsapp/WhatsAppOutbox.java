@@ -0,0 +1,31 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp;
+
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppOutboxDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppOutboxStatus;
+import br.com.abba.soft.mymoney.infrastructure.persistence.repository.WhatsAppOutboxRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Queues replies to WhatsApp users; WhatsAppReplySender delivers them asynchronously.
+ */
+@Component
+public class WhatsAppOutbox {
+
+    private final WhatsAppOutboxRepository repository;
+
+    public WhatsAppOutbox(WhatsAppOutboxRepository repository) {
+        this.repository = repository;
+    }
+
+    public void enqueue(String toPhoneDigits, String body) {
+        WhatsAppOutboxDocument reply = new WhatsAppOutboxDocument();
+        reply.setTo(toPhoneDigits);
+        reply.setBody(body);
+        reply.setStatus(WhatsAppOutboxStatus.PENDING);
+        reply.setCreatedAt(LocalDateTime.now());
+        reply.setNextAttemptAt(reply.getCreatedAt());
+        repository.insert(reply);
+    }
+}
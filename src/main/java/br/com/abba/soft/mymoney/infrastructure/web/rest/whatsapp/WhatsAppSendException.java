@@ -0,0 +1,24 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp;
+
+import java.time.Duration;
+
+/**
+ * A WhatsApp message could not be sent. Retryable failures (network, 5xx, rate limiting) may succeed later;
+ * retryAfter carries the server's hint when it sent one.
+ */
+public class WhatsAppSendException extends RuntimeException {
+
+    private final boolean retryable;
+    private final Duration retryAfter;
+
+    public WhatsAppSendException(String message, boolean retryable, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+        this.retryAfter = retryAfter;
+    }
+
+    public boolean isRetryable() { return retryable; }
+
+    /** Server-requested wait before retrying, or null. */
+    public Duration getRetryAfter() { return retryAfter; }
+}
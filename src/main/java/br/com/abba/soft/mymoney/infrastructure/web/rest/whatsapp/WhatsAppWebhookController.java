@@ -1,11 +1,6 @@
 package br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp;
 
-import br.com.abba.soft.mymoney.application.DespesaService;
-import br.com.abba.soft.mymoney.infrastructure.ai.OpenAIAudioTranscriber;
 import br.com.abba.soft.mymoney.infrastructure.config.WhatsAppProperties;
-import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppIncomingMessageDocument;
-import br.com.abba.soft.mymoney.infrastructure.persistence.repository.WhatsAppIncomingMessageRepository;
-import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppMessageStatus;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -16,8 +11,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
-import java.util.*;
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
 @RequestMapping("/webhooks/whatsapp")
@@ -51,17 +46,20 @@ public class WhatsAppWebhookController {
         public record Change(Value value) {}
         public record Value(Metadata metadata, List<Message> messages) {}
         public record Metadata(String display_phone_number, String phone_number_id) {}
-        public record Message(String from, String id, String timestamp, Text text, String type) {}
+        public record Message(String from, String id, String timestamp, Text text, Audio audio, String type) {}
         public record Text(String body) {}
+        public record Audio(String id, String mime_type) {}
     }
 
-    public record WebhookProcessResult(int received, int queued, int valid, List<String> errors) {}
+    public record WebhookProcessResult(int received, int queued, int duplicates, int valid, List<String> errors) {}
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Receber mensagens do WhatsApp", description = "Recebe mensagens e agenda processamento assíncrono da despesa.")
     @ApiResponse(responseCode = "202", description = "Processado", content = @Content(schema = @Schema(implementation = WebhookProcessResult.class)))
-    public ResponseEntity<WebhookProcessResult> receive(@RequestBody Map<String, Object> payload) {
-        WebhookProcessResult result = webhookService.process(payload);
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(schema = @Schema(implementation = WhatsMetaRoot.class)))
+    public ResponseEntity<WebhookProcessResult> receive(InputStream body) {
+        // Decoded straight from the request stream; no intermediate Map tree
+        WebhookProcessResult result = webhookService.process(WhatsAppWebhookPayloadReader.read(body));
         return ResponseEntity.accepted().body(result);
     }
 
@@ -0,0 +1,211 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp;
+
+import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppWebhookController.WhatsMetaRoot;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token-level decoder for the WhatsApp Cloud API webhook body.
+ * Builds {@link WhatsMetaRoot} directly from the stream, keeping only the fields the webhook uses;
+ * statuses, contacts, errors and any unknown subtree are skipped without being materialized.
+ * Shapes that do not match the expected structure are rejected with {@link IllegalArgumentException}.
+ */
+public final class WhatsAppWebhookPayloadReader {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private WhatsAppWebhookPayloadReader() {}
+
+    public static WhatsMetaRoot read(InputStream body) {
+        try (JsonParser p = JSON.createParser(body)) {
+            return readRoot(p);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed webhook payload: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    public static WhatsMetaRoot read(String body) {
+        try (JsonParser p = JSON.createParser(body)) {
+            return readRoot(p);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed webhook payload: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static WhatsMetaRoot readRoot(JsonParser p) throws IOException {
+        expect(p, p.nextToken(), JsonToken.START_OBJECT, "root");
+        List<WhatsMetaRoot.Entry> entries = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken t = p.nextToken();
+            if ("entry".equals(field)) {
+                entries = readArray(p, t, "entry", WhatsAppWebhookPayloadReader::readEntry);
+            } else {
+                p.skipChildren();
+            }
+        }
+        if (p.nextToken() != null) {
+            throw malformed("trailing content after root object");
+        }
+        return new WhatsMetaRoot(entries);
+    }
+
+    private static WhatsMetaRoot.Entry readEntry(JsonParser p) throws IOException {
+        expect(p, p.currentToken(), JsonToken.START_OBJECT, "entry");
+        List<WhatsMetaRoot.Change> changes = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken t = p.nextToken();
+            if ("changes".equals(field)) {
+                changes = readArray(p, t, "changes", WhatsAppWebhookPayloadReader::readChange);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return new WhatsMetaRoot.Entry(changes);
+    }
+
+    private static WhatsMetaRoot.Change readChange(JsonParser p) throws IOException {
+        expect(p, p.currentToken(), JsonToken.START_OBJECT, "change");
+        WhatsMetaRoot.Value value = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken t = p.nextToken();
+            if ("value".equals(field) && t != JsonToken.VALUE_NULL) {
+                value = readValue(p);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return new WhatsMetaRoot.Change(value);
+    }
+
+    private static WhatsMetaRoot.Value readValue(JsonParser p) throws IOException {
+        expect(p, p.currentToken(), JsonToken.START_OBJECT, "value");
+        WhatsMetaRoot.Metadata metadata = null;
+        List<WhatsMetaRoot.Message> messages = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken t = p.nextToken();
+            switch (field) {
+                case "metadata" -> metadata = t == JsonToken.VALUE_NULL ? null : readMetadata(p);
+                case "messages" -> messages = readArray(p, t, "messages", WhatsAppWebhookPayloadReader::readMessage);
+                // statuses, contacts, errors, messaging_product...
+                default -> p.skipChildren();
+            }
+        }
+        return new WhatsMetaRoot.Value(metadata, messages);
+    }
+
+    private static WhatsMetaRoot.Metadata readMetadata(JsonParser p) throws IOException {
+        expect(p, p.currentToken(), JsonToken.START_OBJECT, "metadata");
+        String displayPhoneNumber = null;
+        String phoneNumberId = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "display_phone_number" -> displayPhoneNumber = scalar(p, field);
+                case "phone_number_id" -> phoneNumberId = scalar(p, field);
+                default -> p.skipChildren();
+            }
+        }
+        return new WhatsMetaRoot.Metadata(displayPhoneNumber, phoneNumberId);
+    }
+
+    private static WhatsMetaRoot.Message readMessage(JsonParser p) throws IOException {
+        expect(p, p.currentToken(), JsonToken.START_OBJECT, "message");
+        String from = null;
+        String id = null;
+        String timestamp = null;
+        String type = null;
+        WhatsMetaRoot.Text text = null;
+        WhatsMetaRoot.Audio audio = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken t = p.nextToken();
+            switch (field) {
+                case "from" -> from = scalar(p, field);
+                case "id" -> id = scalar(p, field);
+                case "timestamp" -> timestamp = scalar(p, field);
+                case "type" -> type = scalar(p, field);
+                case "text" -> text = t == JsonToken.VALUE_NULL ? null : readText(p);
+                case "audio" -> audio = t == JsonToken.VALUE_NULL ? null : readAudio(p);
+                // context, image, interactive, referral...
+                default -> p.skipChildren();
+            }
+        }
+        return new WhatsMetaRoot.Message(from, id, timestamp, text, audio, type);
+    }
+
+    private static WhatsMetaRoot.Text readText(JsonParser p) throws IOException {
+        expect(p, p.currentToken(), JsonToken.START_OBJECT, "text");
+        String body = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("body".equals(field)) {
+                body = scalar(p, field);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return new WhatsMetaRoot.Text(body);
+    }
+
+    private static WhatsMetaRoot.Audio readAudio(JsonParser p) throws IOException {
+        expect(p, p.currentToken(), JsonToken.START_OBJECT, "audio");
+        String id = null;
+        String mimeType = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "id" -> id = scalar(p, field);
+                case "mime_type" -> mimeType = scalar(p, field);
+                default -> p.skipChildren();
+            }
+        }
+        return new WhatsMetaRoot.Audio(id, mimeType);
+    }
+
+    private interface ElementReader<T> {
+        T read(JsonParser p) throws IOException;
+    }
+
+    private static <T> List<T> readArray(JsonParser p, JsonToken t, String name, ElementReader<T> element) throws IOException {
+        if (t == JsonToken.VALUE_NULL) return null;
+        expect(p, t, JsonToken.START_ARRAY, name);
+        List<T> items = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            items.add(element.read(p));
+        }
+        return items;
+    }
+
+    private static String scalar(JsonParser p, String name) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_NULL) return null;
+        if (t == null || !t.isScalarValue()) {
+            throw malformed("'" + name + "' must be a scalar value");
+        }
+        return p.getValueAsString();
+    }
+
+    private static void expect(JsonParser p, JsonToken actual, JsonToken expected, String name) {
+        if (actual != expected) {
+            throw malformed("'" + name + "' must be " + (expected == JsonToken.START_ARRAY ? "an array" : "an object")
+                    + " at " + p.currentLocation().offsetDescription());
+        }
+    }
+
+    private static IllegalArgumentException malformed(String detail) {
+        return new IllegalArgumentException("Malformed webhook payload: " + detail);
+    }
+}
@@ -0,0 +1,218 @@
+package br.com.abba.soft.mymoney.application;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.LinhaImportada;
+import br.com.abba.soft.mymoney.domain.model.ResultadoImportacao;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.domain.port.CategorizacaoAprendidaPort;
+import br.com.abba.soft.mymoney.domain.port.DespesaRepositoryPort;
+import br.com.abba.soft.mymoney.domain.port.ResumoMensalRepositoryPort;
+import br.com.abba.soft.mymoney.infrastructure.security.CustomUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DespesaServiceTest {
+
+    private DespesaRepositoryPort repository;
+    private ResumoMensalRepositoryPort resumoMensal;
+    private CategorizacaoAprendidaPort categorizacao;
+    private DespesaService service;
+    private final List<Integer> lotes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(DespesaRepositoryPort.class);
+        resumoMensal = mock(ResumoMensalRepositoryPort.class);
+        categorizacao = mock(CategorizacaoAprendidaPort.class);
+        service = new DespesaService(repository, resumoMensal, categorizacao);
+        when(repository.save(any())).thenAnswer(inv -> {
+            Despesa d = inv.getArgument(0);
+            d.setId("d1");
+            return d;
+        });
+        // the service clears the chunk after the insert, so record its size and hand back a copy
+        when(repository.insertAll(any())).thenAnswer(inv -> {
+            List<Despesa> lote = inv.getArgument(0);
+            lotes.add(lote.size());
+            return new ArrayList<>(lote);
+        });
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new CustomUserDetails("u1", "ana", "hash"), null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void replayedOrigemReturnsTheStoredExpenseWithoutCountingItAgain() {
+        Despesa gravada = despesa("whatsapp:m1");
+        gravada.setId("d1");
+        when(repository.findByOrigem("whatsapp:m1")).thenReturn(Optional.of(gravada));
+
+        assertThat(service.criar(despesa("whatsapp:m1")).getId()).isEqualTo("d1");
+
+        verify(repository, never()).save(any());
+        verifyNoInteractions(resumoMensal, categorizacao);
+    }
+
+    @Test
+    void rollupFailureAfterSaveDoesNotFailTheCreation() {
+        when(repository.findByOrigem("whatsapp:m2")).thenReturn(Optional.empty());
+        doThrow(new DataAccessResourceFailureException("timeout")).when(resumoMensal)
+                .incrementar(any(), any(), any(), any(), any(), anyLong());
+
+        Despesa criada = service.criar(despesa("whatsapp:m2"));
+
+        assertThat(criada.getId()).isEqualTo("d1");
+        verify(categorizacao).aprender(criada, 1);
+    }
+
+    @Test
+    void rollupFailureAfterUpdateStillAppliesBothDeltasAndReturnsTheUpdate() {
+        Despesa existente = despesa(null);
+        existente.setId("d1");
+        when(repository.findById("d1")).thenReturn(Optional.of(existente));
+        doThrow(new DataAccessResourceFailureException("timeout")).when(resumoMensal)
+                .incrementar(any(), any(), any(), any(), any(), eq(-1L));
+        Despesa corrigida = despesa(null);
+        corrigida.setCategoria(Categoria.LAZER);
+
+        assertThat(service.atualizar("d1", corrigida).getCategoria()).isEqualTo(Categoria.LAZER);
+
+        verify(resumoMensal).incrementar(eq("u1"), any(), eq(Categoria.LAZER), any(), any(), eq(1L));
+        verify(categorizacao).aprender(corrigida, 1);
+    }
+
+    @Test
+    void rollupFailureAfterDeleteDoesNotFailTheDeletion() {
+        Despesa existente = despesa(null);
+        existente.setId("d1");
+        when(repository.findById("d1")).thenReturn(Optional.of(existente));
+        doThrow(new DataAccessResourceFailureException("timeout")).when(resumoMensal)
+                .incrementar(any(), any(), any(), any(), any(), anyLong());
+
+        service.excluir("d1");
+
+        verify(repository).deleteById("d1");
+        verify(categorizacao).aprender(existente, -1);
+    }
+
+    @Test
+    void concurrentCreationOfTheSameOrigemReturnsTheWinnersExpense() {
+        Despesa gravada = despesa("whatsapp:m3");
+        gravada.setId("d9");
+        when(repository.findByOrigem("whatsapp:m3")).thenReturn(Optional.empty(), Optional.of(gravada));
+        when(repository.save(any())).thenThrow(new DuplicateKeyException("E11000 duplicate key origem"));
+
+        assertThat(service.criar(despesa("whatsapp:m3"))).isSameAs(gravada);
+
+        verifyNoInteractions(resumoMensal, categorizacao);
+    }
+
+    @Test
+    void importStoresValidRowsInChunksForTheCurrentUser() {
+        List<LinhaImportada> linhas = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Despesa d = despesa(null);
+            d.setUserId("outro");
+            linhas.add(LinhaImportada.valida(i + 1, d));
+        }
+
+        ResultadoImportacao resultado = service.importar(linhas.iterator(), 2, 10);
+
+        assertThat(lotes).containsExactly(2, 2, 1);
+        assertThat(resultado.linhas()).isEqualTo(5);
+        assertThat(resultado.importadas()).isEqualTo(5);
+        assertThat(resultado.rejeitadas()).isZero();
+        assertThat(linhas).allSatisfy(l -> assertThat(l.despesa().getUserId()).isEqualTo("u1"));
+    }
+
+    @Test
+    void importCountsEveryRejectionButListsAtMostMaxErros() {
+        Despesa semValor = despesa(null);
+        semValor.setValor(new BigDecimal("-1"));
+        List<LinhaImportada> linhas = List.of(
+                LinhaImportada.invalida(2, "Valor invalido: abc"),
+                LinhaImportada.valida(3, semValor),
+                LinhaImportada.valida(4, despesa(null)),
+                LinhaImportada.invalida(5, "Data invalida: ontem"));
+
+        ResultadoImportacao resultado = service.importar(linhas.iterator(), 500, 2);
+
+        assertThat(resultado.linhas()).isEqualTo(4);
+        assertThat(resultado.importadas()).isEqualTo(1);
+        assertThat(resultado.rejeitadas()).isEqualTo(3);
+        assertThat(resultado.erros()).containsExactly(
+                new ResultadoImportacao.ErroLinha(2, "Valor invalido: abc"),
+                new ResultadoImportacao.ErroLinha(3, "Valor deve ser positivo"));
+    }
+
+    @Test
+    void importIncrementsTheRollupOncePerKeyOfEachChunk() {
+        Despesa cinema = despesa(null);
+        cinema.setCategoria(Categoria.LAZER);
+        List<LinhaImportada> linhas = List.of(
+                LinhaImportada.valida(2, despesa(null)),
+                LinhaImportada.valida(3, despesa(null)),
+                LinhaImportada.valida(4, cinema),
+                LinhaImportada.valida(5, despesa(null)));
+
+        service.importar(linhas.iterator(), 500, 10);
+
+        verify(resumoMensal).incrementar(eq("u1"), eq(YearMonth.of(2025, 8)), eq(Categoria.ALIMENTACAO), eq(TipoPagamento.PIX),
+                eq(new BigDecimal("107.70")), eq(3L));
+        verify(resumoMensal).incrementar(eq("u1"), eq(YearMonth.of(2025, 8)), eq(Categoria.LAZER), eq(TipoPagamento.PIX),
+                eq(new BigDecimal("35.90")), eq(1L));
+        verify(resumoMensal, times(2)).incrementar(any(), any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void rollupFailureDoesNotAbortAnImportWhoseChunkIsStored() {
+        doThrow(new DataAccessResourceFailureException("timeout")).when(resumoMensal)
+                .incrementar(any(), any(), any(), any(), any(), anyLong());
+        List<LinhaImportada> linhas = List.of(
+                LinhaImportada.valida(2, despesa(null)),
+                LinhaImportada.valida(3, despesa(null)),
+                LinhaImportada.valida(4, despesa(null)));
+
+        ResultadoImportacao resultado = service.importar(linhas.iterator(), 2, 10);
+
+        assertThat(lotes).containsExactly(2, 1);
+        assertThat(resultado.importadas()).isEqualTo(3);
+    }
+
+    private static Despesa despesa(String origem) {
+        Despesa d = new Despesa(null, "Almoco", new BigDecimal("35.90"), LocalDateTime.of(2025, 8, 10, 12, 0), TipoPagamento.PIX);
+        d.setCategoria(Categoria.ALIMENTACAO);
+        d.setUserId("u1");
+        d.setOrigem(origem);
+        return d;
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.abba.soft.mymoney.infrastructure.ai;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.SugestaoCategorizacao;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.domain.port.CategorizacaoAprendidaPort;
+import br.com.abba.soft.mymoney.infrastructure.ai.OpenAIExpenseExtractor.BatchItem;
+import br.com.abba.soft.mymoney.infrastructure.ai.OpenAIExpenseExtractor.BatchResult;
+import br.com.abba.soft.mymoney.infrastructure.categoria.CategoriaClassifier;
+import br.com.abba.soft.mymoney.infrastructure.config.CategoriaProperties;
+import br.com.abba.soft.mymoney.infrastructure.config.OpenAIProperties;
+import br.com.abba.soft.mymoney.infrastructure.config.WhatsAppProcessorProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TieredExpenseExtractorTest {
+
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+
+    private OpenAIExpenseExtractor openAI;
+    private CategorizacaoAprendidaPort categorizacao;
+    private TieredExpenseExtractor extractor;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        openAI = mock(OpenAIExpenseExtractor.class);
+        categorizacao = mock(CategorizacaoAprendidaPort.class);
+        ExpenseExtractionCache cache = mock(ExpenseExtractionCache.class);
+        when(cache.get(any(), any())).thenReturn(Optional.empty());
+        registry = new SimpleMeterRegistry();
+        extractor = new TieredExpenseExtractor(openAI, cache, new OpenAIProperties(), new WhatsAppProcessorProperties(),
+                new CategoriaClassifier(new CategoriaProperties(), new DefaultResourceLoader()), categorizacao,
+                registry);
+        when(categorizacao.sugerir(eq("u1"), anyString()))
+                .thenReturn(Optional.of(new SugestaoCategorizacao(Categoria.LAZER, TipoPagamento.PIX)));
+    }
+
+    @Test
+    void knownWordsAreAnsweredFromTheHistory() throws InterruptedException {
+        Optional<Despesa> despesa = extractor.extract("uber 23,90 pix", "u1", PT_BR);
+
+        assertThat(despesa).isPresent();
+        assertThat(despesa.get().getCategoria()).isEqualTo(Categoria.LAZER);
+        assertThat(despesa.get().getValor()).isEqualByComparingTo(new BigDecimal("23.90"));
+        verifyNoInteractions(openAI);
+    }
+
+    @Test
+    void messagesThatSayWhenGoToOpenAIForTheDate() throws InterruptedException {
+        Despesa resolvida = new Despesa();
+        when(openAI.extract(anyString(), eq("u1"), eq(PT_BR))).thenReturn(Optional.of(resolvida));
+
+        assertThat(extractor.extract("uber ontem 23,90", "u1", PT_BR)).containsSame(resolvida);
+        assertThat(extractor.extract("mercado sexta 120 pix", "u1", PT_BR)).containsSame(resolvida);
+        assertThat(extractor.extract("farmacia dia 5 R$ 40", "u1", PT_BR)).containsSame(resolvida);
+
+        verify(categorizacao, never()).sugerir(any(), any());
+    }
+
+    @Test
+    void messagesTheBatchAnsweredAsNotAnExpenseAreNotLeftForExtract() {
+        Despesa almoco = new Despesa();
+        when(openAI.extractBatch(anyList(), eq(PT_BR)))
+                .thenReturn(new BatchResult(Map.of("m1", almoco), Set.of("m1", "m2")));
+
+        BatchResult result = extractor.extractAll(List.of(
+                new BatchItem("m1", "almocei no restaurante", "u2"),
+                new BatchItem("m2", "bom dia", "u2"),
+                new BatchItem("m3", "paguei o aluguel", "u2")), PT_BR);
+
+        assertThat(result.despesa("m1")).containsSame(almoco);
+        assertThat(result.isAnswered("m2")).isTrue();
+        assertThat(result.despesa("m2")).isEmpty();
+        assertThat(result.isAnswered("m3")).isFalse();
+    }
+
+    @Test
+    void unexpectedBatchFailureIsCountedAndLeavesTheChunkUnanswered() {
+        when(openAI.extractBatch(anyList(), eq(PT_BR))).thenThrow(new IllegalStateException("json invalido"));
+
+        BatchResult result = extractor.extractAll(List.of(
+                new BatchItem("m1", "almocei no restaurante", "u2"),
+                new BatchItem("m2", "bom dia", "u2")), PT_BR);
+
+        assertThat(result.answeredIds()).isEmpty();
+        assertThat(registry.get("expense.extraction").tags("tier", "openai_batch", "result", "empty").counter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("expense.extraction.duration").tag("tier", "openai_batch").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.abba.soft.mymoney.infrastructure.cache;
+
+import br.com.abba.soft.mymoney.infrastructure.config.WhatsAppProcessorProperties;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.UsuarioDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class TelefoneUsuarioCacheTest {
+
+    private static final String ANA = "5511987654321";
+    private static final String BRUNO = "5521912345678";
+    private static final String DESCONHECIDO = "5531900000000";
+
+    private UsuarioRepository usuarioRepository;
+    private SimpleMeterRegistry registry;
+    private TelefoneUsuarioCache cache;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        registry = new SimpleMeterRegistry();
+        cache = new TelefoneUsuarioCache(usuarioRepository, new WhatsAppProcessorProperties(), registry);
+        when(usuarioRepository.findByTelefoneIn(any())).thenReturn(List.of(
+                new UsuarioDocument("u1", "Ana", "ana@x.com", ANA, "hash"),
+                new UsuarioDocument("u2", "Bruno", "bruno@x.com", BRUNO, "hash")));
+    }
+
+    @Test
+    void missesAreResolvedWithASingleQuery() {
+        Map<String, String> ids = cache.resolve(List.of(ANA, BRUNO, ANA, DESCONHECIDO));
+
+        assertThat(ids).containsExactlyInAnyOrderEntriesOf(Map.of(ANA, "u1", BRUNO, "u2"));
+        verify(usuarioRepository).findByTelefoneIn(List.of(ANA, BRUNO, DESCONHECIDO));
+        assertThat(contagem("miss")).isEqualTo(3);
+    }
+
+    @Test
+    void knownAndUnknownPhonesAreAnsweredFromMemory() {
+        cache.resolve(List.of(ANA, DESCONHECIDO));
+
+        Map<String, String> ids = cache.resolve(List.of(ANA, DESCONHECIDO));
+
+        assertThat(ids).containsExactlyEntriesOf(Map.of(ANA, "u1"));
+        verify(usuarioRepository, times(1)).findByTelefoneIn(any());
+        assertThat(contagem("hit")).isEqualTo(1);
+        assertThat(contagem("negative_hit")).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateForgetsThePhoneAsTypedAndNormalized() {
+        cache.resolve(List.of(ANA, DESCONHECIDO));
+
+        // registered with the 9th digit missing and punctuation: same key as the queue's normalized phone
+        cache.invalidate("+55 (31) 0000-0000");
+        cache.resolve(List.of(ANA, DESCONHECIDO));
+
+        verify(usuarioRepository).findByTelefoneIn(List.of(ANA, DESCONHECIDO));
+        verify(usuarioRepository).findByTelefoneIn(List.of(DESCONHECIDO));
+        verifyNoMoreInteractions(usuarioRepository);
+    }
+
+    private double contagem(String result) {
+        return registry.get("whatsapp.user.cache").tag("result", result).counter().count();
+    }
+}
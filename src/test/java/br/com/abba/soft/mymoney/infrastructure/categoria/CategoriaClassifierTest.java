@@ -0,0 +1,44 @@
+package br.com.abba.soft.mymoney.infrastructure.categoria;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.infrastructure.config.CategoriaProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoriaClassifierTest {
+
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+
+    private final CategoriaClassifier classifier = new CategoriaClassifier(new CategoriaProperties(), new DefaultResourceLoader());
+
+    @Test
+    void matchesWholeWordsIgnoringCaseAndAccents() {
+        assertThat(classifier.classificar("Almoço no RESTAURANTE", PT_BR)).isEqualTo(Categoria.ALIMENTACAO);
+        assertThat(classifier.classificar("Conta de luz/água", PT_BR)).isEqualTo(Categoria.CONTAS_DO_DIA_A_DIA);
+        assertThat(classifier.classificar("Barbearia", PT_BR)).isEqualTo(Categoria.OUTRAS);
+    }
+
+    @Test
+    void firstCategoryInTheFileWins() {
+        // "bar" (ALIMENTACAO) and "cinema" (LAZER)
+        assertThat(classifier.classificar("cinema e bar", PT_BR)).isEqualTo(Categoria.ALIMENTACAO);
+    }
+
+    @Test
+    void usesTheLanguageFileAndFallsBackToTheDefault() {
+        assertThat(classifier.classificar("groceries", Locale.US)).isEqualTo(Categoria.MERCADO);
+        assertThat(classifier.classificar("supermercado", Locale.FRANCE)).isEqualTo(Categoria.MERCADO);
+        assertThat(classifier.classificar("supermercado", null)).isEqualTo(Categoria.MERCADO);
+    }
+
+    @Test
+    void resolvesCategoryNames() {
+        assertThat(CategoriaClassifier.porNome("Alimentação")).isEqualTo(Categoria.ALIMENTACAO);
+        assertThat(CategoriaClassifier.porNome("contas do dia-a-dia")).isEqualTo(Categoria.CONTAS_DO_DIA_A_DIA);
+        assertThat(CategoriaClassifier.porNome("viagens")).isNull();
+    }
+}
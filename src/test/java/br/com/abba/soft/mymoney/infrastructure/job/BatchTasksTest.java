@@ -0,0 +1,59 @@
+package br.com.abba.soft.mymoney.infrastructure.job;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchTasksTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void aFailedTaskGoesToOnFailureAndTheOthersAreKept() {
+        List<String> done = BatchTasks.runAll(executor, List.of("a", "b", "c"),
+                item -> {
+                    if (item.equals("a")) throw new IllegalStateException("boom");
+                    return item + "-ok";
+                },
+                (item, ex) -> item + "-retry:" + ex.getMessage());
+
+        assertThat(done).containsExactly("a-retry:boom", "b-ok", "c-ok");
+    }
+
+    @Test
+    void interruptKeepsTheResultsThatAlreadyFinished() {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        try {
+            // One worker: "slow" only starts once "fast" is complete, then interrupts the waiting caller
+            List<String> done = BatchTasks.runAll(single, List.of("fast", "slow"),
+                    item -> {
+                        if (item.equals("slow")) {
+                            caller.interrupt();
+                            release.await();
+                        }
+                        return item;
+                    },
+                    (item, ex) -> item + "-failed");
+
+            assertThat(done).containsExactly("fast");
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+            release.countDown();
+            single.shutdownNow();
+        }
+    }
+}
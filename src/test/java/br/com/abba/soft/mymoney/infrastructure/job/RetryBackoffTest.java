@@ -0,0 +1,36 @@
+package br.com.abba.soft.mymoney.infrastructure.job;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RetryBackoffTest {
+
+    private final RetryBackoff backoff = new RetryBackoff(Duration.ofSeconds(10), Duration.ofMinutes(5));
+
+    @Test
+    void delayDoublesPerAttemptWithinJitterBounds() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(backoff.delayFor(1)).isBetween(Duration.ofSeconds(5), Duration.ofSeconds(10));
+            assertThat(backoff.delayFor(3)).isBetween(Duration.ofSeconds(20), Duration.ofSeconds(40));
+        }
+    }
+
+    @Test
+    void delayIsCappedAtMaximum() {
+        for (int attempt : new int[] {10, 63, 1000}) {
+            assertThat(backoff.delayFor(attempt)).isBetween(Duration.ofMinutes(5).dividedBy(2), Duration.ofMinutes(5));
+        }
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThatThrownBy(() -> new RetryBackoff(Duration.ZERO, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RetryBackoff(Duration.ofSeconds(2), Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,120 @@
+package br.com.abba.soft.mymoney.infrastructure.parsing;
+
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextScannerTest {
+
+    private static final ZoneId SAO_PAULO = ZoneId.of("America/Sao_Paulo");
+
+    @Test
+    void readsAmountsInBothSeparatorConventions() {
+        assertThat(TextScanner.amount("12,90")).isEqualByComparingTo("12.90");
+        assertThat(TextScanner.amount("12.90")).isEqualByComparingTo("12.90");
+        assertThat(TextScanner.amount("R$ 1.234,56")).isEqualByComparingTo("1234.56");
+        assertThat(TextScanner.amount("1,234.56")).isEqualByComparingTo("1234.56");
+        assertThat(TextScanner.amount("1.234.567")).isEqualByComparingTo("1234567");
+        assertThat(TextScanner.amount("1.234.567,89")).isEqualByComparingTo("1234567.89");
+        assertThat(TextScanner.amount("  r$  7 ")).isEqualByComparingTo("7");
+        assertThat(TextScanner.amount("-10")).isEqualByComparingTo("-10");
+        assertThat(TextScanner.amount("+5")).isEqualByComparingTo("5");
+        assertThat(TextScanner.amount("123456789012345678")).isEqualByComparingTo(new BigDecimal("123456789012345678"));
+    }
+
+    @Test
+    void readsAnAmountInsideARange() {
+        String text = "uber 23,90 pix";
+        assertThat(TextScanner.amount(text, 5, 10)).isEqualByComparingTo("23.90");
+    }
+
+    @Test
+    void rejectsMalformedAmounts() {
+        assertThat(TextScanner.amount("1..2")).isNull();
+        assertThat(TextScanner.amount("12,")).isNull();
+        assertThat(TextScanner.amount("1,234,56")).isNull();
+        assertThat(TextScanner.amount("1.23,45")).isNull();
+        assertThat(TextScanner.amount("12345.678.901")).isNull();
+        assertThat(TextScanner.amount("1.234,5.6")).isNull();
+        assertThat(TextScanner.amount("1234567890123456789")).isNull();
+        assertThat(TextScanner.amount("12abc")).isNull();
+        assertThat(TextScanner.amount("R$")).isNull();
+        assertThat(TextScanner.amount((CharSequence) null)).isNull();
+    }
+
+    @Test
+    void readsPaymentNamesAndAliases() {
+        assertThat(TextScanner.payment("pix")).isEqualTo(TipoPagamento.PIX);
+        assertThat(TextScanner.payment("CARTAO_DEBITO")).isEqualTo(TipoPagamento.CARTAO_DEBITO);
+        assertThat(TextScanner.payment("vale refeição")).isEqualTo(TipoPagamento.VALE_REFEICAO);
+        assertThat(TextScanner.payment("cartão de crédito")).isEqualTo(TipoPagamento.CARTAO_CREDITO);
+        assertThat(TextScanner.payment("  cartão   de  crédito ")).isEqualTo(TipoPagamento.CARTAO_CREDITO);
+        assertThat(TextScanner.payment("cartao-credito")).isEqualTo(TipoPagamento.CARTAO_CREDITO);
+        assertThat(TextScanner.payment("crédito")).isEqualTo(TipoPagamento.CARTAO_CREDITO);
+        assertThat(TextScanner.payment("cartao")).isEqualTo(TipoPagamento.CARTAO_CREDITO);
+        assertThat(TextScanner.payment("Débito")).isEqualTo(TipoPagamento.CARTAO_DEBITO);
+        assertThat(TextScanner.payment("cartão de débito")).isEqualTo(TipoPagamento.CARTAO_DEBITO);
+        assertThat(TextScanner.payment("cash")).isEqualTo(TipoPagamento.DINHEIRO);
+        assertThat(TextScanner.payment("boleto")).isNull();
+    }
+
+    @Test
+    void readsEveryBrazilianDateFormat() {
+        ZonedDateTime withSeconds = LocalDateTime.of(2025, 8, 10, 14, 30, 15).atZone(SAO_PAULO);
+        ZonedDateTime withMinutes = LocalDateTime.of(2025, 8, 10, 14, 30).atZone(SAO_PAULO);
+
+        // the nine patterns accepted before the scanner
+        assertThat(TextScanner.dateTime("10/08/2025, 14:30:15", SAO_PAULO)).isEqualTo(withSeconds);
+        assertThat(TextScanner.dateTime("10/08/2025, 14:30", SAO_PAULO)).isEqualTo(withMinutes);
+        assertThat(TextScanner.dateTime("10/08/2025 14:30:15", SAO_PAULO)).isEqualTo(withSeconds);
+        assertThat(TextScanner.dateTime("10/08/2025 14:30", SAO_PAULO)).isEqualTo(withMinutes);
+        assertThat(TextScanner.dateTime("10-08-2025 14:30:15", SAO_PAULO)).isEqualTo(withSeconds);
+        assertThat(TextScanner.dateTime("10-08-2025 14:30", SAO_PAULO)).isEqualTo(withMinutes);
+        assertThat(TextScanner.dateTime("10.08.2025 14:30:15", SAO_PAULO)).isEqualTo(withSeconds);
+        assertThat(TextScanner.dateTime("10.08.2025 14:30", SAO_PAULO)).isEqualTo(withMinutes);
+        assertThat(TextScanner.dateTime("10/08/2025", SAO_PAULO))
+                .isEqualTo(LocalDateTime.of(2025, 8, 10, 0, 0).atZone(SAO_PAULO));
+
+        assertThat(TextScanner.dateTime("1/8/2025 9:05", SAO_PAULO))
+                .isEqualTo(LocalDateTime.of(2025, 8, 1, 9, 5).atZone(SAO_PAULO));
+        assertThat(TextScanner.dateTime("29/02/2024", SAO_PAULO)).isNotNull();
+    }
+
+    @Test
+    void readsIsoDatesWithOffsetFractionAndRegion() {
+        assertThat(TextScanner.dateTime("2025-08-10", SAO_PAULO))
+                .isEqualTo(LocalDateTime.of(2025, 8, 10, 0, 0).atZone(SAO_PAULO));
+        assertThat(TextScanner.dateTime("2025-08-10 14:30:15", SAO_PAULO))
+                .isEqualTo(LocalDateTime.of(2025, 8, 10, 14, 30, 15).atZone(SAO_PAULO));
+        assertThat(TextScanner.dateTime("2025-08-10T14:30:15.5Z", SAO_PAULO))
+                .isEqualTo(LocalDateTime.of(2025, 8, 10, 14, 30, 15, 500_000_000).atZone(ZoneOffset.UTC));
+        assertThat(TextScanner.dateTime("2025-08-10T14:30:15.123456789-03:00", SAO_PAULO))
+                .isEqualTo(LocalDateTime.of(2025, 8, 10, 14, 30, 15, 123_456_789).atZone(ZoneOffset.ofHours(-3)));
+        assertThat(TextScanner.dateTime("2025-08-10T14:30+0530", SAO_PAULO))
+                .isEqualTo(LocalDateTime.of(2025, 8, 10, 14, 30).atZone(ZoneOffset.ofHoursMinutes(5, 30)));
+        assertThat(TextScanner.dateTime("2025-08-10T14:30:00-03:00[America/Sao_Paulo]", SAO_PAULO))
+                .isEqualTo(LocalDateTime.of(2025, 8, 10, 14, 30).atZone(SAO_PAULO));
+        assertThat(TextScanner.dateTime("2025-08-10T14:30[Europe/Lisbon]", SAO_PAULO))
+                .isEqualTo(LocalDateTime.of(2025, 8, 10, 14, 30).atZone(ZoneId.of("Europe/Lisbon")));
+    }
+
+    @Test
+    void rejectsImpossibleOrMalformedDates() {
+        assertThat(TextScanner.dateTime("31/02/2025", SAO_PAULO)).isNull();
+        assertThat(TextScanner.dateTime("29/02/2025", SAO_PAULO)).isNull();
+        assertThat(TextScanner.dateTime("10/08/25", SAO_PAULO)).isNull();
+        assertThat(TextScanner.dateTime("10/08-2025", SAO_PAULO)).isNull();
+        assertThat(TextScanner.dateTime("10/08/2025 24:00", SAO_PAULO)).isNull();
+        assertThat(TextScanner.dateTime("10/08/2025 14h30", SAO_PAULO)).isNull();
+        assertThat(TextScanner.dateTime("2025-13-01", SAO_PAULO)).isNull();
+        assertThat(TextScanner.dateTime("2025-08-10T14:30[Mars/Base]", SAO_PAULO)).isNull();
+        assertThat(TextScanner.dateTime("ontem", SAO_PAULO)).isNull();
+    }
+}
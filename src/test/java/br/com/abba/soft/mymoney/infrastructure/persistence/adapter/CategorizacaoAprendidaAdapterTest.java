@@ -0,0 +1,107 @@
+package br.com.abba.soft.mymoney.infrastructure.persistence.adapter;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.SugestaoCategorizacao;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.infrastructure.config.CategorizacaoAprendidaProperties;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.CategorizacaoAprendidaDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CategorizacaoAprendidaAdapterTest {
+
+    private MongoTemplate mongoTemplate;
+    private CategorizacaoAprendidaAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(CategorizacaoAprendidaDocument.class)))
+                .thenReturn(mock(BulkOperations.class));
+        // defaults: minOcorrencias 2, minConfianca 0.8
+        adapter = new CategorizacaoAprendidaAdapter(mongoTemplate, new CategorizacaoAprendidaProperties());
+    }
+
+    @Test
+    void needsMinOcorrenciasBeforeSuggesting() {
+        CategorizacaoAprendidaDocument padaria = new CategorizacaoAprendidaDocument();
+        padaria.setToken("padaria");
+        padaria.setTotal(1);
+        padaria.setCategorias(Map.of("ALIMENTACAO", 1L));
+        padaria.setPagamentos(Map.of("PIX", 1L));
+        when(mongoTemplate.find(any(Query.class), eq(CategorizacaoAprendidaDocument.class))).thenReturn(List.of(padaria));
+
+        assertThat(adapter.sugerir("u1", "Padaria")).isEmpty();
+
+        adapter.aprender(despesa("Padaria", Categoria.ALIMENTACAO), 1);
+
+        assertThat(adapter.sugerir("u1", "padaria do centro"))
+                .contains(new SugestaoCategorizacao(Categoria.ALIMENTACAO, TipoPagamento.PIX));
+    }
+
+    @Test
+    void aSplitHistoryBelowMinConfiancaSuggestsNoCategoria() {
+        adapter.sugerir("u1", "padaria");
+        for (int i = 0; i < 3; i++) adapter.aprender(despesa("Padaria", Categoria.ALIMENTACAO), 1);
+        adapter.aprender(despesa("Padaria", Categoria.MERCADO), 1);
+
+        // 3 of 4 = 0.75; the payment is unanimous and still suggested
+        assertThat(adapter.sugerir("u1", "padaria"))
+                .contains(new SugestaoCategorizacao(null, TipoPagamento.PIX));
+
+        adapter.aprender(despesa("Padaria", Categoria.ALIMENTACAO), 1);
+
+        assertThat(adapter.sugerir("u1", "padaria").map(SugestaoCategorizacao::categoria)).contains(Categoria.ALIMENTACAO);
+    }
+
+    @Test
+    void updatingAnExpenseMovesItsVotes() {
+        adapter.sugerir("u1", "padaria");
+        adapter.aprender(despesa("Padaria", Categoria.ALIMENTACAO), 1);
+        adapter.aprender(despesa("Padaria", Categoria.ALIMENTACAO), 1);
+        assertThat(adapter.sugerir("u1", "padaria").map(SugestaoCategorizacao::categoria)).contains(Categoria.ALIMENTACAO);
+
+        // what DespesaService.atualizar does for each of the two expenses: withdraw the old, count the new
+        for (int i = 0; i < 2; i++) {
+            adapter.aprender(despesa("Padaria", Categoria.ALIMENTACAO), -1);
+            adapter.aprender(despesa("Padaria", Categoria.MERCADO), 1);
+        }
+
+        assertThat(adapter.sugerir("u1", "padaria").map(SugestaoCategorizacao::categoria)).contains(Categoria.MERCADO);
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq(CategorizacaoAprendidaDocument.class));
+    }
+
+    @Test
+    void unknownWordsSuggestNothing() {
+        adapter.sugerir("u1", "padaria");
+        adapter.aprender(despesa("Padaria", Categoria.ALIMENTACAO), 1);
+        adapter.aprender(despesa("Padaria", Categoria.ALIMENTACAO), 1);
+
+        assertThat(adapter.sugerir("u1", "cinema")).isEmpty();
+        assertThat(adapter.sugerir("u2", "padaria")).isEmpty();
+    }
+
+    private static Despesa despesa(String descricao, Categoria categoria) {
+        Despesa d = new Despesa(null, descricao, new BigDecimal("12.00"), LocalDateTime.of(2025, 8, 10, 8, 0), TipoPagamento.PIX);
+        d.setCategoria(categoria);
+        d.setUserId("u1");
+        return d;
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.abba.soft.mymoney.infrastructure.security;
+
+import br.com.abba.soft.mymoney.infrastructure.config.AuthTokenProperties;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.UsuarioDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthTokenServiceTest {
+
+    private UsuarioRepository repository;
+    private CredentialCache credentialCache;
+    private AuthTokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UsuarioRepository.class);
+        AuthTokenProperties props = new AuthTokenProperties();
+        props.setSecret("test-secret");
+        credentialCache = new CredentialCache(repository, props, new SimpleMeterRegistry());
+        tokenService = new AuthTokenService(props, credentialCache);
+        when(repository.findById("u1")).thenReturn(Optional.of(usuario("hash-1")));
+    }
+
+    @Test
+    void issuedTokenIsVerifiedWithoutPasswordHash() {
+        String token = tokenService.issue(new CustomUserDetails("u1", "ana@email.com", "hash-1")).value();
+
+        assertThat(tokenService.verify(token)).hasValueSatisfying(user -> {
+            assertThat(user.getId()).isEqualTo("u1");
+            assertThat(user.getUsername()).isEqualTo("ana@email.com");
+        });
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        String token = tokenService.issue(new CustomUserDetails("u1", "ana@email.com", "hash-1")).value();
+        String outroPayload = tokenService.issue(new CustomUserDetails("u2", "bia@email.com", "hash-2")).value().split("\\.")[0];
+
+        assertThat(tokenService.verify(outroPayload + token.substring(token.indexOf('.')))).isEmpty();
+        assertThat(tokenService.verify("garbage")).isEmpty();
+    }
+
+    @Test
+    void passwordChangeRetiresIssuedTokens() {
+        String token = tokenService.issue(new CustomUserDetails("u1", "ana@email.com", "hash-1")).value();
+        when(repository.findById("u1")).thenReturn(Optional.of(usuario("hash-2")));
+
+        credentialCache.invalidate("u1");
+
+        assertThat(tokenService.verify(token)).isEmpty();
+    }
+
+    private static UsuarioDocument usuario(String senhaHash) {
+        return new UsuarioDocument("u1", "Ana", "ana@email.com", null, senhaHash);
+    }
+}
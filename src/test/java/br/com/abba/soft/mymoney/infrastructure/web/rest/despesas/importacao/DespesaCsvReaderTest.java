@@ -0,0 +1,141 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.importacao;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.LinhaImportada;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.exportacao.DespesaCsvWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DespesaCsvReaderTest {
+
+    private static final ZoneId ZONA = ZoneId.of("America/Sao_Paulo");
+
+    @Test
+    void readsHeaderAliasesWithBomTabsAndBlankLines() {
+        String csv = "\uFEFFHistórico\tValor\tData_Hora\tTipo_Pagamento\tCategoria\n"
+                + "\n"
+                + "Padaria\t12,50\t10/08/2025 08:00\tpix\tAlimentação\n"
+                + "   \n"
+                + "Cinema\t40\t2025-08-11\t\t\n";
+
+        List<LinhaImportada> linhas = ler(csv, TipoPagamento.DINHEIRO);
+
+        assertThat(linhas).hasSize(2);
+        Despesa padaria = linhas.get(0).despesa();
+        assertThat(linhas.get(0).numero()).isEqualTo(3);
+        assertThat(padaria.getDescricao()).isEqualTo("Padaria");
+        assertThat(padaria.getValor()).isEqualByComparingTo(new BigDecimal("12.50"));
+        assertThat(padaria.getDataHora()).isEqualTo(LocalDateTime.of(2025, 8, 10, 8, 0).atZone(ZONA));
+        assertThat(padaria.getTipoPagamento()).isEqualTo(TipoPagamento.PIX);
+        assertThat(padaria.getCategoria()).isEqualTo(Categoria.ALIMENTACAO);
+        // empty pagamento falls back to the default, empty categoria stays unset
+        assertThat(linhas.get(1).numero()).isEqualTo(5);
+        assertThat(linhas.get(1).despesa().getTipoPagamento()).isEqualTo(TipoPagamento.DINHEIRO);
+        assertThat(linhas.get(1).despesa().getCategoria()).isNull();
+    }
+
+    @Test
+    void readsQuotedFieldsWithTheSeparatorAndEscapedQuotes() {
+        String csv = """
+                descricao;valor;data;pagamento
+                "Bar ""do Ze""; centro";R$ 1.234,56;2025-08-10T12:00:00-03:00;cartão de crédito
+                """;
+
+        LinhaImportada linha = ler(csv, null).get(0);
+
+        assertThat(linha.despesa().getDescricao()).isEqualTo("Bar \"do Ze\"; centro");
+        assertThat(linha.despesa().getValor()).isEqualByComparingTo(new BigDecimal("1234.56"));
+        assertThat(linha.despesa().getDataHora().getOffset()).isEqualTo(ZoneOffset.ofHours(-3));
+        assertThat(linha.despesa().getTipoPagamento()).isEqualTo(TipoPagamento.CARTAO_CREDITO);
+    }
+
+    @Test
+    void detectsCommaAsSeparator() {
+        String csv = """
+                descricao,valor,data
+                "Mercado, feira","12.90",2025-08-10
+                """;
+
+        LinhaImportada linha = ler(csv, TipoPagamento.PIX).get(0);
+
+        assertThat(linha.despesa().getDescricao()).isEqualTo("Mercado, feira");
+        assertThat(linha.despesa().getValor()).isEqualByComparingTo(new BigDecimal("12.90"));
+        assertThat(linha.despesa().getTipoPagamento()).isEqualTo(TipoPagamento.PIX);
+    }
+
+    @Test
+    void reportsBadRowsWithTheirLineAndKeepsReading() {
+        String csv = """
+                descricao;valor;data;pagamento;categoria
+                Luz;abc;10/08/2025;pix;
+                Agua;50;31/02/2025;pix;
+
+                Gas;70;10/08/2025;cheque;
+                Net;99,90;10/08/2025;pix;viagem
+                Ok;1;10/08/2025;pix;
+                """;
+
+        List<LinhaImportada> linhas = ler(csv, null);
+
+        assertThat(linhas).extracting(LinhaImportada::numero).containsExactly(2L, 3L, 5L, 6L, 7L);
+        assertThat(linhas).extracting(LinhaImportada::erro).containsExactly(
+                "Valor invalido: abc",
+                "Data invalida: 31/02/2025",
+                "Tipo de pagamento invalido: cheque",
+                "Categoria invalida: viagem",
+                null);
+    }
+
+    @Test
+    void rejectsEmptyFilesAndHeadersWithoutRequiredColumns() {
+        assertThatThrownBy(() -> ler("\n\n", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Arquivo CSV vazio");
+        assertThatThrownBy(() -> ler("descricao;valor\nLuz;10\n", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("descricao, valor e data");
+    }
+
+    @Test
+    void readsBackWhatTheCsvExportWrites() throws IOException {
+        Despesa original = new Despesa("d1", "Bar \"central\"; happy hour", new BigDecimal("1234.56"),
+                LocalDateTime.of(2025, 8, 10, 19, 30), TipoPagamento.CARTAO_DEBITO);
+        original.setCategoria(Categoria.LAZER);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DespesaCsvWriter writer = new DespesaCsvWriter(out, 1024)) {
+            writer.accept(original);
+        }
+
+        List<LinhaImportada> linhas = ler(out.toString(StandardCharsets.UTF_8), null);
+
+        assertThat(linhas).singleElement().satisfies(l -> {
+            assertThat(l.erro()).isNull();
+            assertThat(l.despesa().getDescricao()).isEqualTo(original.getDescricao());
+            assertThat(l.despesa().getValor()).isEqualByComparingTo(original.getValor());
+            assertThat(l.despesa().getDataHora().toInstant()).isEqualTo(original.getDataHora().toInstant());
+            assertThat(l.despesa().getTipoPagamento()).isEqualTo(TipoPagamento.CARTAO_DEBITO);
+            assertThat(l.despesa().getCategoria()).isEqualTo(Categoria.LAZER);
+        });
+    }
+
+    private static List<LinhaImportada> ler(String csv, TipoPagamento tipoPadrao) {
+        List<LinhaImportada> linhas = new ArrayList<>();
+        new DespesaCsvReader(new StringReader(csv), tipoPadrao, ZONA).forEachRemaining(linhas::add);
+        return linhas;
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.despesas.importacao;
+
+import br.com.abba.soft.mymoney.domain.model.LinhaImportada;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DespesaOfxReaderTest {
+
+    private static final ZoneId ZONA = ZoneId.of("America/Sao_Paulo");
+
+    @Test
+    void readsDebitsFromSgmlCreditCardStatementAndSkipsCredits() {
+        String ofx = """
+                OFXHEADER:100
+                DATA:OFXSGML
+
+                <OFX><CREDITCARDMSGSRSV1><CCSTMTTRNRS><CCSTMTRS><BANKTRANLIST>
+                <STMTTRN>
+                <TRNTYPE>DEBIT
+                <DTPOSTED>20250810120000[-3:BRT]
+                <TRNAMT>-35.90
+                <FITID>1
+                <MEMO>RESTAURANTE &amp; BAR
+                </STMTTRN>
+                <STMTTRN>
+                <TRNTYPE>CREDIT
+                <DTPOSTED>20250811
+                <TRNAMT>100.00
+                </STMTTRN>
+                <STMTTRN>
+                <DTPOSTED>20250812
+                <TRNAMT>-12,5
+                <NAME>PADARIA
+                </STMTTRN>
+                <STMTTRN>
+                <DTPOSTED>ontem
+                <TRNAMT>-1.00
+                <MEMO>X
+                </STMTTRN>
+                </BANKTRANLIST></CCSTMTRS></CCSTMTTRNRS></CREDITCARDMSGSRSV1></OFX>
+                """;
+
+        List<LinhaImportada> linhas = new ArrayList<>();
+        new DespesaOfxReader(new StringReader(ofx), null, ZONA).forEachRemaining(linhas::add);
+
+        assertThat(linhas).hasSize(3);
+        var primeira = linhas.get(0).despesa();
+        assertThat(primeira.getDescricao()).isEqualTo("RESTAURANTE & BAR");
+        assertThat(primeira.getValor()).isEqualByComparingTo(new BigDecimal("35.90"));
+        assertThat(primeira.getDataHora().getOffset()).isEqualTo(ZoneOffset.ofHours(-3));
+        assertThat(primeira.getTipoPagamento()).isEqualTo(TipoPagamento.CARTAO_CREDITO);
+        assertThat(linhas.get(1).numero()).isEqualTo(3);
+        assertThat(linhas.get(1).despesa().getDescricao()).isEqualTo("PADARIA");
+        assertThat(linhas.get(1).despesa().getValor()).isEqualByComparingTo(new BigDecimal("12.5"));
+        assertThat(linhas.get(2).numero()).isEqualTo(4);
+        assertThat(linhas.get(2).erro()).startsWith("Data invalida");
+    }
+
+    @Test
+    void readsXmlStatementWithClosingTagsOnOneLine() {
+        String ofx = "<?xml version=\"1.0\"?><OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>"
+                + "<STMTTRN><DTPOSTED>20250101</DTPOSTED><TRNAMT>-10.00</TRNAMT><MEMO>LUZ</MEMO></STMTTRN>"
+                + "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>";
+
+        List<LinhaImportada> linhas = new ArrayList<>();
+        new DespesaOfxReader(new StringReader(ofx), TipoPagamento.PIX, ZONA).forEachRemaining(linhas::add);
+
+        assertThat(linhas).singleElement().satisfies(l -> {
+            assertThat(l.despesa().getDescricao()).isEqualTo("LUZ");
+            assertThat(l.despesa().getTipoPagamento()).isEqualTo(TipoPagamento.PIX);
+            assertThat(l.despesa().getDataHora().toLocalDate()).hasToString("2025-01-01");
+        });
+    }
+}
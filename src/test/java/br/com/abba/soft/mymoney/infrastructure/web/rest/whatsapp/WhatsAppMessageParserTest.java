@@ -0,0 +1,35 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp;
+
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WhatsAppMessageParserTest {
+
+    @Test
+    void splitsFreeTextIntoDescriptionAmountAndPayment() {
+        var text = WhatsAppMessageParser.tryParseFreeText("Uber aeroporto R$ 23,90 cartão de crédito").orElseThrow();
+
+        assertThat(text.descricao()).isEqualTo("Uber aeroporto");
+        assertThat(text.valor()).isEqualByComparingTo(new BigDecimal("23.90"));
+        assertThat(text.tipoPagamento()).isEqualTo(TipoPagamento.CARTAO_CREDITO);
+    }
+
+    @Test
+    void leavesPaymentEmptyWhenTheTextHasNone() {
+        var text = WhatsAppMessageParser.tryParseFreeText("padaria 12").orElseThrow();
+
+        assertThat(text.descricao()).isEqualTo("padaria");
+        assertThat(text.tipoPagamento()).isNull();
+    }
+
+    @Test
+    void rejectsTextsWithoutASingleAmount() {
+        assertThat(WhatsAppMessageParser.tryParseFreeText("mercado ontem")).isEmpty();
+        assertThat(WhatsAppMessageParser.tryParseFreeText("mercado 10/08 120")).isEmpty();
+        assertThat(WhatsAppMessageParser.tryParseFreeText("tv 3x 500")).isEmpty();
+    }
+}
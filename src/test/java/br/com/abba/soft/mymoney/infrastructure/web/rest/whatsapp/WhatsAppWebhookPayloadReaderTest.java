@@ -0,0 +1,59 @@
+package br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp;
+
+import br.com.abba.soft.mymoney.infrastructure.web.rest.whatsapp.WhatsAppWebhookController.WhatsMetaRoot;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WhatsAppWebhookPayloadReaderTest {
+
+    @Test
+    void readsTextAndAudioMessagesSkippingStatusesAndContacts() {
+        String json = """
+                {"object":"whatsapp_business_account","entry":[{"id":"1","changes":[{"field":"messages","value":{
+                  "messaging_product":"whatsapp",
+                  "metadata":{"display_phone_number":"5511999999999","phone_number_id":"123"},
+                  "contacts":[{"profile":{"name":"Ana"},"wa_id":"5511988887777"}],
+                  "statuses":[{"id":"wamid.S","status":"delivered"}],
+                  "messages":[
+                    {"from":"5511988887777","id":"wamid.A","timestamp":1700000000,"type":"text","text":{"body":"almoco; 35; pix"},"context":{"id":"x"}},
+                    {"from":"5511988887777","id":"wamid.B","timestamp":"1700000001","type":"audio","audio":{"id":"media-1","mime_type":"audio/ogg; codecs=opus","voice":true}}
+                  ]}}]}]}
+                """;
+
+        WhatsMetaRoot root = WhatsAppWebhookPayloadReader.read(json);
+
+        var value = root.entry().getFirst().changes().getFirst().value();
+        assertThat(value.metadata().phone_number_id()).isEqualTo("123");
+        assertThat(value.messages()).hasSize(2);
+        var text = value.messages().get(0);
+        assertThat(text.id()).isEqualTo("wamid.A");
+        assertThat(text.timestamp()).isEqualTo("1700000000");
+        assertThat(text.text().body()).isEqualTo("almoco; 35; pix");
+        var audio = value.messages().get(1);
+        assertThat(audio.type()).isEqualTo("audio");
+        assertThat(audio.audio().id()).isEqualTo("media-1");
+        assertThat(audio.audio().mime_type()).isEqualTo("audio/ogg; codecs=opus");
+    }
+
+    @Test
+    void statusOnlyNotificationHasNoMessages() {
+        WhatsMetaRoot root = WhatsAppWebhookPayloadReader.read(
+                "{\"entry\":[{\"changes\":[{\"value\":{\"statuses\":[{\"id\":\"wamid.S\"}]}}]}]}");
+
+        assertThat(root.entry().getFirst().changes().getFirst().value().messages()).isNull();
+    }
+
+    @Test
+    void rejectsMalformedShapes() {
+        assertThatThrownBy(() -> WhatsAppWebhookPayloadReader.read("[]"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> WhatsAppWebhookPayloadReader.read("{\"entry\":{}}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> WhatsAppWebhookPayloadReader.read("{\"entry\":[{\"changes\":[{\"value\":{\"messages\":[{\"from\":{}}]}}]}]}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> WhatsAppWebhookPayloadReader.read("{\"entry\":[}"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.abba.soft.mymoney.integration;
+
+import br.com.abba.soft.mymoney.domain.model.Categoria;
+import br.com.abba.soft.mymoney.domain.model.Despesa;
+import br.com.abba.soft.mymoney.domain.model.ResumoMensal;
+import br.com.abba.soft.mymoney.domain.model.TipoPagamento;
+import br.com.abba.soft.mymoney.domain.port.DespesaRepositoryPort;
+import br.com.abba.soft.mymoney.domain.port.ResumoMensalRepositoryPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnabledIfSystemProperty(named = "testcontainers.enabled", matches = "true")
+public class ResumoMensalRepositoryIT extends MongoIntegrationTest {
+
+    private static final YearMonth AGOSTO = YearMonth.of(2025, 8);
+
+    @Autowired
+    private DespesaRepositoryPort despesas;
+
+    @Autowired
+    private ResumoMensalRepositoryPort resumoMensal;
+
+    @Test
+    void rebuildOverwritesDriftedRowsAndRemovesStaleOnes() {
+        Despesa almoco = new Despesa(null, "Almoco", new BigDecimal("35.90"), LocalDateTime.of(2025, 8, 10, 12, 0), TipoPagamento.PIX);
+        almoco.setCategoria(Categoria.ALIMENTACAO);
+        almoco.setUserId("resumo-it");
+        despesas.save(almoco);
+        // drift: a wrong total on the real row and a row no expense backs
+        resumoMensal.incrementar("resumo-it", AGOSTO, Categoria.ALIMENTACAO, TipoPagamento.PIX, new BigDecimal("99"), 3);
+        resumoMensal.incrementar("resumo-it", AGOSTO, Categoria.LAZER, TipoPagamento.DINHEIRO, BigDecimal.TEN, 1);
+
+        assertThat(resumoMensal.reconstruir("resumo-it")).isEqualTo(1);
+
+        List<ResumoMensal> linhas = resumoMensal.findByUserIdAndMesBetween("resumo-it", AGOSTO, AGOSTO);
+        assertThat(linhas).singleElement().satisfies(linha -> {
+            assertThat(linha.categoria()).isEqualTo(Categoria.ALIMENTACAO);
+            assertThat(linha.total()).isEqualByComparingTo("35.90");
+            assertThat(linha.quantidade()).isEqualTo(1);
+        });
+    }
+}
@@ -0,0 +1,231 @@
+package br.com.abba.soft.mymoney.integration;
+
+import br.com.abba.soft.mymoney.integration.simulator.UpstreamSimulator;
+import br.com.abba.soft.mymoney.integration.simulator.WebhookLoadGenerator;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.UsuarioDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppIncomingMessageDocument;
+import br.com.abba.soft.mymoney.infrastructure.persistence.entity.WhatsAppMessageStatus;
+import br.com.abba.soft.mymoney.infrastructure.persistence.repository.UsuarioRepository;
+import br.com.abba.soft.mymoney.infrastructure.persistence.repository.WhatsAppIncomingMessageRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load run: webhook → queue → WhatsAppMessageProcessor → DespesaService → reply through the
+ * outbox, against Testcontainers Mongo and {@link UpstreamSimulator} in place of Meta and OpenAI.
+ * Reports throughput, webhook and end-to-end latency (p50/p99) and queue lag. Tune with system properties:
+ * load.rate (messages/s, 50), load.seconds (20), load.users (25), sim.openai.latency-ms (400),
+ * sim.graph.latency-ms (80), sim.error-rate (0.02) and sim.rate-limit-rate (0.01).
+ */
+@EnabledIfSystemProperty(named = "testcontainers.enabled", matches = "true")
+@EnabledIfSystemProperty(named = "load.enabled", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class WhatsAppLoadIT extends MongoIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WhatsAppLoadIT.class);
+
+    // Every message carries a digit-free marker ("lt" + index as letters) that reappears in its reply
+    private static final Pattern REF = Pattern.compile("\\blt([a-j]+)\\b");
+
+    private static final UpstreamSimulator SIMULATOR;
+    static {
+        try {
+            SIMULATOR = UpstreamSimulator.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void upstreamProps(DynamicPropertyRegistry registry) {
+        registry.add("meta.whatsapp.graph-base-url", SIMULATOR::graphBaseUrl);
+        registry.add("openai.base-url", SIMULATOR::openAiBaseUrl);
+        // Any key that is not "fake", otherwise the extractor never leaves the local parser
+        registry.add("openai.api-key", () -> "sk-load-simulator");
+        registry.add("whatsapp.processor.poll-interval-ms", () -> "200");
+        registry.add("whatsapp.processor.retry-initial-backoff-seconds", () -> "1");
+        registry.add("whatsapp.processor.retry-max-backoff-seconds", () -> "5");
+        registry.add("whatsapp.outbox.poll-interval-ms", () -> "200");
+        registry.add("whatsapp.outbox.messages-per-second", () -> "1000");
+        registry.add("whatsapp.outbox.retry-initial-backoff-seconds", () -> "1");
+    }
+
+    @AfterAll
+    static void stopSimulator() {
+        SIMULATOR.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private WhatsAppIncomingMessageRepository messageRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final Map<Integer, Long> respondidaEm = new ConcurrentHashMap<>();
+
+    @Test
+    void sustainsTheTargetRateEndToEnd() throws InterruptedException {
+        double rate = Double.parseDouble(System.getProperty("load.rate", "50"));
+        int seconds = Integer.getInteger("load.seconds", 20);
+        int users = Integer.getInteger("load.users", 25);
+        double errorRate = Double.parseDouble(System.getProperty("sim.error-rate", "0.02"));
+        double rateLimitRate = Double.parseDouble(System.getProperty("sim.rate-limit-rate", "0.01"));
+        long openAiLatency = Long.getLong("sim.openai.latency-ms", 400);
+        long graphLatency = Long.getLong("sim.graph.latency-ms", 80);
+
+        List<String> telefones = new ArrayList<>(users);
+        for (int u = 0; u < users; u++) {
+            String telefone = String.format("55119%08d", u);
+            telefones.add(telefone);
+            usuarioRepository.save(new UsuarioDocument(null, "Carga " + u, "carga" + u + "@example.com", telefone, null));
+        }
+        SIMULATOR.aoEnviarMensagem(body -> {
+            Matcher ref = REF.matcher(body);
+            if (body.startsWith("✅") && ref.find()) respondidaEm.putIfAbsent(indice(ref.group(1)), System.nanoTime());
+        });
+        WebhookLoadGenerator generator = new WebhookLoadGenerator(URI.create("http://localhost:" + port + "/webhooks/whatsapp"));
+
+        // Warm-up without faults: JIT, connection pools and the processor's initial delay stay out of the numbers
+        int warmup = 20;
+        generator.executar(payloads(0, warmup, telefones), 10);
+        aguardarRespostas(0, warmup, Duration.ofSeconds(60));
+
+        SIMULATOR.openAi().latencia(openAiLatency, openAiLatency / 2).falhas(errorRate, rateLimitRate);
+        SIMULATOR.graph().latencia(graphLatency, graphLatency / 2).falhas(errorRate, rateLimitRate);
+
+        int total = (int) Math.round(rate * seconds);
+        AtomicLong maiorFila = new AtomicLong();
+        ScheduledExecutorService amostrador = Executors.newSingleThreadScheduledExecutor();
+        amostrador.scheduleAtFixedRate(() -> maiorFila.accumulateAndGet(
+                messageRepository.countByStatus(WhatsAppMessageStatus.PENDING)
+                        + messageRepository.countByStatus(WhatsAppMessageStatus.PENDING_MEDIA), Math::max),
+                0, 250, TimeUnit.MILLISECONDS);
+        WebhookLoadGenerator.Resultado resultado;
+        try {
+            resultado = generator.executar(payloads(warmup, total, telefones), rate);
+            aguardarRespostas(warmup, total, Duration.ofSeconds(seconds * 3L + 60));
+        } finally {
+            amostrador.shutdownNow();
+        }
+
+        long[] ponta = new long[total];
+        long ultima = 0;
+        for (int i = 0; i < total; i++) {
+            Long em = respondidaEm.get(warmup + i);
+            ponta[i] = em == null ? -1 : em - resultado.enviadaEm()[i];
+            if (em != null) ultima = Math.max(ultima, em);
+        }
+        int concluidas = (int) Arrays.stream(ponta).filter(v -> v >= 0).count();
+        double vazao = concluidas / ((ultima - resultado.enviadaEm()[0]) / 1e9);
+        long[] atrasoFila = atrasoNaFila();
+
+        log.info("""
+                        [WhatsAppLoadIT] Carga: {} mensagens a {}/s (real {}/s), {} usuarios
+                          webhook: {} aceitas, p50={}ms p99={}ms
+                          ponta a ponta: {} concluidas, vazao={}/s, p50={}ms p99={}ms
+                          fila: atraso p50={}ms p99={}ms, maior profundidade={}
+                          simulador: {}""",
+                total, rate, String.format("%.1f", resultado.taxaReal()), users,
+                resultado.aceitas(), ms(WebhookLoadGenerator.percentil(resultado.latenciaAck(), 50)),
+                ms(WebhookLoadGenerator.percentil(resultado.latenciaAck(), 99)),
+                concluidas, String.format("%.1f", vazao),
+                ms(WebhookLoadGenerator.percentil(ponta, 50)), ms(WebhookLoadGenerator.percentil(ponta, 99)),
+                WebhookLoadGenerator.percentil(atrasoFila, 50), WebhookLoadGenerator.percentil(atrasoFila, 99),
+                maiorFila.get(), SIMULATOR.chamadas());
+
+        assertThat(resultado.aceitas()).isEqualTo(total);
+        // Injected faults are retried; only the few that exhaust their attempts may go unanswered
+        assertThat(concluidas).isGreaterThanOrEqualTo((int) (total * 0.95));
+    }
+
+    /**
+     * Mix per ten messages: four structured (local parser), five free text that only OpenAI can read
+     * (two numbers) and one voice note (media download, transcription, then the parser).
+     */
+    private static List<String> payloads(int inicio, int quantidade, List<String> telefones) {
+        List<String> payloads = new ArrayList<>(quantidade);
+        for (int i = inicio; i < inicio + quantidade; i++) {
+            String de = telefones.get(i % telefones.size());
+            String ref = "lt" + letras(i);
+            String waId = "wamid.load" + i;
+            payloads.add(switch (i % 10) {
+                case 0, 1, 2, 3 -> WebhookLoadGenerator.texto(de, waId, "Despesa: Almoço " + ref + "; Valor: 35,90; Pagamento: PIX");
+                case 9 -> WebhookLoadGenerator.audio(de, waId, ref);
+                default -> WebhookLoadGenerator.texto(de, waId, "uber " + ref + " 23,90 no cartao dia 12");
+            });
+        }
+        return payloads;
+    }
+
+    private void aguardarRespostas(int inicio, int quantidade, Duration limite) throws InterruptedException {
+        long prazo = System.nanoTime() + limite.toNanos();
+        while (System.nanoTime() < prazo) {
+            long faltam = IntStream.range(inicio, inicio + quantidade)
+                    .filter(i -> !respondidaEm.containsKey(i)).count();
+            if (faltam == 0) return;
+            Thread.sleep(200);
+        }
+    }
+
+    // Time text messages waited between the webhook and a worker claiming them (first attempt only)
+    private long[] atrasoNaFila() {
+        Query query = Query.query(Criteria.where("waMessageId").regex("^wamid\\.load")
+                .and("type").is("text").and("status").is(WhatsAppMessageStatus.PROCESSED).and("attempts").is(1));
+        return mongoTemplate.find(query, WhatsAppIncomingMessageDocument.class).stream()
+                .filter(m -> m.getReceivedAt() != null && m.getLastAttemptAt() != null)
+                .mapToLong(m -> Duration.between(m.getReceivedAt(), m.getLastAttemptAt()).toMillis())
+                .toArray();
+    }
+
+    private static String letras(int i) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : Integer.toString(i).toCharArray()) sb.append((char) ('a' + (c - '0')));
+        return sb.toString();
+    }
+
+    private static int indice(String letras) {
+        int i = 0;
+        for (char c : letras.toCharArray()) i = i * 10 + (c - 'a');
+        return i;
+    }
+
+    private static long ms(long nanos) {
+        return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,246 @@
+package br.com.abba.soft.mymoney.integration.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the WhatsApp Graph API and the OpenAI endpoints the application calls, for load tests.
+ * Answers like the real services (message ids, media URLs, chat completions in the requested JSON shape,
+ * transcriptions) after a configurable latency, and fails a configurable share of the calls with 5xx or 429.
+ * <p>
+ * Graph: {@code POST /graph/v20.0/{phoneNumberId}/messages}, {@code GET /graph/v20.0/{mediaId}} and the media
+ * download under {@code /graph/media/}. OpenAI: {@code POST /openai/v1/chat/completions} and
+ * {@code /openai/v1/audio/transcriptions}. The audio served for a media id carries a {@code ref=} marker
+ * that comes back in its transcription, so a reply can be traced to the message that produced it.
+ */
+public final class UpstreamSimulator implements AutoCloseable {
+
+    /** Latency and failures injected into one upstream; changes apply to the next requests. */
+    public static final class Comportamento {
+        private volatile long latenciaMs;
+        private volatile long jitterMs;
+        private volatile double taxaErro;
+        private volatile double taxaLimite;
+
+        /** Every answer waits latenciaMs plus a uniform random share of jitterMs. */
+        public Comportamento latencia(long latenciaMs, long jitterMs) {
+            this.latenciaMs = latenciaMs;
+            this.jitterMs = jitterMs;
+            return this;
+        }
+
+        /** Shares (0..1) of the requests answered with 503 and with 429 + Retry-After. */
+        public Comportamento falhas(double taxaErro, double taxaLimite) {
+            this.taxaErro = taxaErro;
+            this.taxaLimite = taxaLimite;
+            return this;
+        }
+    }
+
+    private static final Pattern VALOR = Pattern.compile("(\\d+(?:[.,]\\d{1,2})?)");
+    private static final Pattern REF = Pattern.compile("ref=([A-Za-z0-9_-]+)");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Comportamento graph = new Comportamento();
+    private final Comportamento openAi = new Comportamento();
+    private final Map<String, LongAdder> chamadas = new ConcurrentHashMap<>();
+    private final AtomicLong sequencia = new AtomicLong();
+    private volatile Consumer<String> aoEnviarMensagem = body -> {};
+
+    private UpstreamSimulator(HttpServer server) {
+        this.server = server;
+        // Latency is simulated by sleeping, so every request gets its own (virtual) thread
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/graph/v20.0/", simulado(graph, this::graphApi));
+        server.createContext("/graph/media/", simulado(graph, this::download));
+        server.createContext("/openai/v1/chat/completions", simulado(openAi, this::chatCompletion));
+        server.createContext("/openai/v1/audio/transcriptions", simulado(openAi, this::transcricao));
+    }
+
+    /** Starts on a free local port. */
+    public static UpstreamSimulator start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 512);
+        UpstreamSimulator simulator = new UpstreamSimulator(server);
+        server.start();
+        return simulator;
+    }
+
+    public String graphBaseUrl() { return baseUrl() + "/graph/v20.0"; }
+    public String openAiBaseUrl() { return baseUrl() + "/openai/v1"; }
+    public Comportamento graph() { return graph; }
+    public Comportamento openAi() { return openAi; }
+
+    /** Called with the text of every message the application sends through the Graph API. */
+    public void aoEnviarMensagem(Consumer<String> listener) { this.aoEnviarMensagem = listener; }
+
+    /** Requests received per route and outcome, e.g. {@code graph.messages 200} or {@code openai.chat 503}. */
+    public Map<String, Long> chamadas() {
+        Map<String, Long> copia = new TreeMap<>();
+        chamadas.forEach((k, v) -> copia.put(k, v.sum()));
+        return copia;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    private interface Rota {
+        void atender(HttpExchange exchange) throws IOException;
+    }
+
+    private HttpHandler simulado(Comportamento comportamento, Rota rota) {
+        return exchange -> {
+            try (exchange) {
+                long espera = comportamento.latenciaMs + (comportamento.jitterMs > 0
+                        ? ThreadLocalRandom.current().nextLong(comportamento.jitterMs + 1) : 0);
+                if (espera > 0) Thread.sleep(espera);
+                double sorteio = ThreadLocalRandom.current().nextDouble();
+                if (sorteio < comportamento.taxaLimite) {
+                    drenar(exchange.getRequestBody());
+                    exchange.getResponseHeaders().add("Retry-After", "1");
+                    responder(exchange, 429, "{\"error\":{\"message\":\"simulated rate limit\",\"code\":130429}}");
+                    contar(exchange, 429);
+                } else if (sorteio < comportamento.taxaLimite + comportamento.taxaErro) {
+                    drenar(exchange.getRequestBody());
+                    responder(exchange, 503, "{\"error\":{\"message\":\"simulated failure\"}}");
+                    contar(exchange, 503);
+                } else {
+                    rota.atender(exchange);
+                    contar(exchange, 200);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException | IOException e) {
+                chamadas.computeIfAbsent("falha-simulador", k -> new LongAdder()).increment();
+                throw e;
+            }
+        };
+    }
+
+    private void contar(HttpExchange exchange, int status) {
+        String path = exchange.getRequestURI().getPath();
+        String rota = path.endsWith("/chat/completions") ? "openai.chat"
+                : path.endsWith("/audio/transcriptions") ? "openai.transcription"
+                : path.endsWith("/messages") ? "graph.messages"
+                : path.startsWith("/graph/media/") ? "graph.download" : "graph.media";
+        chamadas.computeIfAbsent(rota + " " + status, k -> new LongAdder()).increment();
+    }
+
+    private void graphApi(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if ("POST".equals(exchange.getRequestMethod()) && path.endsWith("/messages")) {
+            JsonNode request = mapper.readTree(exchange.getRequestBody());
+            aoEnviarMensagem.accept(request.path("text").path("body").asText(""));
+            responder(exchange, 200, "{\"messaging_product\":\"whatsapp\",\"contacts\":[{\"input\":\""
+                    + request.path("to").asText() + "\"}],\"messages\":[{\"id\":\"wamid.SIM" + sequencia.incrementAndGet() + "\"}]}");
+            return;
+        }
+        String mediaId = path.substring(path.lastIndexOf('/') + 1);
+        responder(exchange, 200, "{\"url\":\"" + (baseUrl() + "/graph/media/" + mediaId).replace("/", "\\/")
+                + "\",\"mime_type\":\"audio/ogg\",\"file_size\":512,\"id\":\"" + mediaId + "\",\"messaging_product\":\"whatsapp\"}");
+    }
+
+    private void download(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        byte[] audio = new byte[512];
+        byte[] ref = ("ref=" + path.substring(path.lastIndexOf('/') + 1) + " ").getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(ref, 0, audio, 0, Math.min(ref.length, audio.length));
+        exchange.getResponseHeaders().add("Content-Type", "audio/ogg");
+        exchange.sendResponseHeaders(200, audio.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(audio);
+        }
+    }
+
+    private void transcricao(HttpExchange exchange) throws IOException {
+        String multipart = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.ISO_8859_1);
+        Matcher ref = REF.matcher(multipart);
+        String texto = "uber " + (ref.find() ? ref.group(1) : "audio") + " 23,90 pix";
+        ObjectNode resposta = mapper.createObjectNode().put("text", texto);
+        responder(exchange, 200, mapper.writeValueAsString(resposta));
+    }
+
+    private void chatCompletion(HttpExchange exchange) throws IOException {
+        JsonNode request = mapper.readTree(exchange.getRequestBody());
+        String prompt = request.path("messages").path(1).path("content").asText("");
+        String content;
+        int lote = prompt.indexOf("\nMensagens=\n");
+        if (lote >= 0) {
+            ArrayNode despesas = mapper.createArrayNode();
+            for (JsonNode item : mapper.readTree(prompt.substring(lote + "\nMensagens=\n".length()))) {
+                despesas.add(despesa(item.path("mensagem").asText("")).put("id", item.path("id").asText()));
+            }
+            content = mapper.writeValueAsString(mapper.createObjectNode().set("despesas", despesas));
+        } else {
+            int unica = prompt.indexOf("\nMensagem=\n");
+            content = mapper.writeValueAsString(despesa(unica >= 0 ? prompt.substring(unica + "\nMensagem=\n".length()) : prompt));
+        }
+        ObjectNode resposta = mapper.createObjectNode();
+        resposta.put("id", "chatcmpl-sim" + sequencia.incrementAndGet()).put("object", "chat.completion");
+        resposta.putArray("choices").addObject().put("index", 0).put("finish_reason", "stop")
+                .putObject("message").put("role", "assistant").put("content", content);
+        resposta.putObject("usage").put("total_tokens", 120 + prompt.length() / 4);
+        responder(exchange, 200, mapper.writeValueAsString(resposta));
+    }
+
+    // Good enough for generated load: the first number is the amount, the rest of the text the description
+    private ObjectNode despesa(String mensagem) {
+        Matcher valor = VALOR.matcher(mensagem);
+        ObjectNode despesa = mapper.createObjectNode();
+        if (valor.find()) {
+            String descricao = (mensagem.substring(0, valor.start()) + mensagem.substring(valor.end())).replaceAll("\\s+", " ").trim();
+            despesa.put("descricao", descricao.isEmpty() ? "Despesa" : descricao);
+            despesa.put("valor", Double.parseDouble(valor.group(1).replace(',', '.')));
+        }
+        String lower = mensagem.toLowerCase(Locale.ROOT);
+        despesa.put("tipoPagamento", lower.contains("cart") || lower.contains("credito") ? "CARTAO_CREDITO"
+                : lower.contains("dinheiro") ? "DINHEIRO" : "PIX");
+        return despesa;
+    }
+
+    private static void responder(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void drenar(InputStream in) throws IOException {
+        in.transferTo(OutputStream.nullOutputStream());
+    }
+}
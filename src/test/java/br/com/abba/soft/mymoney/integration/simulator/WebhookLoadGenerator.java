@@ -0,0 +1,116 @@
+package br.com.abba.soft.mymoney.integration.simulator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays WhatsApp webhook payloads against the application at a fixed rate. The schedule is open loop:
+ * request i leaves at start + i / rate whether or not earlier ones were answered, so a slow server shows up
+ * as latency instead of silently lowering the offered load.
+ */
+public final class WebhookLoadGenerator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Outcome of a run; arrays are indexed like the payload list, nanoTime based, -1 when not answered. */
+    public record Resultado(int enviadas, int aceitas, long duracaoNanos, long[] enviadaEm, long[] latenciaAck) {
+        public double taxaReal() {
+            return enviadas / (duracaoNanos / 1e9);
+        }
+    }
+
+    private final HttpClient client;
+    private final URI webhook;
+
+    public WebhookLoadGenerator(URI webhook) {
+        this.webhook = webhook;
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    public Resultado executar(List<String> payloads, double mensagensPorSegundo) {
+        int n = payloads.size();
+        long[] enviadaEm = new long[n];
+        long[] latenciaAck = new long[n];
+        Arrays.fill(latenciaAck, -1);
+        AtomicInteger aceitas = new AtomicInteger();
+        CompletableFuture<?>[] respostas = new CompletableFuture<?>[n];
+        long intervalo = (long) (1_000_000_000L / mensagensPorSegundo);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            long alvo = inicio + i * intervalo;
+            for (long falta = alvo - System.nanoTime(); falta > 0; falta = alvo - System.nanoTime()) {
+                LockSupport.parkNanos(falta);
+            }
+            HttpRequest request = HttpRequest.newBuilder(webhook)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(payloads.get(i)))
+                    .build();
+            int indice = i;
+            enviadaEm[i] = System.nanoTime();
+            respostas[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(resp -> {
+                        latenciaAck[indice] = System.nanoTime() - enviadaEm[indice];
+                        if (resp.statusCode() == 202) aceitas.incrementAndGet();
+                    })
+                    .exceptionally(e -> null);
+        }
+        CompletableFuture.allOf(respostas).join();
+        return new Resultado(n, aceitas.get(), System.nanoTime() - inicio, enviadaEm, latenciaAck);
+    }
+
+    /** Nearest-rank percentile (0..100) of the non-negative values, or -1 when there are none. */
+    public static long percentil(long[] valores, double p) {
+        long[] validos = Arrays.stream(valores).filter(v -> v >= 0).sorted().toArray();
+        if (validos.length == 0) return -1;
+        int rank = (int) Math.ceil(p / 100.0 * validos.length);
+        return validos[Math.max(0, rank - 1)];
+    }
+
+    /** Webhook body with one text message, shaped like the Cloud API sends it. */
+    public static String texto(String de, String waMessageId, String corpo) {
+        ObjectNode message = mensagem(de, waMessageId, "text");
+        message.putObject("text").put("body", corpo);
+        return envelope(message);
+    }
+
+    /** Webhook body with one voice note referencing the given media id. */
+    public static String audio(String de, String waMessageId, String mediaId) {
+        ObjectNode message = mensagem(de, waMessageId, "audio");
+        message.putObject("audio").put("id", mediaId).put("mime_type", "audio/ogg; codecs=opus");
+        return envelope(message);
+    }
+
+    private static ObjectNode mensagem(String de, String waMessageId, String tipo) {
+        ObjectNode message = MAPPER.createObjectNode();
+        message.put("from", de).put("id", waMessageId)
+                .put("timestamp", String.valueOf(System.currentTimeMillis() / 1000)).put("type", tipo);
+        return message;
+    }
+
+    private static String envelope(ObjectNode message) {
+        ObjectNode root = MAPPER.createObjectNode().put("object", "whatsapp_business_account");
+        ObjectNode value = root.putArray("entry").addObject().put("id", "0")
+                .putArray("changes").addObject().put("field", "messages")
+                .putObject("value").put("messaging_product", "whatsapp");
+        value.putObject("metadata").put("display_phone_number", "5511000000000").put("phone_number_id", "000000000000000");
+        value.putArray("messages").add(message);
+        try {
+            return MAPPER.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}